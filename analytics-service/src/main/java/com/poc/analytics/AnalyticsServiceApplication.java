@@ -3,9 +3,11 @@ package com.poc.analytics;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.poc.analytics", "com.poc.shared"})
 @EntityScan(basePackages = {"com.poc.analytics.entity"})
+@EnableScheduling
 public class AnalyticsServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,432 @@
+package com.poc.analytics.columnar;
+
+import com.poc.analytics.entity.OrderAnalytics;
+import com.poc.analytics.repository.OrderAnalyticsRepository;
+import com.poc.shared.paging.KeysetCursor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar copy of the most recent {@code analytics.columnar.retention-days}
+ * days of {@code order_analytics}, answering customer, product and hour
+ * lookups and range aggregations without a database round trip.
+ * <p>
+ * Customer and product ids are dictionary-encoded to ints; quantity, value in
+ * cents and order time (epoch minute plus microseconds) are primitive columns,
+ * one {@link DaySegment} per order day, indexed by customer and product. A
+ * row costs about {@value DaySegment#ROW_BYTES} bytes of columns plus 8 bytes
+ * of index, against several hundred for a managed {@link OrderAnalytics}.
+ * <p>
+ * Rows are added after their transaction commits and loaded for the retained
+ * days at startup, before consumers start. Every query first checks the range
+ * is covered and returns null otherwise, so callers fall back to the
+ * repository. Coverage assumes this instance consumes every order: with
+ * several instances on the shared subscription each sees only part of them,
+ * so {@code analytics.columnar.single-consumer=false} keeps the store empty
+ * and every query on the database. Aggregations over more than {@code analytics.columnar.parallel-scan-rows}
+ * rows scan in parallel on the common fork-join pool.
+ */
+@Slf4j
+@Component
+public class ColumnarOrderStore {
+
+    private static final int SCAN_CHUNK_ROWS = 16_384;
+    private static final int WARM_UP_PAGE_ROWS = 10_000;
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /** Retained segments, ascending by day, and the first day they fully cover. Replaced, never mutated. */
+    private record View(long coveredFromDay, List<DaySegment> segments) {
+
+        boolean covers(long epochDay) {
+            return epochDay >= coveredFromDay;
+        }
+
+        DaySegment segment(long epochDay) {
+            for (DaySegment segment : segments) {
+                if (segment.epochDay == epochDay) {
+                    return segment;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Hit(DaySegment segment, int row, long micros, long id) {
+    }
+
+    private final OrderAnalyticsRepository analyticsRepository;
+    private final boolean enabled;
+    private final boolean singleConsumer;
+    private final int retentionDays;
+    private final int parallelScanRows;
+
+    private final StringDictionary customers = new StringDictionary();
+    private final StringDictionary products = new StringDictionary();
+    private volatile View view = new View(Long.MAX_VALUE, List.of());
+
+    public ColumnarOrderStore(OrderAnalyticsRepository analyticsRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${analytics.columnar.enabled:true}") boolean enabled,
+                              @Value("${analytics.columnar.single-consumer:true}") boolean singleConsumer,
+                              @Value("${analytics.columnar.retention-days:2}") int retentionDays,
+                              @Value("${analytics.columnar.parallel-scan-rows:65536}") int parallelScanRows) {
+        this.analyticsRepository = analyticsRepository;
+        this.enabled = enabled && singleConsumer;
+        this.singleConsumer = singleConsumer;
+        this.retentionDays = retentionDays;
+        this.parallelScanRows = parallelScanRows;
+
+        Gauge.builder("poc.analytics.columnar.rows", this, ColumnarOrderStore::rows)
+                .description("Orders held by the columnar store")
+                .register(meterRegistry);
+        Gauge.builder("poc.analytics.columnar.memory", this, ColumnarOrderStore::memoryBytes)
+                .description("Approximate heap used by the columnar store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void warmUp() {
+        if (!enabled) {
+            log.info(singleConsumer
+                    ? "Columnar order store disabled, analytics queries go to the database"
+                    : "Columnar order store off: this instance shares the order subscription and sees only part of the orders");
+            return;
+        }
+        long fromDay = LocalDate.now().toEpochDay() - retentionDays + 1;
+        synchronized (this) {
+            view = new View(fromDay, List.of());
+        }
+        LocalDateTime since = LocalDate.ofEpochDay(fromDay).atStartOfDay();
+        long started = System.nanoTime();
+        // Keyset pages by id from the first row of the window; ids follow insertion order
+        Long fromId = analyticsRepository.findFirstIdSince(since);
+        while (fromId != null) {
+            List<Object[]> page = analyticsRepository.findColumnsSince(since, fromId, PageRequest.of(0, WARM_UP_PAGE_ROWS));
+            for (Object[] row : page) {
+                add((Long) row[0], (String) row[1], (String) row[2], (String) row[3],
+                        (Integer) row[4], (BigDecimal) row[5], (LocalDateTime) row[6], (LocalDateTime) row[7]);
+            }
+            fromId = page.size() < WARM_UP_PAGE_ROWS ? null : (Long) page.get(page.size() - 1)[0] + 1;
+        }
+        long rows = rows();
+        log.info("Loaded {} orders since {} into the columnar store in {} ms, {} bytes per row",
+                rows, since, (System.nanoTime() - started) / 1_000_000, rows == 0 ? 0 : memoryBytes() / rows);
+    }
+
+    public void add(OrderAnalytics analytics) {
+        add(analytics.getId(), analytics.getOrderId(), analytics.getCustomerId(), analytics.getProductId(),
+                analytics.getQuantity(), analytics.getOrderValue(), analytics.getOrderTimestamp(),
+                analytics.getProcessedTimestamp());
+    }
+
+    /** First order time the store fully covers, or null while it answers nothing. */
+    public LocalDateTime coveredFrom() {
+        View current = view;
+        return current.coveredFromDay == Long.MAX_VALUE ? null : LocalDate.ofEpochDay(current.coveredFromDay).atStartOfDay();
+    }
+
+    /**
+     * A customer's covered orders after {@code after}, newest first, at most
+     * {@code maxRows}; null when the store is not ready. Older rows than
+     * {@link #coveredFrom()} are the caller's to fetch.
+     */
+    public List<OrderAnalytics> customerOrders(String customerId, KeysetCursor after, int maxRows) {
+        View current = view;
+        if (current.coveredFromDay == Long.MAX_VALUE) {
+            return null;
+        }
+        int code = customers.code(customerId);
+        if (code < 0) {
+            return List.of();
+        }
+        long afterMicros = after == null ? Long.MAX_VALUE : toMicros(after.timestamp());
+        long afterId = after == null ? Long.MAX_VALUE : Long.parseLong(after.id());
+
+        List<Hit> hits = new ArrayList<>();
+        for (DaySegment segment : current.segments) {
+            int size = segment.size();
+            DaySegment.Columns columns = segment.columns();
+            IntList rows = segment.customerRows(code);
+            int count = rows == null ? 0 : rows.size();
+            for (int i = 0; i < count; i++) {
+                int row = rows.get(i);
+                if (row >= size) {
+                    break;
+                }
+                long micros = micros(columns, row);
+                long id = columns.ids[row];
+                if (micros < afterMicros || (micros == afterMicros && id < afterId)) {
+                    hits.add(new Hit(segment, row, micros, id));
+                }
+            }
+        }
+        return hits.stream()
+                .sorted(Comparator.comparingLong(Hit::micros).thenComparingLong(Hit::id).reversed())
+                .limit(maxRows)
+                .map(hit -> materialize(hit.segment, hit.row))
+                .toList();
+    }
+
+    /** A product's orders on {@code day}, or null if the day is not covered. */
+    public List<OrderAnalytics> productOrders(String productId, LocalDate day) {
+        View current = view;
+        if (!current.covers(day.toEpochDay())) {
+            return null;
+        }
+        DaySegment segment = current.segment(day.toEpochDay());
+        int code = products.code(productId);
+        IntList rows = segment == null ? null : segment.productRows(code);
+        if (rows == null) {
+            return List.of();
+        }
+        int size = segment.size();
+        int count = rows.size();
+        List<OrderAnalytics> orders = new ArrayList<>(count);
+        for (int i = 0; i < count && rows.get(i) < size; i++) {
+            orders.add(materialize(segment, rows.get(i)));
+        }
+        return orders;
+    }
+
+    /** Orders placed within the hour starting at {@code hourStart}, or null if not covered. */
+    public List<OrderAnalytics> hourOrders(LocalDateTime hourStart) {
+        View current = view;
+        long epochDay = hourStart.toLocalDate().toEpochDay();
+        if (!current.covers(epochDay)) {
+            return null;
+        }
+        DaySegment segment = current.segment(epochDay);
+        if (segment == null) {
+            return List.of();
+        }
+        int fromMinute = epochMinute(hourStart);
+        int toMinute = fromMinute + 60;
+        int size = segment.size();
+        int[] minutes = segment.columns().epochMinutes;
+        IntStream rows = IntStream.range(0, size);
+        if (size >= parallelScanRows) {
+            rows = rows.parallel();
+        }
+        return rows.filter(row -> minutes[row] >= fromMinute && minutes[row] < toMinute)
+                .mapToObj(row -> materialize(segment, row))
+                .toList();
+    }
+
+    /**
+     * Order count, quantity and value per product for orders placed in
+     * {@code [from, to)} at minute resolution, by descending count; the same
+     * rows as {@code OrderAnalyticsRepository.getTopProductsBetween}. Null if
+     * {@code from} is not covered.
+     */
+    public List<Object[]> productTotals(LocalDateTime from, LocalDateTime to) {
+        View current = view;
+        if (!current.covers(from.toLocalDate().toEpochDay())) {
+            return null;
+        }
+        int fromMinute = epochMinute(from);
+        int toMinute = epochMinute(to);
+
+        List<DaySegment> segments = new ArrayList<>();
+        List<Integer> sizes = new ArrayList<>();
+        long totalRows = 0;
+        for (DaySegment segment : current.segments) {
+            long firstMinute = segment.epochDay * 24 * 60;
+            if (firstMinute < toMinute && firstMinute + 24 * 60 > fromMinute) {
+                segments.add(segment);
+                sizes.add(segment.size());
+                totalRows += sizes.get(sizes.size() - 1);
+            }
+        }
+        // Read after the segment sizes, so every code in those rows is below it
+        int productCount = products.size();
+
+        long[] totals = new long[productCount * 3];
+        for (int s = 0; s < segments.size(); s++) {
+            DaySegment segment = segments.get(s);
+            int size = sizes.get(s);
+            int chunks = (size + SCAN_CHUNK_ROWS - 1) / SCAN_CHUNK_ROWS;
+            IntStream chunkStream = IntStream.range(0, chunks);
+            if (totalRows >= parallelScanRows) {
+                chunkStream = chunkStream.parallel();
+            }
+            long[] segmentTotals = chunkStream
+                    .mapToObj(chunk -> scanTotals(segment, chunk * SCAN_CHUNK_ROWS,
+                            Math.min(size, (chunk + 1) * SCAN_CHUNK_ROWS), fromMinute, toMinute, productCount))
+                    .reduce(ColumnarOrderStore::sum)
+                    .orElse(null);
+            if (segmentTotals != null) {
+                sum(totals, segmentTotals);
+            }
+        }
+
+        List<Object[]> result = new ArrayList<>();
+        for (int product = 0; product < productCount; product++) {
+            long count = totals[product * 3];
+            if (count > 0) {
+                result.add(new Object[] {products.value(product), count, totals[product * 3 + 1],
+                        BigDecimal.valueOf(totals[product * 3 + 2], 2)});
+            }
+        }
+        result.sort(Comparator.comparingLong((Object[] row) -> (Long) row[1]).reversed());
+        return result;
+    }
+
+    public long rows() {
+        long rows = 0;
+        for (DaySegment segment : view.segments) {
+            rows += segment.size();
+        }
+        return rows;
+    }
+
+    public long memoryBytes() {
+        long bytes = customers.memoryBytes() + products.memoryBytes();
+        for (DaySegment segment : view.segments) {
+            bytes += segment.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private synchronized void add(Long id, String orderId, String customerId, String productId, Integer quantity,
+                                  BigDecimal orderValue, LocalDateTime orderTimestamp, LocalDateTime processedTimestamp) {
+        long epochDay = orderTimestamp.toLocalDate().toEpochDay();
+        if (!enabled || id == null || !view.covers(epochDay)) {
+            return; // older than the store covers, the database has it
+        }
+        DaySegment segment = segmentForAppend(epochDay);
+        if (segment == null) {
+            return;
+        }
+
+        long orderIdHigh = 0;
+        long orderIdLow = 0;
+        boolean uuid = true;
+        try {
+            UUID parsed = UUID.fromString(orderId);
+            orderIdHigh = parsed.getMostSignificantBits();
+            orderIdLow = parsed.getLeastSignificantBits();
+        } catch (IllegalArgumentException e) {
+            uuid = false;
+        }
+        long micros = toMicros(orderTimestamp);
+        long delayMillis = processedTimestamp == null ? 0
+                : (toMicros(processedTimestamp) - micros) / 1_000;
+        int row = segment.append(id, orderIdHigh, orderIdLow, customers.add(customerId), products.add(productId),
+                quantity, toCents(orderValue), (int) Math.floorDiv(micros, 60_000_000L),
+                (int) Math.floorMod(micros, 60_000_000L),
+                (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, delayMillis)));
+        if (!uuid) {
+            segment.otherOrderIds.put(row, orderId);
+        }
+    }
+
+    /** Caller holds the lock. Starting a new day evicts days past retention. */
+    private DaySegment segmentForAppend(long epochDay) {
+        View current = view;
+        DaySegment segment = current.segment(epochDay);
+        if (segment != null) {
+            return segment;
+        }
+        long coveredFromDay = Math.max(current.coveredFromDay, LocalDate.now().toEpochDay() - retentionDays + 1);
+        if (epochDay < coveredFromDay) {
+            return null;
+        }
+        segment = new DaySegment(epochDay);
+        List<DaySegment> segments = new ArrayList<>(current.segments.size() + 1);
+        for (DaySegment retained : current.segments) {
+            if (retained.epochDay >= coveredFromDay) {
+                segments.add(retained);
+            }
+        }
+        segments.add(segment);
+        segments.sort(Comparator.comparingLong(s -> s.epochDay));
+        view = new View(coveredFromDay, List.copyOf(segments));
+        if (coveredFromDay > current.coveredFromDay) {
+            log.info("Columnar store now covers orders from {}", LocalDate.ofEpochDay(coveredFromDay));
+        }
+        return segment;
+    }
+
+    private static long[] scanTotals(DaySegment segment, int from, int to, int fromMinute, int toMinute, int productCount) {
+        // Columns read once, after the size; rows below it are in every later copy too
+        DaySegment.Columns columns = segment.columns();
+        int[] minutes = columns.epochMinutes;
+        int[] productCodes = columns.products;
+        int[] quantities = columns.quantities;
+        long[] cents = columns.valueCents;
+        long[] totals = new long[productCount * 3];
+        for (int row = from; row < to; row++) {
+            int minute = minutes[row];
+            if (minute >= fromMinute && minute < toMinute) {
+                int slot = productCodes[row] * 3;
+                totals[slot]++;
+                totals[slot + 1] += quantities[row];
+                totals[slot + 2] += cents[row];
+            }
+        }
+        return totals;
+    }
+
+    private static long[] sum(long[] into, long[] other) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += other[i];
+        }
+        return into;
+    }
+
+    private OrderAnalytics materialize(DaySegment segment, int row) {
+        DaySegment.Columns columns = segment.columns();
+        long micros = micros(columns, row);
+        LocalDateTime orderTimestamp = LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+        String orderId = segment.otherOrderIds.isEmpty() ? null : segment.otherOrderIds.get(row);
+
+        OrderAnalytics analytics = new OrderAnalytics();
+        analytics.setId(columns.ids[row]);
+        analytics.setOrderId(orderId != null ? orderId : new UUID(columns.orderIdHigh[row], columns.orderIdLow[row]).toString());
+        analytics.setCustomerId(customers.value(columns.customers[row]));
+        analytics.setProductId(products.value(columns.products[row]));
+        analytics.setQuantity(columns.quantities[row]);
+        analytics.setOrderValue(BigDecimal.valueOf(columns.valueCents[row], 2));
+        analytics.setOrderTimestamp(orderTimestamp);
+        analytics.setProcessedTimestamp(orderTimestamp.plusNanos(columns.processedDelayMillis[row] * 1_000_000L));
+        analytics.setHourBucket(orderTimestamp.format(HOUR_FORMATTER));
+        analytics.setDayBucket(orderTimestamp.format(DAY_FORMATTER));
+        return analytics;
+    }
+
+    private static long micros(DaySegment.Columns columns, int row) {
+        return columns.epochMinutes[row] * 60_000_000L + columns.microsOfMinute[row];
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static int epochMinute(LocalDateTime timestamp) {
+        return (int) Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    private static long toCents(BigDecimal value) {
+        return value == null ? 0 : value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
@@ -0,0 +1,146 @@
+package com.poc.analytics.columnar;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One day of orders (by order timestamp) as parallel primitive columns, rows
+ * in arrival order, with posting lists by customer and product code.
+ * <p>
+ * Single writer under the store's ingest lock. Readers read {@link #size()}
+ * first, then {@link #columns()}, and only look at rows below that size:
+ * every column write happens before the volatile size write that publishes
+ * the row, and growing publishes a filled copy through the volatile columns
+ * reference, so any columns a reader sees hold those rows.
+ */
+final class DaySegment {
+
+    /** Bytes of column data per row, for the memory figure. */
+    static final int ROW_BYTES = 8 + 8 + 8 + 4 + 4 + 4 + 8 + 4 + 4 + 4;
+
+    final long epochDay;
+
+    /** Order ids that are not UUIDs, by row. Rare, so kept out of the columns. */
+    final Map<Integer, String> otherOrderIds = new ConcurrentHashMap<>();
+
+    private volatile Columns columns = new Columns(1024);
+    private volatile IntList[] byCustomer = new IntList[0];
+    private volatile IntList[] byProduct = new IntList[0];
+    private volatile int size;
+
+    DaySegment(long epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Read after {@link #size()}; rows below that size are valid in it. */
+    Columns columns() {
+        return columns;
+    }
+
+    int append(long id, long orderIdHi, long orderIdLo, int customer, int product, int quantity,
+               long cents, int epochMinute, int micros, int processedDelay) {
+        int row = size;
+        Columns target = columns;
+        if (row == target.ids.length) {
+            target = new Columns(target, row * 2);
+            columns = target;
+        }
+        target.ids[row] = id;
+        target.orderIdHigh[row] = orderIdHi;
+        target.orderIdLow[row] = orderIdLo;
+        target.customers[row] = customer;
+        target.products[row] = product;
+        target.quantities[row] = quantity;
+        target.valueCents[row] = cents;
+        target.epochMinutes[row] = epochMinute;
+        target.microsOfMinute[row] = micros;
+        target.processedDelayMillis[row] = processedDelay;
+        byCustomer = addPosting(byCustomer, customer, row);
+        byProduct = addPosting(byProduct, product, row);
+        size = row + 1;
+        return row;
+    }
+
+    /** Rows of a customer or product code, ascending; null if it has none in this segment. */
+    IntList customerRows(int customer) {
+        IntList[] lists = byCustomer;
+        return customer >= 0 && customer < lists.length ? lists[customer] : null;
+    }
+
+    IntList productRows(int product) {
+        IntList[] lists = byProduct;
+        return product >= 0 && product < lists.length ? lists[product] : null;
+    }
+
+    long memoryBytes() {
+        long bytes = (long) columns.ids.length * ROW_BYTES + otherOrderIds.size() * 64L;
+        for (IntList[] lists : new IntList[][] {byCustomer, byProduct}) {
+            bytes += (long) lists.length * 4;
+            for (IntList list : lists) {
+                if (list != null) {
+                    bytes += list.memoryBytes();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static IntList[] addPosting(IntList[] lists, int code, int row) {
+        IntList[] target = lists;
+        if (code >= target.length) {
+            target = Arrays.copyOf(target, Math.max(code + 1, target.length * 2));
+        }
+        if (target[code] == null) {
+            target[code] = new IntList();
+        }
+        target[code].add(row);
+        return target;
+    }
+
+    /** Column arrays of one capacity. Filled in place up to it, then replaced by a larger copy. */
+    static final class Columns {
+
+        final long[] ids;
+        final long[] orderIdHigh;
+        final long[] orderIdLow;
+        final int[] customers;
+        final int[] products;
+        final int[] quantities;
+        final long[] valueCents;
+        final int[] epochMinutes;
+        final int[] microsOfMinute;
+        /** Processed minus order time in ms, saturated to the int range. */
+        final int[] processedDelayMillis;
+
+        private Columns(int capacity) {
+            ids = new long[capacity];
+            orderIdHigh = new long[capacity];
+            orderIdLow = new long[capacity];
+            customers = new int[capacity];
+            products = new int[capacity];
+            quantities = new int[capacity];
+            valueCents = new long[capacity];
+            epochMinutes = new int[capacity];
+            microsOfMinute = new int[capacity];
+            processedDelayMillis = new int[capacity];
+        }
+
+        private Columns(Columns from, int capacity) {
+            ids = Arrays.copyOf(from.ids, capacity);
+            orderIdHigh = Arrays.copyOf(from.orderIdHigh, capacity);
+            orderIdLow = Arrays.copyOf(from.orderIdLow, capacity);
+            customers = Arrays.copyOf(from.customers, capacity);
+            products = Arrays.copyOf(from.products, capacity);
+            quantities = Arrays.copyOf(from.quantities, capacity);
+            valueCents = Arrays.copyOf(from.valueCents, capacity);
+            epochMinutes = Arrays.copyOf(from.epochMinutes, capacity);
+            microsOfMinute = Arrays.copyOf(from.microsOfMinute, capacity);
+            processedDelayMillis = Arrays.copyOf(from.processedDelayMillis, capacity);
+        }
+    }
+}
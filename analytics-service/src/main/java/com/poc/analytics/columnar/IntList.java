@@ -0,0 +1,37 @@
+package com.poc.analytics.columnar;
+
+import java.util.Arrays;
+
+/**
+ * Append-only posting list of row numbers, ascending. Single writer; readers
+ * read {@link #size()} first and then only that many entries.
+ */
+final class IntList {
+
+    private volatile int[] values = new int[4];
+    private volatile int size;
+
+    void add(int value) {
+        int index = size;
+        int[] target = values;
+        if (index == target.length) {
+            target = Arrays.copyOf(target, index * 2);
+            values = target;
+        }
+        target[index] = value;
+        size = index + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Valid for indexes below a previously read {@link #size()}. */
+    int get(int index) {
+        return values[index];
+    }
+
+    long memoryBytes() {
+        return 16 + 16 + (long) values.length * 4;
+    }
+}
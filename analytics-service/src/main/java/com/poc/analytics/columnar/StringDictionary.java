@@ -0,0 +1,54 @@
+package com.poc.analytics.columnar;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns dense int codes to strings, so columns hold 4-byte codes instead of
+ * string references. Codes are never reused or removed; the set of customers
+ * and products is small next to the number of orders.
+ * <p>
+ * Single writer (the store's ingest lock), lock-free readers.
+ */
+final class StringDictionary {
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[1024];
+    private volatile int size;
+
+    /** Code for {@code value}, or -1 if it has never been added. */
+    int code(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    /** Caller holds the store's ingest lock. */
+    int add(String value) {
+        Integer existing = codes.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        int code = size;
+        if (code == values.length) {
+            values = Arrays.copyOf(values, code * 2);
+        }
+        values[code] = value;
+        size = code + 1;
+        codes.put(value, code);
+        return code;
+    }
+
+    String value(int code) {
+        return values[code];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        // Reference slot plus map entry; the strings themselves are shared with callers
+        return (long) values.length * 4 + (long) size * 48;
+    }
+}
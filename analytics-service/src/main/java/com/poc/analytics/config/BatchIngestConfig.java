@@ -0,0 +1,41 @@
+package com.poc.analytics.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.config.ListenerContainerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.pulsar.listener.AbstractPulsarMessageListenerContainer;
+import org.springframework.pulsar.listener.PulsarContainerProperties;
+import org.springframework.pulsar.listener.PulsarMessageListenerContainer;
+
+/**
+ * Sizes the Pulsar batch receive for the batch-mode analytics binding: a poll
+ * returns once {@code max-size} messages are buffered or {@code max-wait-ms}
+ * has elapsed, whichever comes first.
+ */
+@Slf4j
+@Configuration
+@Profile("batch")
+public class BatchIngestConfig {
+    
+    @Value("${analytics.ingest.batch.max-size:500}")
+    private int maxSize;
+    
+    @Value("${analytics.ingest.batch.max-wait-ms:100}")
+    private int maxWaitMs;
+    
+    @Bean
+    public ListenerContainerCustomizer<PulsarMessageListenerContainer> batchReceiveCustomizer() {
+        return (container, destinationName, group) -> {
+            if (container instanceof AbstractPulsarMessageListenerContainer<?> pulsarContainer) {
+                PulsarContainerProperties properties = pulsarContainer.getContainerProperties();
+                properties.setBatchListener(true);
+                properties.setMaxNumMessages(maxSize);
+                properties.setBatchTimeoutMillis(maxWaitMs);
+                log.info("Batch receive for {}: up to {} messages or {}ms", destinationName, maxSize, maxWaitMs);
+            }
+        };
+    }
+}
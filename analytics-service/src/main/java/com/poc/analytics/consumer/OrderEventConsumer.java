@@ -1,44 +1,150 @@
 package com.poc.analytics.consumer;
 
 import com.poc.analytics.service.AnalyticsService;
+import com.poc.shared.codec.EventContentTypes;
+import com.poc.shared.codec.OrderEventField;
+import com.poc.shared.codec.OrderEventReader;
 import com.poc.shared.events.OrderCreatedEvent;
-import com.poc.shared.utils.EventUtils;
+import com.poc.shared.idempotency.IdempotencyFilter;
+import com.poc.shared.lag.EventLagRecorder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
+/**
+ * Handles each order on the binder's listener thread. Unlike the inventory
+ * and notification consumers this one does not hand orders to a
+ * {@code KeyedDispatcher}: the Pulsar binder acknowledges a message as soon
+ * as this function returns, so work handed to another thread would be acked
+ * before it ran. Pulsar acks messages individually and the subscription is
+ * shared, so parallelism comes from more consumers on the subscription
+ * rather than from lanes within one.
+ * <p>
+ * The in-memory check can pass for an order another consumer is writing at
+ * the same moment; the unique order_id index decides, and the loser skips it.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class OrderEventConsumer {
     
     private final AnalyticsService analyticsService;
-    private final EventUtils eventUtils;
+    private final OrderEventReader orderEventReader;
+    private final IdempotencyFilter idempotencyFilter;
+    private final EventLagRecorder lagRecorder;
+    
+    private static final String BINDING = "processOrderEvents-in-0";
     
     @Bean
-    public Consumer<String> processOrderEvents() {
+    public Consumer<Message<byte[]>> processOrderEvents() {
+        OrderEventReader.Selection fields = analyticsFields();
+        
         return message -> {
+            EventLagRecorder.Receipt receipt = lagRecorder.received(BINDING, message.getHeaders());
             try {
-                log.debug("Received order event message: {}", message);
+                String contentType = EventContentTypes.of(message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+                log.debug("Received order event message: {} bytes, contentType: {}", 
+                        message.getPayload().length, contentType);
                 
-                OrderCreatedEvent orderEvent = eventUtils.deserialize(message, OrderCreatedEvent.class);
+                OrderCreatedEvent orderEvent = orderEventReader.readPooled(
+                        message.getPayload(), contentType, fields);
+                if (idempotencyFilter.isDuplicate(orderEvent.getOrderId())) {
+                    log.info("Skipping redelivered analytics event for order: {}", orderEvent.getOrderId());
+                    lagRecorder.done(receipt);
+                    return;
+                }
                 log.info("Processing analytics for order: {}, customer: {}, value: ${}", 
                         orderEvent.getOrderId(), 
                         orderEvent.getCustomerId(),
                         orderEvent.getPrice().multiply(java.math.BigDecimal.valueOf(orderEvent.getQuantity())));
                 
-                analyticsService.processOrderEvent(orderEvent);
+                recordOnce(orderEvent);
+                idempotencyFilter.markProcessed(orderEvent.getOrderId());
+                lagRecorder.done(receipt);
                 
                 log.info("Successfully processed analytics for order: {}", orderEvent.getOrderId());
                 
             } catch (Exception e) {
-                log.error("Failed to process order event message: {}", message, e);
+                log.error("Failed to process order event message: {}", message.getHeaders(), e);
                 // In a production system, this would go to a dead letter queue
                 throw e;
             }
         };
     }
-}
\ No newline at end of file
+    
+    /**
+     * Batch-mode binding, active with the {@code batch} profile. Each poll is
+     * written in one transaction with JDBC batch inserts. Batches arrive
+     * without per-message headers, so no event lag is recorded here.
+     */
+    @Bean
+    public Consumer<List<byte[]>> processOrderEventBatches() {
+        OrderEventReader.Selection fields = analyticsFields();
+        
+        return payloads -> {
+            try {
+                log.debug("Received batch of {} order event messages", payloads.size());
+                
+                // Batches carry no per-message content type, the reader sniffs the format
+                List<OrderCreatedEvent> orderEvents = new ArrayList<>(payloads.size());
+                Set<String> batchOrderIds = new HashSet<>();
+                for (byte[] payload : payloads) {
+                    OrderCreatedEvent orderEvent = orderEventReader.read(payload, null, fields);
+                    // A redelivery can land in the same poll as the original
+                    if (batchOrderIds.add(orderEvent.getOrderId())
+                            && !idempotencyFilter.isDuplicate(orderEvent.getOrderId())) {
+                        orderEvents.add(orderEvent);
+                    }
+                }
+                if (orderEvents.size() < payloads.size()) {
+                    log.info("Skipping {} redelivered order events in batch", payloads.size() - orderEvents.size());
+                }
+                if (orderEvents.isEmpty()) {
+                    return;
+                }
+                
+                try {
+                    analyticsService.processOrderEvents(orderEvents);
+                } catch (DataIntegrityViolationException e) {
+                    // The whole batch rolled back; find the orders already written one by one
+                    log.info("Batch of {} orders hit an already recorded order, writing them one by one", orderEvents.size());
+                    orderEvents.forEach(this::recordOnce);
+                }
+                orderEvents.forEach(orderEvent -> idempotencyFilter.markProcessed(orderEvent.getOrderId()));
+                
+                log.info("Successfully processed analytics for batch of {} orders", orderEvents.size());
+                
+            } catch (Exception e) {
+                log.error("Failed to process batch of {} order event messages", payloads.size(), e);
+                throw e;
+            }
+        };
+    }
+    
+    private void recordOnce(OrderCreatedEvent orderEvent) {
+        try {
+            analyticsService.processOrderEvent(orderEvent);
+        } catch (DataIntegrityViolationException e) {
+            if (!analyticsService.isRecorded(orderEvent.getOrderId())) {
+                throw e;
+            }
+            log.info("Skipping analytics event for order already recorded by another consumer: {}", orderEvent.getOrderId());
+        }
+    }
+    
+    private OrderEventReader.Selection analyticsFields() {
+        return orderEventReader.select(
+                OrderEventField.ORDER_ID, OrderEventField.CUSTOMER_ID, OrderEventField.PRODUCT_ID,
+                OrderEventField.QUANTITY, OrderEventField.PRICE, OrderEventField.ORDER_TIMESTAMP);
+    }
+}
@@ -2,11 +2,18 @@ package com.poc.analytics.controller;
 
 import com.poc.analytics.entity.OrderAnalytics;
 import com.poc.analytics.service.AnalyticsService;
+import com.poc.analytics.service.RollupService;
+import com.poc.shared.paging.CursorPage;
+import com.poc.shared.paging.NdjsonWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -17,6 +24,7 @@ import java.util.Map;
 public class AnalyticsController {
     
     private final AnalyticsService analyticsService;
+    private final RollupService rollupService;
     
     @GetMapping("/realtime")
     public ResponseEntity<Map<String, Object>> getRealTimeStats() {
@@ -39,10 +47,88 @@ public class AnalyticsController {
         return ResponseEntity.ok(hourlyStats);
     }
     
+    @GetMapping("/top-products/range")
+    public ResponseEntity<List<Object[]>> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("Fetching top products from {} to {}", from, to);
+        return ResponseEntity.ok(analyticsService.getTopProducts(from, to));
+    }
+    
+    @GetMapping("/product/{productId}/orders")
+    public ResponseEntity<List<OrderAnalytics>> getProductOrders(@PathVariable String productId,
+                                                                 @RequestParam(required = false) String day) {
+        LocalDate orderDay = day != null ? LocalDate.parse(day) : LocalDate.now();
+        log.info("Fetching orders for product {} on {}", productId, orderDay);
+        return ResponseEntity.ok(analyticsService.getProductOrders(productId, orderDay));
+    }
+    
+    @GetMapping("/hour/{hourBucket}/orders")
+    public ResponseEntity<List<OrderAnalytics>> getHourOrders(@PathVariable String hourBucket) {
+        log.info("Fetching orders for hour: {}", hourBucket);
+        return ResponseEntity.ok(analyticsService.getHourOrders(hourBucket));
+    }
+    
+    @GetMapping("/sketch/unique-customers")
+    public ResponseEntity<Map<String, Object>> getUniqueCustomers(@RequestParam(required = false) Integer minutes,
+                                                                  @RequestParam(required = false) String hour,
+                                                                  @RequestParam(required = false) String day) {
+        log.info("Estimating unique customers (minutes={}, hour={}, day={})", minutes, hour, day);
+        return ResponseEntity.ok(analyticsService.getUniqueCustomers(minutes, hour, day));
+    }
+    
+    @GetMapping("/sketch/top-products")
+    public ResponseEntity<Map<String, Object>> getTopProductsSketch(@RequestParam(defaultValue = "10") int k,
+                                                                    @RequestParam(required = false) Integer minutes,
+                                                                    @RequestParam(required = false) String hour,
+                                                                    @RequestParam(required = false) String day) {
+        log.info("Estimating top {} products (minutes={}, hour={}, day={})", k, minutes, hour, day);
+        return ResponseEntity.ok(analyticsService.getTopProductsSketch(k, minutes, hour, day));
+    }
+    
+    @GetMapping("/sketch/order-value")
+    public ResponseEntity<Map<String, Object>> getOrderValueQuantiles(@RequestParam(defaultValue = "0.5,0.95,0.99") List<Double> q,
+                                                                      @RequestParam(required = false) Integer minutes,
+                                                                      @RequestParam(required = false) String hour,
+                                                                      @RequestParam(required = false) String day) {
+        log.info("Estimating order value quantiles {} (minutes={}, hour={}, day={})", q, minutes, hour, day);
+        return ResponseEntity.ok(analyticsService.getOrderValueQuantiles(q, minutes, hour, day));
+    }
+    
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<OrderAnalytics>> getCustomerOrders(@PathVariable String customerId) {
+    public ResponseEntity<CursorPage<OrderAnalytics>> getCustomerOrders(@PathVariable String customerId,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer limit) {
         log.info("Fetching orders for customer: {}", customerId);
-        List<OrderAnalytics> customerOrders = analyticsService.getCustomerOrders(customerId);
+        CursorPage<OrderAnalytics> customerOrders = analyticsService.getCustomerOrders(customerId, cursor, limit);
         return ResponseEntity.ok(customerOrders);
     }
-}
\ No newline at end of file
+    
+    @GetMapping("/customer/{customerId}/windows")
+    public ResponseEntity<Map<String, Object>> getCustomerWindows(@PathVariable String customerId,
+                                                                  @RequestParam(required = false) String day) {
+        LocalDate windowDay = day != null ? LocalDate.parse(day) : LocalDate.now();
+        log.info("Fetching window totals for customer {} on {}", customerId, windowDay);
+        Map<String, Object> windows = analyticsService.getCustomerWindows(customerId, windowDay);
+        return windows != null ? ResponseEntity.ok(windows) : ResponseEntity.notFound().build();
+    }
+    
+    @GetMapping(value = "/customer/{customerId}/stream", produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamCustomerOrders(@PathVariable String customerId) {
+        log.info("Streaming orders for customer: {}", customerId);
+        return ResponseEntity.ok(out -> analyticsService.streamCustomerOrders(customerId, out));
+    }
+    
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups(@RequestParam String day) {
+        log.info("Rebuilding rollups for day: {}", day);
+        rollupService.rebuildDay(LocalDate.parse(day).toString());
+        return ResponseEntity.noContent().build();
+    }
+    
+    // Malformed cursors and ids from the client
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+}
@@ -0,0 +1,43 @@
+package com.poc.analytics.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Per-hour totals maintained incrementally at ingestion.
+ */
+@Entity
+@Table(name = "hourly_rollup")
+@IdClass(HourlyRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HourlyRollup {
+    
+    @Id
+    @Column(name = "day_bucket")
+    private String dayBucket;
+    
+    @Id
+    @Column(name = "hour_bucket")
+    private String hourBucket;
+    
+    @Column(nullable = false)
+    private Long orderCount;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalValue;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String dayBucket;
+        private String hourBucket;
+    }
+}
@@ -9,14 +9,21 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "order_analytics")
+@Table(name = "order_analytics", indexes = {
+    // Unique: concurrent consumers of one order race on the insert, the loser sees a duplicate
+    @Index(name = "uk_order_analytics_order_id", columnList = "orderId", unique = true),
+    @Index(name = "idx_order_analytics_timestamp", columnList = "orderTimestamp"),
+    @Index(name = "idx_order_analytics_customer_timestamp_id", columnList = "customerId, orderTimestamp, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderAnalytics {
     
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_analytics_seq")
+    @SequenceGenerator(name = "order_analytics_seq", sequenceName = "order_analytics_seq", allocationSize = 100)
     private Long id;
     
     @Column(nullable = false)
@@ -0,0 +1,46 @@
+package com.poc.analytics.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+/**
+ * Per-day, per-product totals maintained incrementally at ingestion.
+ */
+@Entity
+@Table(name = "product_daily_rollup")
+@IdClass(ProductDailyRollup.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductDailyRollup {
+    
+    @Id
+    @Column(name = "day_bucket")
+    private String dayBucket;
+    
+    @Id
+    @Column(name = "product_id")
+    private String productId;
+    
+    @Column(nullable = false)
+    private Long orderCount;
+    
+    @Column(nullable = false)
+    private Long totalQuantity;
+    
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalValue;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String dayBucket;
+        private String productId;
+    }
+}
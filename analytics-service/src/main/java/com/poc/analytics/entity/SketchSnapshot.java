@@ -0,0 +1,56 @@
+package com.poc.analytics.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Last flushed state of one minute or hour bucket of order sketches, as
+ * recorded by one analytics instance. Instances on the shared subscription
+ * each see part of the orders, so a bucket is the merge of its rows.
+ */
+@Entity
+@Table(name = "sketch_snapshot")
+@IdClass(SketchSnapshot.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SketchSnapshot {
+    
+    @Id
+    @Column(name = "instance_id", length = 64)
+    private String instanceId;
+    
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Granularity granularity;
+    
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+    
+    @Lob
+    @Column(nullable = false, columnDefinition = "MEDIUMBLOB")
+    private byte[] payload;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    public enum Granularity {
+        MINUTE, HOUR
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String instanceId;
+        private Granularity granularity;
+        private LocalDateTime bucketStart;
+    }
+}
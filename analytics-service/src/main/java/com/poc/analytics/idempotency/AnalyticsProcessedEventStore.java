@@ -0,0 +1,26 @@
+package com.poc.analytics.idempotency;
+
+import com.poc.analytics.repository.OrderAnalyticsRepository;
+import com.poc.shared.idempotency.ProcessedEventStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * The order_analytics row is itself the durable record, written in the same
+ * transaction as the rollups, so there is nothing extra to record.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnalyticsProcessedEventStore implements ProcessedEventStore {
+    
+    private final OrderAnalyticsRepository analyticsRepository;
+    
+    @Override
+    public boolean contains(String consumerGroup, String eventId) {
+        return analyticsRepository.existsByOrderId(eventId);
+    }
+    
+    @Override
+    public void record(String consumerGroup, String eventId) {
+    }
+}
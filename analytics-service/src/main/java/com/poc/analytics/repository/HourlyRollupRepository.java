@@ -0,0 +1,39 @@
+package com.poc.analytics.repository;
+
+import com.poc.analytics.entity.HourlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface HourlyRollupRepository extends JpaRepository<HourlyRollup, HourlyRollup.Key> {
+    
+    @Modifying
+    @Query(value = "INSERT INTO hourly_rollup (day_bucket, hour_bucket, order_count, total_value) " +
+                   "VALUES (:dayBucket, :hourBucket, :orderCount, :orderValue) " +
+                   "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+                   "total_value = total_value + VALUES(total_value)",
+           nativeQuery = true)
+    void increment(@Param("dayBucket") String dayBucket, @Param("hourBucket") String hourBucket,
+                   @Param("orderCount") long orderCount, @Param("orderValue") BigDecimal orderValue);
+    
+    @Query("SELECT r.hourBucket, r.orderCount, r.totalValue " +
+           "FROM HourlyRollup r WHERE r.dayBucket = :dayBucket ORDER BY r.hourBucket")
+    List<Object[]> getHourlyStatsByDay(@Param("dayBucket") String dayBucket);
+    
+    @Modifying
+    @Query("DELETE FROM HourlyRollup r WHERE r.dayBucket = :dayBucket")
+    int deleteByDay(@Param("dayBucket") String dayBucket);
+    
+    @Modifying
+    @Query(value = "INSERT INTO hourly_rollup (day_bucket, hour_bucket, order_count, total_value) " +
+                   "SELECT day_bucket, hour_bucket, COUNT(*), SUM(order_value) " +
+                   "FROM order_analytics WHERE day_bucket = :dayBucket GROUP BY day_bucket, hour_bucket",
+           nativeQuery = true)
+    int rebuildDay(@Param("dayBucket") String dayBucket);
+}
@@ -1,22 +1,60 @@
 package com.poc.analytics.repository;
 
 import com.poc.analytics.entity.OrderAnalytics;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderAnalyticsRepository extends JpaRepository<OrderAnalytics, Long> {
     
     List<OrderAnalytics> findByCustomerId(String customerId);
     
+    boolean existsByOrderId(String orderId);
+    
+    @Query("SELECT o FROM OrderAnalytics o WHERE o.customerId = :customerId " +
+           "ORDER BY o.orderTimestamp DESC, o.id DESC")
+    List<OrderAnalytics> findFirstPageByCustomer(@Param("customerId") String customerId, Pageable limit);
+    
+    @Query("SELECT o FROM OrderAnalytics o WHERE o.customerId = :customerId " +
+           "AND (o.orderTimestamp < :timestamp OR (o.orderTimestamp = :timestamp AND o.id < :id)) " +
+           "ORDER BY o.orderTimestamp DESC, o.id DESC")
+    List<OrderAnalytics> findPageAfterByCustomer(@Param("customerId") String customerId,
+                                                 @Param("timestamp") LocalDateTime timestamp,
+                                                 @Param("id") Long id,
+                                                 Pageable limit);
+    
+    // Integer.MIN_VALUE makes Connector/J stream rows instead of buffering the result set
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT o FROM OrderAnalytics o WHERE o.customerId = :customerId " +
+           "ORDER BY o.orderTimestamp DESC, o.id DESC")
+    Stream<OrderAnalytics> streamByCustomer(@Param("customerId") String customerId);
+    
+    @Query("SELECT MIN(o.id) FROM OrderAnalytics o WHERE o.orderTimestamp >= :since")
+    Long findFirstIdSince(@Param("since") LocalDateTime since);
+    
+    // Scalar rows, so loading many pages does not fill the persistence context
+    @Query("SELECT o.id, o.orderId, o.customerId, o.productId, o.quantity, o.orderValue, " +
+           "o.orderTimestamp, o.processedTimestamp FROM OrderAnalytics o " +
+           "WHERE o.id >= :fromId AND o.orderTimestamp >= :since ORDER BY o.id")
+    List<Object[]> findColumnsSince(@Param("since") LocalDateTime since, @Param("fromId") Long fromId, Pageable limit);
+    
     List<OrderAnalytics> findByProductId(String productId);
     
+    List<OrderAnalytics> findByProductIdAndDayBucket(String productId, String dayBucket);
+    
+    List<OrderAnalytics> findByCustomerIdAndDayBucket(String customerId, String dayBucket);
+    
     List<OrderAnalytics> findByDayBucket(String dayBucket);
     
     List<OrderAnalytics> findByHourBucket(String hourBucket);
@@ -27,11 +65,21 @@ public interface OrderAnalyticsRepository extends JpaRepository<OrderAnalytics,
     @Query("SELECT SUM(o.orderValue) FROM OrderAnalytics o WHERE o.orderTimestamp >= :startTime")
     BigDecimal sumOrderValueSince(@Param("startTime") LocalDateTime startTime);
     
+    @Query(value = "SELECT DATE_FORMAT(order_timestamp, '%Y-%m-%d %H:%i') AS minute_bucket, COUNT(*), SUM(order_value) " +
+                   "FROM order_analytics WHERE order_timestamp >= :startTime GROUP BY minute_bucket",
+           nativeQuery = true)
+    List<Object[]> sumOrdersByMinuteSince(@Param("startTime") LocalDateTime startTime);
+    
     @Query("SELECT o.productId, COUNT(o), SUM(o.quantity), SUM(o.orderValue) " +
            "FROM OrderAnalytics o WHERE o.dayBucket = :dayBucket " +
            "GROUP BY o.productId ORDER BY COUNT(o) DESC")
     List<Object[]> getTopProductsByDay(@Param("dayBucket") String dayBucket);
     
+    @Query("SELECT o.productId, COUNT(o), SUM(o.quantity), SUM(o.orderValue) " +
+           "FROM OrderAnalytics o WHERE o.orderTimestamp >= :from AND o.orderTimestamp < :to " +
+           "GROUP BY o.productId ORDER BY COUNT(o) DESC")
+    List<Object[]> getTopProductsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
     @Query("SELECT o.hourBucket, COUNT(o), SUM(o.orderValue) " +
            "FROM OrderAnalytics o WHERE o.dayBucket = :dayBucket " +
            "GROUP BY o.hourBucket ORDER BY o.hourBucket")
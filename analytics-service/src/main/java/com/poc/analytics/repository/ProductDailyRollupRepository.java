@@ -0,0 +1,41 @@
+package com.poc.analytics.repository;
+
+import com.poc.analytics.entity.ProductDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ProductDailyRollupRepository extends JpaRepository<ProductDailyRollup, ProductDailyRollup.Key> {
+    
+    @Modifying
+    @Query(value = "INSERT INTO product_daily_rollup (day_bucket, product_id, order_count, total_quantity, total_value) " +
+                   "VALUES (:dayBucket, :productId, :orderCount, :quantity, :orderValue) " +
+                   "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+                   "total_quantity = total_quantity + VALUES(total_quantity), " +
+                   "total_value = total_value + VALUES(total_value)",
+           nativeQuery = true)
+    void increment(@Param("dayBucket") String dayBucket, @Param("productId") String productId,
+                   @Param("orderCount") long orderCount, @Param("quantity") long quantity,
+                   @Param("orderValue") BigDecimal orderValue);
+    
+    @Query("SELECT r.productId, r.orderCount, r.totalQuantity, r.totalValue " +
+           "FROM ProductDailyRollup r WHERE r.dayBucket = :dayBucket ORDER BY r.orderCount DESC")
+    List<Object[]> getTopProductsByDay(@Param("dayBucket") String dayBucket);
+    
+    @Modifying
+    @Query("DELETE FROM ProductDailyRollup r WHERE r.dayBucket = :dayBucket")
+    int deleteByDay(@Param("dayBucket") String dayBucket);
+    
+    @Modifying
+    @Query(value = "INSERT INTO product_daily_rollup (day_bucket, product_id, order_count, total_quantity, total_value) " +
+                   "SELECT day_bucket, product_id, COUNT(*), SUM(quantity), SUM(order_value) " +
+                   "FROM order_analytics WHERE day_bucket = :dayBucket GROUP BY day_bucket, product_id",
+           nativeQuery = true)
+    int rebuildDay(@Param("dayBucket") String dayBucket);
+}
@@ -0,0 +1,33 @@
+package com.poc.analytics.repository;
+
+import com.poc.analytics.entity.SketchSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SketchSnapshotRepository extends JpaRepository<SketchSnapshot, SketchSnapshot.Key> {
+    
+    List<SketchSnapshot> findByInstanceIdAndGranularityAndBucketStartGreaterThanEqual(
+            String instanceId, SketchSnapshot.Granularity granularity, LocalDateTime since);
+    
+    /** Other instances' rows for buckets in {@code [from, to)}. */
+    @Query("SELECT s FROM SketchSnapshot s WHERE s.granularity = :granularity AND s.bucketStart >= :from "
+            + "AND s.bucketStart < :to AND s.instanceId <> :instanceId")
+    List<SketchSnapshot> findOtherInstances(@Param("instanceId") String instanceId,
+                                            @Param("granularity") SketchSnapshot.Granularity granularity,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SketchSnapshot s WHERE s.granularity = :granularity AND s.bucketStart < :before")
+    int deleteOlderThan(@Param("granularity") SketchSnapshot.Granularity granularity,
+                        @Param("before") LocalDateTime before);
+}
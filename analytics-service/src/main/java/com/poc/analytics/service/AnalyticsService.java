@@ -1,19 +1,48 @@
 package com.poc.analytics.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.analytics.columnar.ColumnarOrderStore;
 import com.poc.analytics.entity.OrderAnalytics;
+import com.poc.analytics.repository.HourlyRollupRepository;
 import com.poc.analytics.repository.OrderAnalyticsRepository;
+import com.poc.analytics.repository.ProductDailyRollupRepository;
+import com.poc.analytics.sketch.CountMinTopK;
+import com.poc.analytics.sketch.HyperLogLog;
+import com.poc.analytics.sketch.OrderSketch;
+import com.poc.analytics.sketch.OrderSketchStore;
+import com.poc.analytics.sketch.TDigest;
+import com.poc.analytics.stats.RealTimeStatsWindow;
+import com.poc.analytics.streams.OrderWindowQueries;
+import com.poc.analytics.streams.WindowTotals;
 import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.paging.CursorPage;
+import com.poc.shared.paging.KeysetCursor;
+import com.poc.shared.paging.NdjsonWriter;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -21,30 +50,32 @@ import java.util.Map;
 public class AnalyticsService {
     
     private final OrderAnalyticsRepository analyticsRepository;
+    private final RealTimeStatsWindow realTimeStatsWindow;
+    private final ColumnarOrderStore columnarOrderStore;
+    private final OrderSketchStore orderSketchStore;
+    private final ObjectProvider<OrderWindowQueries> orderWindowQueries;
+    private final RollupService rollupService;
+    private final ProductDailyRollupRepository productDailyRollupRepository;
+    private final HourlyRollupRepository hourlyRollupRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
     
     private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
     private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter HOUR_START_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH:mm");
     
     @Transactional
     public void processOrderEvent(OrderCreatedEvent orderEvent) {
         log.info("Processing analytics for order: {}", orderEvent.getOrderId());
         
         try {
-            LocalDateTime now = LocalDateTime.now();
-            LocalDateTime orderTime = orderEvent.getOrderTimestamp();
-            
-            OrderAnalytics analytics = new OrderAnalytics();
-            analytics.setOrderId(orderEvent.getOrderId());
-            analytics.setCustomerId(orderEvent.getCustomerId());
-            analytics.setProductId(orderEvent.getProductId());
-            analytics.setQuantity(orderEvent.getQuantity());
-            analytics.setOrderValue(orderEvent.getPrice().multiply(BigDecimal.valueOf(orderEvent.getQuantity())));
-            analytics.setOrderTimestamp(orderTime);
-            analytics.setProcessedTimestamp(now);
-            analytics.setHourBucket(orderTime.format(HOUR_FORMATTER));
-            analytics.setDayBucket(orderTime.format(DAY_FORMATTER));
-            
-            analyticsRepository.save(analytics);
+            OrderAnalytics analytics = analyticsRepository.save(toAnalytics(orderEvent, LocalDateTime.now()));
+            rollupService.increment(List.of(analytics));
+            afterCommit(() -> {
+                realTimeStatsWindow.record(analytics.getOrderTimestamp(), analytics.getOrderValue());
+                columnarOrderStore.add(analytics);
+                orderSketchStore.record(analytics);
+            });
             
             log.info("Successfully processed analytics for order: {}", orderEvent.getOrderId());
             
@@ -54,40 +85,273 @@ public class AnalyticsService {
         }
     }
     
+    @Transactional
+    public void processOrderEvents(List<OrderCreatedEvent> orderEvents) {
+        log.info("Processing analytics for batch of {} orders", orderEvents.size());
+        
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<OrderAnalytics> batch = new ArrayList<>(orderEvents.size());
+            for (OrderCreatedEvent orderEvent : orderEvents) {
+                batch.add(toAnalytics(orderEvent, now));
+            }
+            
+            // Flushed as JDBC batches of hibernate.jdbc.batch_size
+            analyticsRepository.saveAll(batch);
+            rollupService.increment(batch);
+            afterCommit(() -> batch.forEach(analytics -> {
+                realTimeStatsWindow.record(analytics.getOrderTimestamp(), analytics.getOrderValue());
+                columnarOrderStore.add(analytics);
+                orderSketchStore.record(analytics);
+            }));
+            
+            log.info("Successfully processed analytics for batch of {} orders", orderEvents.size());
+            
+        } catch (Exception e) {
+            log.error("Failed to process analytics batch of {} orders", orderEvents.size(), e);
+            throw e;
+        }
+    }
+    
+    // Durable check behind a unique order_id violation
+    public boolean isRecorded(String orderId) {
+        return analyticsRepository.existsByOrderId(orderId);
+    }
+    
+    // Package-private and static for the benchmarks module
+    static OrderAnalytics toAnalytics(OrderCreatedEvent orderEvent, LocalDateTime processedAt) {
+        LocalDateTime orderTime = orderEvent.getOrderTimestamp();
+        
+        OrderAnalytics analytics = new OrderAnalytics();
+        analytics.setOrderId(orderEvent.getOrderId());
+        analytics.setCustomerId(orderEvent.getCustomerId());
+        analytics.setProductId(orderEvent.getProductId());
+        analytics.setQuantity(orderEvent.getQuantity());
+        analytics.setOrderValue(orderEvent.getPrice().multiply(BigDecimal.valueOf(orderEvent.getQuantity())));
+        analytics.setOrderTimestamp(orderTime);
+        analytics.setProcessedTimestamp(processedAt);
+        analytics.setHourBucket(orderTime.format(HOUR_FORMATTER));
+        analytics.setDayBucket(orderTime.format(DAY_FORMATTER));
+        return analytics;
+    }
+    
     public Map<String, Object> getRealTimeStats() {
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
+        LocalDateTime now = LocalDateTime.now();
         
         Map<String, Object> stats = new HashMap<>();
         
-        // Last hour stats
-        Long ordersLastHour = analyticsRepository.countOrdersSince(oneHourAgo);
-        BigDecimal revenueLastHour = analyticsRepository.sumOrderValueSince(oneHourAgo);
-        
-        // Last day stats
-        Long ordersLastDay = analyticsRepository.countOrdersSince(oneDayAgo);
-        BigDecimal revenueLastDay = analyticsRepository.sumOrderValueSince(oneDayAgo);
+        // Served from the in-memory minute window, no table scan, when this instance sees every order
+        RealTimeStatsWindow.Totals lastHour = realTimeStatsWindow.totalsSince(now, 60);
+        RealTimeStatsWindow.Totals lastDay = realTimeStatsWindow.totalsSince(now, 24 * 60);
         
-        stats.put("ordersLastHour", ordersLastHour);
-        stats.put("revenueLastHour", revenueLastHour != null ? revenueLastHour : BigDecimal.ZERO);
-        stats.put("ordersLastDay", ordersLastDay);
-        stats.put("revenueLastDay", revenueLastDay != null ? revenueLastDay : BigDecimal.ZERO);
-        stats.put("timestamp", LocalDateTime.now());
+        stats.put("ordersLastHour", lastHour.orders());
+        stats.put("revenueLastHour", lastHour.revenue());
+        stats.put("ordersLastDay", lastDay.orders());
+        stats.put("revenueLastDay", lastDay.revenue());
+        stats.put("timestamp", now);
         
         return stats;
     }
     
     public List<Object[]> getTopProductsToday() {
-        String today = LocalDateTime.now().format(DAY_FORMATTER);
-        return analyticsRepository.getTopProductsByDay(today);
+        LocalDate today = LocalDate.now();
+        OrderWindowQueries windows = orderWindowQueries.getIfAvailable();
+        if (windows != null) {
+            try {
+                return windows.topProducts(today);
+            } catch (InvalidStateStoreException | IllegalStateException e) {
+                log.warn("Order window stores not queryable, serving top products from rollups: {}", e.getMessage());
+            }
+        }
+        return productDailyRollupRepository.getTopProductsByDay(today.format(DAY_FORMATTER));
     }
     
     public List<Object[]> getHourlyStatsToday() {
-        String today = LocalDateTime.now().format(DAY_FORMATTER);
-        return analyticsRepository.getHourlyStatsByDay(today);
+        LocalDate today = LocalDate.now();
+        OrderWindowQueries windows = orderWindowQueries.getIfAvailable();
+        if (windows != null) {
+            try {
+                return windows.hourlyStats(today);
+            } catch (InvalidStateStoreException | IllegalStateException e) {
+                log.warn("Order window stores not queryable, serving hourly stats from rollups: {}", e.getMessage());
+            }
+        }
+        return hourlyRollupRepository.getHourlyStatsByDay(today.format(DAY_FORMATTER));
+    }
+    
+    /**
+     * A customer's hourly and daily window totals, or null without the
+     * {@code streams} profile. While the stores are not queryable the same
+     * totals are summed from the customer's stored orders.
+     */
+    public Map<String, Object> getCustomerWindows(String customerId, LocalDate day) {
+        OrderWindowQueries windows = orderWindowQueries.getIfAvailable();
+        if (windows == null) {
+            return null;
+        }
+        WindowTotals daily;
+        List<Object[]> hourly;
+        try {
+            daily = windows.customerDailyTotals(customerId, day);
+            hourly = windows.customerHourlyStats(customerId, day);
+        } catch (InvalidStateStoreException | IllegalStateException e) {
+            log.warn("Order window stores not queryable, summing customer windows from orders: {}", e.getMessage());
+            List<OrderAnalytics> orders = analyticsRepository.findByCustomerIdAndDayBucket(customerId, day.format(DAY_FORMATTER));
+            daily = customerTotals(orders);
+            hourly = customerHourlyStats(orders);
+        }
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("customerId", customerId);
+        stats.put("day", day);
+        stats.put("orders", daily != null ? daily.orders() : 0);
+        stats.put("quantity", daily != null ? daily.quantity() : 0);
+        stats.put("totalValue", daily != null ? daily.totalValue() : BigDecimal.ZERO);
+        stats.put("hourly", hourly);
+        return stats;
+    }
+    
+    private static WindowTotals customerTotals(List<OrderAnalytics> orders) {
+        WindowTotals totals = null;
+        for (OrderAnalytics order : orders) {
+            WindowTotals one = WindowTotals.of(order.getQuantity(), order.getOrderValue());
+            totals = totals == null ? one : totals.plus(one);
+        }
+        return totals;
+    }
+    
+    // Same rows as OrderWindowQueries.customerHourlyStats
+    private static List<Object[]> customerHourlyStats(List<OrderAnalytics> orders) {
+        Map<String, WindowTotals> byHour = new TreeMap<>();
+        for (OrderAnalytics order : orders) {
+            byHour.merge(order.getHourBucket(), WindowTotals.of(order.getQuantity(), order.getOrderValue()), WindowTotals::plus);
+        }
+        List<Object[]> rows = new ArrayList<>(byHour.size());
+        byHour.forEach((hour, totals) -> rows.add(new Object[] {hour, totals.orders(), totals.quantity(), totals.totalValue()}));
+        return rows;
     }
     
-    public List<OrderAnalytics> getCustomerOrders(String customerId) {
-        return analyticsRepository.findByCustomerId(customerId);
+    public CursorPage<OrderAnalytics> getCustomerOrders(String customerId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<OrderAnalytics> rows = columnarOrderStore.customerOrders(customerId, after, pageSize + 1);
+        if (rows == null) {
+            Pageable fetch = PageRequest.of(0, pageSize + 1);
+            rows = after == null
+                    ? analyticsRepository.findFirstPageByCustomer(customerId, fetch)
+                    : analyticsRepository.findPageAfterByCustomer(customerId, after.timestamp(), Long.valueOf(after.id()), fetch);
+        } else if (rows.size() <= pageSize) {
+            // Page not filled from recent days, the rest is older than the store covers
+            LocalDateTime coveredFrom = columnarOrderStore.coveredFrom();
+            KeysetCursor olderThan = after != null && after.timestamp().isBefore(coveredFrom)
+                    ? after : new KeysetCursor(coveredFrom, String.valueOf(Long.MIN_VALUE));
+            List<OrderAnalytics> combined = new ArrayList<>(rows);
+            combined.addAll(analyticsRepository.findPageAfterByCustomer(customerId, olderThan.timestamp(),
+                    Long.valueOf(olderThan.id()), PageRequest.of(0, pageSize + 1 - rows.size())));
+            rows = combined;
+        }
+        return CursorPage.of(rows, pageSize, 
+                analytics -> new KeysetCursor(analytics.getOrderTimestamp(), String.valueOf(analytics.getId())));
+    }
+    
+    public List<OrderAnalytics> getProductOrders(String productId, LocalDate day) {
+        List<OrderAnalytics> orders = columnarOrderStore.productOrders(productId, day);
+        return orders != null ? orders : analyticsRepository.findByProductIdAndDayBucket(productId, day.format(DAY_FORMATTER));
+    }
+    
+    public List<OrderAnalytics> getHourOrders(String hourBucket) {
+        LocalDateTime hourStart = LocalDateTime.parse(hourBucket + ":00", HOUR_START_FORMATTER);
+        List<OrderAnalytics> orders = columnarOrderStore.hourOrders(hourStart);
+        return orders != null ? orders : analyticsRepository.findByHourBucket(hourBucket);
+    }
+    
+    public List<Object[]> getTopProducts(LocalDateTime from, LocalDateTime to) {
+        List<Object[]> totals = columnarOrderStore.productTotals(from, to);
+        return totals != null ? totals : analyticsRepository.getTopProductsBetween(from, to);
+    }
+    
+    public Map<String, Object> getUniqueCustomers(Integer minutes, String hourBucket, String day) {
+        SketchWindow window = sketchWindow(minutes, hourBucket, day);
+        
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("window", window.label());
+        stats.put("uniqueCustomers", window.sketch().customers().estimate());
+        stats.put("relativeStandardError", HyperLogLog.RELATIVE_STANDARD_ERROR);
+        return stats;
+    }
+    
+    public Map<String, Object> getTopProductsSketch(int k, Integer minutes, String hourBucket, String day) {
+        SketchWindow window = sketchWindow(minutes, hourBucket, day);
+        CountMinTopK products = window.sketch().products();
+        
+        List<Map<String, Object>> top = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : products.top(Math.max(1, Math.min(k, CountMinTopK.CAPACITY)))) {
+            top.add(Map.of("productId", entry.getKey(), "estimatedOrders", entry.getValue()));
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("window", window.label());
+        stats.put("totalOrders", products.total());
+        stats.put("topProducts", top);
+        // Estimates only overcount, by at most this much with probability 1 - delta
+        stats.put("maxOvercount", Math.ceil(CountMinTopK.EPSILON * products.total()));
+        stats.put("confidence", 1 - CountMinTopK.DELTA);
+        return stats;
+    }
+    
+    public Map<String, Object> getOrderValueQuantiles(List<Double> quantiles, Integer minutes, String hourBucket, String day) {
+        SketchWindow window = sketchWindow(minutes, hourBucket, day);
+        TDigest orderValues = window.sketch().orderValues();
+        
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (double q : quantiles) {
+            values.put("p" + BigDecimal.valueOf(q * 100).stripTrailingZeros().toPlainString(), orderValues.quantile(q));
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("window", window.label());
+        stats.put("orders", orderValues.count());
+        stats.put("min", orderValues.min());
+        stats.put("max", orderValues.max());
+        stats.put("quantiles", values);
+        return stats;
+    }
+    
+    /** Last N minutes, one hour bucket, or one day; the current hour when none is given. */
+    private SketchWindow sketchWindow(Integer minutes, String hourBucket, String day) {
+        if (minutes != null) {
+            int window = Math.max(1, Math.min(minutes, orderSketchStore.minuteWindow()));
+            return new SketchWindow("last " + window + " minutes", orderSketchStore.lastMinutes(LocalDateTime.now(), window));
+        }
+        if (day != null) {
+            return new SketchWindow(day, orderSketchStore.day(LocalDate.parse(day)));
+        }
+        String hour = hourBucket != null ? hourBucket : LocalDateTime.now().format(HOUR_FORMATTER);
+        return new SketchWindow(hour, orderSketchStore.hour(LocalDateTime.parse(hour + ":00", HOUR_START_FORMATTER)));
+    }
+    
+    private record SketchWindow(String label, OrderSketch sketch) {
+    }
+    
+    /**
+     * Writes a customer's orders as NDJSON from a forward-only result set,
+     * detaching each row once written.
+     */
+    @Transactional(readOnly = true)
+    public long streamCustomerOrders(String customerId, OutputStream out) throws IOException {
+        try (Stream<OrderAnalytics> rows = analyticsRepository.streamByCustomer(customerId)) {
+            return NdjsonWriter.write(rows, out, objectMapper, entityManager::detach);
+        }
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package com.poc.analytics.service;
+
+import com.poc.analytics.entity.OrderAnalytics;
+import com.poc.analytics.repository.HourlyRollupRepository;
+import com.poc.analytics.repository.ProductDailyRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maintains the product_daily_rollup and hourly_rollup tables. Product rows
+ * are upsert-incremented inside the transaction that inserts the raw rows.
+ * Every transaction would hit the same current-hour row, so hourly totals are
+ * summed in memory after commit and flushed every {@code hourly-flush-ms} in
+ * one short transaction. A crash loses at most one interval of hourly totals
+ * until the day is rebuilt. {@link #rebuildDay} recomputes a day from
+ * order_analytics.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RollupService {
+    
+    private final ProductDailyRollupRepository productDailyRollupRepository;
+    private final HourlyRollupRepository hourlyRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    
+    private final ConcurrentMap<String, HourTotals> pendingHours = new ConcurrentHashMap<>();
+    
+    @Transactional
+    public void increment(List<OrderAnalytics> rows) {
+        // Pre-aggregate the batch; sorted keys give every transaction the same lock order
+        Map<String, Totals> byProduct = new TreeMap<>();
+        Map<String, HourTotals> byHour = new HashMap<>();
+        for (OrderAnalytics row : rows) {
+            byProduct.computeIfAbsent(row.getDayBucket() + '|' + row.getProductId(), key -> new Totals(row.getDayBucket(), row.getProductId()))
+                    .add(row);
+            byHour.merge(row.getHourBucket(), HourTotals.of(row), HourTotals::plus);
+        }
+        
+        for (Totals totals : byProduct.values()) {
+            productDailyRollupRepository.increment(
+                    totals.dayBucket, totals.key, totals.orders, totals.quantity, totals.value);
+        }
+        afterCommit(() -> byHour.forEach((hourBucket, totals) -> pendingHours.merge(hourBucket, totals, HourTotals::plus)));
+    }
+    
+    @Scheduled(fixedDelayString = "${analytics.rollup.hourly-flush-ms:1000}")
+    @PreDestroy
+    public void flushHourly() {
+        if (pendingHours.isEmpty()) {
+            return;
+        }
+        try {
+            // Joins the caller's transaction when called from rebuildDay
+            transactionTemplate.executeWithoutResult(status -> flushPendingHours());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush hourly rollups, retrying on the next flush", e);
+        }
+    }
+    
+    private void flushPendingHours() {
+        Map<String, HourTotals> flushing = new TreeMap<>();
+        for (String hourBucket : pendingHours.keySet()) {
+            // remove is atomic against merge, so no increment lands in a drained entry
+            HourTotals totals = pendingHours.remove(hourBucket);
+            if (totals != null) {
+                flushing.put(hourBucket, totals);
+            }
+        }
+        // Put back if the transaction does not commit
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    flushing.forEach((hourBucket, totals) -> pendingHours.merge(hourBucket, totals, HourTotals::plus));
+                }
+            }
+        });
+        flushing.forEach((hourBucket, totals) -> hourlyRollupRepository.increment(
+                totals.dayBucket(), hourBucket, totals.orders(), BigDecimal.valueOf(totals.valueCents(), 2)));
+        log.debug("Flushed hourly rollups for {} hours", flushing.size());
+    }
+    
+    /**
+     * Replaces a day's rollups with totals recomputed from the raw rows. Meant
+     * for closed days; rows ingested for that day while it runs may be counted
+     * twice or not at all.
+     */
+    @Transactional
+    public void rebuildDay(String dayBucket) {
+        // Increments buffered before the rebuild would otherwise be added on top of it
+        flushHourly();
+        productDailyRollupRepository.deleteByDay(dayBucket);
+        hourlyRollupRepository.deleteByDay(dayBucket);
+        int products = productDailyRollupRepository.rebuildDay(dayBucket);
+        int hours = hourlyRollupRepository.rebuildDay(dayBucket);
+        log.info("Rebuilt rollups for {}: {} product rows, {} hour rows", dayBucket, products, hours);
+    }
+    
+    @Scheduled(cron = "${analytics.rollup.rebuild-cron:0 15 0 * * *}")
+    @Transactional
+    public void rebuildYesterday() {
+        rebuildDay(LocalDate.now().minusDays(1).toString());
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    private record HourTotals(String dayBucket, long orders, long valueCents) {
+        
+        private static HourTotals of(OrderAnalytics row) {
+            return new HourTotals(row.getDayBucket(), 1,
+                    row.getOrderValue().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+        }
+        
+        private HourTotals plus(HourTotals other) {
+            return new HourTotals(dayBucket, orders + other.orders, valueCents + other.valueCents);
+        }
+    }
+    
+    private static final class Totals {
+        
+        private final String dayBucket;
+        private final String key;
+        private long orders;
+        private long quantity;
+        private BigDecimal value = BigDecimal.ZERO;
+        
+        private Totals(String dayBucket, String key) {
+            this.dayBucket = dayBucket;
+            this.key = key;
+        }
+        
+        private void add(OrderAnalytics row) {
+            orders++;
+            quantity += row.getQuantity();
+            value = value.add(row.getOrderValue());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.poc.analytics.sketch;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Count-Min sketch of 4 rows x 2048 int counters (32 KB), with the
+ * {@value #CAPACITY} heaviest keys seen kept as top-K candidates.
+ * <p>
+ * A frequency estimate never undercounts. It overcounts by at most
+ * e / 2048 * N (0.13% of the total count N) with probability 1 - e^-4 (98%).
+ * Any key above that error gets into the candidate set if the set is not
+ * already full of heavier keys. Merging adds the counters and re-ranks the
+ * union of both candidate sets against the merged counts. Not thread-safe.
+ */
+public final class CountMinTopK {
+
+    public static final int CAPACITY = 32;
+    public static final double EPSILON = Math.E / 2048;
+    public static final double DELTA = Math.exp(-4);
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH_BITS = 11;
+    private static final int WIDTH = 1 << WIDTH_BITS;
+
+    private final int[] counters = new int[DEPTH * WIDTH];
+    private final Map<String, Long> candidates = new HashMap<>();
+    private long total;
+
+    public void add(String key) {
+        long hash = Hashing.hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * WIDTH + slot(hash, row);
+            if (counters[index] != Integer.MAX_VALUE) {
+                counters[index]++;
+            }
+            estimate = Math.min(estimate, counters[index]);
+        }
+        total++;
+        offer(key, estimate);
+    }
+
+    public long estimate(String key) {
+        long hash = Hashing.hash64(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters[row * WIDTH + slot(hash, row)]);
+        }
+        return estimate;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    /** Up to {@code k} (at most {@value #CAPACITY}) keys with their estimated counts, heaviest first. */
+    public List<Map.Entry<String, Long>> top(int k) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        return List.copyOf(entries.subList(0, Math.min(k, entries.size())));
+    }
+
+    public void merge(CountMinTopK other) {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (int) Math.min(Integer.MAX_VALUE, (long) counters[i] + other.counters[i]);
+        }
+        total += other.total;
+        List<String> keys = new ArrayList<>(candidates.keySet());
+        keys.addAll(other.candidates.keySet());
+        candidates.clear();
+        for (String key : keys) {
+            offer(key, estimate(key));
+        }
+    }
+
+    private void offer(String key, long estimate) {
+        if (candidates.size() < CAPACITY || candidates.containsKey(key)) {
+            candidates.put(key, estimate);
+            return;
+        }
+        Map.Entry<String, Long> lightest = null;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (lightest == null || entry.getValue() < lightest.getValue()) {
+                lightest = entry;
+            }
+        }
+        if (estimate > lightest.getValue()) {
+            candidates.remove(lightest.getKey());
+            candidates.put(key, estimate);
+        }
+    }
+
+    /**
+     * Remixes the key hash per row so rows collide independently. Deriving rows
+     * as h1 + row * h2 would use only 22 bits at this width and put about one
+     * pair in every four million keys into the same counter on all rows.
+     */
+    private static int slot(long hash, int row) {
+        long mixed = hash + (row + 1) * 0x9e3779b97f4a7c15L;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xff51afd7ed558ccdL;
+        mixed ^= mixed >>> 33;
+        return (int) (mixed >>> (64 - WIDTH_BITS));
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(total);
+        for (int counter : counters) {
+            out.writeInt(counter);
+        }
+        out.writeShort(candidates.size());
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    static CountMinTopK readFrom(DataInputStream in) throws IOException {
+        CountMinTopK sketch = new CountMinTopK();
+        sketch.total = in.readLong();
+        for (int i = 0; i < sketch.counters.length; i++) {
+            sketch.counters[i] = in.readInt();
+        }
+        int candidates = in.readShort();
+        for (int i = 0; i < candidates; i++) {
+            sketch.candidates.put(in.readUTF(), in.readLong());
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,26 @@
+package com.poc.analytics.sketch;
+
+/**
+ * 64-bit string hash for the sketches: FNV-1a over the UTF-16 chars, then
+ * the MurmurHash3 finalizer so similar ids ("customer_1", "customer_2") still
+ * spread over all bits. Stable across JVMs, so persisted sketches stay valid.
+ */
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
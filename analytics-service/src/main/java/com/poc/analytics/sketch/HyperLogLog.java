@@ -0,0 +1,69 @@
+package com.poc.analytics.sketch;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * HyperLogLog distinct counter with 2^12 one-byte registers (4 KB).
+ * <p>
+ * Relative standard error is 1.04 / sqrt(4096) = 1.6%: about 68% of
+ * estimates fall within 1.6% of the true count and 99.7% within 4.9%. Small
+ * cardinalities use linear counting and are near exact. Merging takes the
+ * register-wise max and gives the same estimate as one sketch fed both streams.
+ * Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    public static final double RELATIVE_STANDARD_ERROR = 1.04 / Math.sqrt(1 << 12);
+
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    public void add(String value) {
+        long hash = Hashing.hash64(value);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Leading zeros of the remaining bits, the guard bit caps the rank at 64 - PRECISION + 1
+        int rank = Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.write(registers);
+    }
+
+    static HyperLogLog readFrom(DataInputStream in) throws IOException {
+        HyperLogLog hll = new HyperLogLog();
+        in.readFully(hll.registers);
+        return hll;
+    }
+}
@@ -0,0 +1,103 @@
+package com.poc.analytics.sketch;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * The sketches of one time bucket: distinct customers, product frequencies
+ * with top-K, and order value quantiles. About 50 KB whatever the order volume.
+ * <p>
+ * Thread-safe: writers and readers lock the bucket; queries work on a
+ * {@link #copy()} so they never hold a live bucket's lock while merging, and
+ * only read the sketch accessors on such copies.
+ */
+public final class OrderSketch {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private HyperLogLog customers = new HyperLogLog();
+    private CountMinTopK products = new CountMinTopK();
+    private TDigest orderValues = new TDigest();
+    private boolean dirty;
+
+    public synchronized void add(String customerId, String productId, double orderValue) {
+        customers.add(customerId);
+        products.add(productId);
+        orderValues.add(orderValue);
+        dirty = true;
+    }
+
+    public synchronized void merge(OrderSketch other) {
+        OrderSketch source = other.copy();
+        customers.merge(source.customers);
+        products.merge(source.products);
+        orderValues.merge(source.orderValues);
+        dirty = true;
+    }
+
+    public synchronized OrderSketch copy() {
+        return fromBytes(serialize());
+    }
+
+    public HyperLogLog customers() {
+        return customers;
+    }
+
+    public CountMinTopK products() {
+        return products;
+    }
+
+    public TDigest orderValues() {
+        return orderValues;
+    }
+
+    /** Serialized form if the bucket changed since the last call, otherwise null. */
+    public synchronized byte[] takeIfDirty() {
+        if (!dirty) {
+            return null;
+        }
+        dirty = false;
+        return serialize();
+    }
+
+    public synchronized void markDirty() {
+        dirty = true;
+    }
+
+    public synchronized byte[] toBytes() {
+        return serialize();
+    }
+
+    public static OrderSketch fromBytes(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported sketch format version " + version);
+            }
+            OrderSketch sketch = new OrderSketch();
+            sketch.customers = HyperLogLog.readFrom(in);
+            sketch.products = CountMinTopK.readFrom(in);
+            sketch.orderValues = TDigest.readFrom(in);
+            return sketch;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] serialize() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48 * 1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            customers.writeTo(out);
+            products.writeTo(out);
+            orderValues.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
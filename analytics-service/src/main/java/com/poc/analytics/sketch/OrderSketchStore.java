@@ -0,0 +1,186 @@
+package com.poc.analytics.sketch;
+
+import com.poc.analytics.entity.OrderAnalytics;
+import com.poc.analytics.entity.SketchSnapshot;
+import com.poc.analytics.entity.SketchSnapshot.Granularity;
+import com.poc.analytics.repository.SketchSnapshotRepository;
+import com.poc.analytics.stats.RealTimeStatsWindow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Order sketches per minute (for the last {@code minute-window} minutes) and
+ * per hour (for {@code retention-hours}), keyed by order time. Each bucket has
+ * a fixed size, so memory depends on the number of buckets and not on order
+ * volume. Wider windows are answered by merging buckets.
+ * <p>
+ * Changed buckets are written to {@code sketch_snapshot} every flush
+ * interval and on shutdown, under this instance's {@code instance-id}, and
+ * loaded again on startup. A crash loses at most one interval of updates,
+ * because those events are already acknowledged.
+ * <p>
+ * Instances on the shared subscription each see part of the orders, so every
+ * instance keeps its own rows and queries merge the other instances' last
+ * flushed rows into the local buckets. Their orders show up one flush
+ * interval late. HLL merges are idempotent but Count-Min and t-digest merges
+ * add up, so rows are never merged into each other, only on read.
+ */
+@Slf4j
+@Component
+public class OrderSketchStore {
+
+    private final SketchSnapshotRepository snapshotRepository;
+    private final String instanceId;
+    private final int minuteWindow;
+    private final int retentionHours;
+
+    private final ConcurrentMap<LocalDateTime, OrderSketch> minutes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<LocalDateTime, OrderSketch> hours = new ConcurrentHashMap<>();
+
+    public OrderSketchStore(SketchSnapshotRepository snapshotRepository,
+                            @Value("${analytics.sketch.instance-id:${HOSTNAME:analytics}}") String instanceId,
+                            @Value("${analytics.sketch.minute-window:60}") int minuteWindow,
+                            @Value("${analytics.sketch.retention-hours:48}") int retentionHours) {
+        this.snapshotRepository = snapshotRepository;
+        this.instanceId = instanceId;
+        this.minuteWindow = minuteWindow;
+        this.retentionHours = retentionHours;
+    }
+
+    @PostConstruct
+    void load() {
+        LocalDateTime now = LocalDateTime.now();
+        load(Granularity.MINUTE, minuteCutoff(now), minutes);
+        load(Granularity.HOUR, hourCutoff(now), hours);
+        log.info("Loaded {} minute and {} hour order sketches of instance {}", minutes.size(), hours.size(), instanceId);
+    }
+
+    public void record(OrderAnalytics analytics) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime orderTime = analytics.getOrderTimestamp();
+        String customerId = analytics.getCustomerId();
+        String productId = analytics.getProductId();
+        double orderValue = analytics.getOrderValue().doubleValue();
+
+        LocalDateTime minute = orderTime.truncatedTo(ChronoUnit.MINUTES);
+        if (!minute.isBefore(minuteCutoff(now))) {
+            minutes.computeIfAbsent(minute, key -> new OrderSketch()).add(customerId, productId, orderValue);
+        }
+        LocalDateTime hour = orderTime.truncatedTo(ChronoUnit.HOURS);
+        if (!hour.isBefore(hourCutoff(now))) {
+            hours.computeIfAbsent(hour, key -> new OrderSketch()).add(customerId, productId, orderValue);
+        }
+    }
+
+    public int minuteWindow() {
+        return minuteWindow;
+    }
+
+    /** Orders since the minute boundary at or before {@code now - minutes}, as the real-time window counts them. */
+    public OrderSketch lastMinutes(LocalDateTime now, int minutes) {
+        LocalDateTime start = RealTimeStatsWindow.windowStart(now, Math.min(minutes, minuteWindow));
+        // Open-ended like the real-time window; a day ahead covers order clocks that run fast
+        return merge(Granularity.MINUTE, this.minutes, start, now.plusDays(1));
+    }
+
+    public OrderSketch hour(LocalDateTime hourStart) {
+        return merge(Granularity.HOUR, hours, hourStart, hourStart.plusHours(1));
+    }
+
+    public OrderSketch day(LocalDate day) {
+        return merge(Granularity.HOUR, hours, day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.sketch.flush-interval-ms:60000}",
+               initialDelayString = "${analytics.sketch.flush-interval-ms:60000}")
+    public void flush() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime minuteCutoff = minuteCutoff(now);
+        LocalDateTime hourCutoff = hourCutoff(now);
+        minutes.keySet().removeIf(minute -> minute.isBefore(minuteCutoff));
+        hours.keySet().removeIf(hour -> hour.isBefore(hourCutoff));
+
+        List<SketchSnapshot> changed = new ArrayList<>();
+        collectChanged(Granularity.MINUTE, minutes, now, changed);
+        collectChanged(Granularity.HOUR, hours, now, changed);
+        try {
+            snapshotRepository.saveAll(changed);
+            snapshotRepository.deleteOlderThan(Granularity.MINUTE, minuteCutoff);
+            snapshotRepository.deleteOlderThan(Granularity.HOUR, hourCutoff);
+            log.debug("Flushed {} order sketch buckets", changed.size());
+        } catch (RuntimeException e) {
+            // Mark them changed again so the next flush retries them
+            changed.forEach(snapshot -> redirty(snapshot.getGranularity() == Granularity.MINUTE ? minutes : hours, snapshot));
+            log.warn("Failed to flush {} order sketch buckets", changed.size(), e);
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void load(Granularity granularity, LocalDateTime since, Map<LocalDateTime, OrderSketch> target) {
+        for (SketchSnapshot snapshot : snapshotRepository.findByInstanceIdAndGranularityAndBucketStartGreaterThanEqual(
+                instanceId, granularity, since)) {
+            // Merged in case orders arrived while the context was starting
+            target.merge(snapshot.getBucketStart(), OrderSketch.fromBytes(snapshot.getPayload()),
+                    (recorded, loaded) -> {
+                        recorded.merge(loaded);
+                        return recorded;
+                    });
+        }
+    }
+
+    private void collectChanged(Granularity granularity, Map<LocalDateTime, OrderSketch> buckets,
+                                LocalDateTime now, List<SketchSnapshot> changed) {
+        buckets.forEach((start, sketch) -> {
+            byte[] payload = sketch.takeIfDirty();
+            if (payload != null) {
+                changed.add(new SketchSnapshot(instanceId, granularity, start, payload, now));
+            }
+        });
+    }
+
+    private static void redirty(Map<LocalDateTime, OrderSketch> buckets, SketchSnapshot snapshot) {
+        OrderSketch sketch = buckets.get(snapshot.getBucketStart());
+        if (sketch != null) {
+            sketch.markDirty();
+        }
+    }
+
+    private OrderSketch merge(Granularity granularity, Map<LocalDateTime, OrderSketch> buckets,
+                              LocalDateTime from, LocalDateTime to) {
+        OrderSketch merged = new OrderSketch();
+        buckets.forEach((start, sketch) -> {
+            if (!start.isBefore(from) && start.isBefore(to)) {
+                merged.merge(sketch);
+            }
+        });
+        for (SketchSnapshot other : snapshotRepository.findOtherInstances(instanceId, granularity, from, to)) {
+            merged.merge(OrderSketch.fromBytes(other.getPayload()));
+        }
+        return merged;
+    }
+
+    private LocalDateTime minuteCutoff(LocalDateTime now) {
+        return RealTimeStatsWindow.windowStart(now, minuteWindow);
+    }
+
+    private LocalDateTime hourCutoff(LocalDateTime now) {
+        return now.minusHours(retentionHours).truncatedTo(ChronoUnit.HOURS);
+    }
+}
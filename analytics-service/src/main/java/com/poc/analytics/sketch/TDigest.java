@@ -0,0 +1,179 @@
+package com.poc.analytics.sketch;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (Dunning) with compression 200 and the arcsine (k1) scale
+ * function, over fixed arrays: at most 201 centroids plus a 500-value buffer,
+ * about 11 KB.
+ * <p>
+ * Centroids get smaller toward the tails. Quantile estimates stay within
+ * about 0.5% in rank around the median, and much closer at p99 and beyond.
+ * Min and max are exact. Merging feeds one digest's centroids into the other,
+ * which keeps the same bounds. Not thread-safe.
+ */
+public final class TDigest {
+
+    private static final double COMPRESSION = 200;
+    // Two neighbouring centroids always span more than one unit of k, and k covers COMPRESSION / 2 units
+    private static final int MAX_CENTROIDS = (int) COMPRESSION + 1;
+    private static final int BUFFER = 500;
+
+    private final double[] means = new double[MAX_CENTROIDS];
+    private final double[] weights = new double[MAX_CENTROIDS];
+    private int centroids;
+
+    private final double[] bufferValues = new double[BUFFER];
+    private final double[] bufferWeights = new double[BUFFER];
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public long count() {
+        return Math.round(totalWeight);
+    }
+
+    public double min() {
+        return totalWeight == 0 ? Double.NaN : min;
+    }
+
+    public double max() {
+        return totalWeight == 0 ? Double.NaN : max;
+    }
+
+    /** Estimated value at quantile {@code q} in [0, 1]; NaN when empty. */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be within [0, 1]: " + q);
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        if (index < weights[0] / 2) {
+            return min + index / (weights[0] / 2) * (means[0] - min);
+        }
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step > index) {
+                return means[i] + (index - cumulative) / step * (means[i + 1] - means[i]);
+            }
+            cumulative += step;
+        }
+        int last = centroids - 1;
+        double tail = Math.min(1, (index - cumulative) / (weights[last] / 2));
+        return means[last] + tail * (max - means[last]);
+    }
+
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        if (other.totalWeight > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    private void add(double value, double weight) {
+        if (buffered == BUFFER) {
+            compress();
+        }
+        bufferValues[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /** Sorts centroids and buffer together and merges neighbours while they fit under the k1 size limit. */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = centroids + buffered;
+        double[] allMeans = Arrays.copyOf(means, n);
+        double[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferValues, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        centroids = 0;
+        buffered = 0;
+        double mean = allMeans[order[0]];
+        double weight = allWeights[order[0]];
+        double weightBefore = 0;
+        double qLimit = qLimit(0);
+        for (int i = 1; i < n; i++) {
+            double nextMean = allMeans[order[i]];
+            double nextWeight = allWeights[order[i]];
+            if ((weightBefore + weight + nextWeight) / totalWeight <= qLimit) {
+                weight += nextWeight;
+                mean += (nextMean - mean) * nextWeight / weight;
+            } else {
+                weightBefore += weight;
+                emit(mean, weight);
+                qLimit = qLimit(weightBefore / totalWeight);
+                mean = nextMean;
+                weight = nextWeight;
+            }
+        }
+        emit(mean, weight);
+    }
+
+    private void emit(double mean, double weight) {
+        means[centroids] = mean;
+        weights[centroids] = weight;
+        centroids++;
+    }
+
+    /** Largest quantile a centroid starting at q0 may reach: k1(q) = compression / 2pi * asin(2q - 1), one unit of k per centroid. */
+    private static double qLimit(double q0) {
+        double angle = Math.asin(Math.min(1, 2 * q0 - 1)) + 2 * Math.PI / COMPRESSION;
+        return angle >= Math.PI / 2 ? 1 : (Math.sin(angle) + 1) / 2;
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        compress();
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeShort(centroids);
+        for (int i = 0; i < centroids; i++) {
+            out.writeDouble(means[i]);
+            out.writeDouble(weights[i]);
+        }
+    }
+
+    static TDigest readFrom(DataInputStream in) throws IOException {
+        TDigest digest = new TDigest();
+        digest.min = in.readDouble();
+        digest.max = in.readDouble();
+        digest.centroids = in.readShort();
+        for (int i = 0; i < digest.centroids; i++) {
+            digest.means[i] = in.readDouble();
+            digest.weights[i] = in.readDouble();
+            digest.totalWeight += digest.weights[i];
+        }
+        return digest;
+    }
+}
@@ -0,0 +1,142 @@
+package com.poc.analytics.stats;
+
+import com.poc.analytics.repository.OrderAnalyticsRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free ring of per-minute order counts and revenue, keyed by order time.
+ * Revenue is held as long cents, the same precision as the order_value column.
+ * <p>
+ * Windows start on the minute boundary at or before {@code now - duration},
+ * which is the range {@code orderTimestamp >= start} selects in SQL. The ring
+ * keeps one spare hour of slots so orders stamped slightly ahead of this
+ * service's clock do not evict the oldest minute of the day window.
+ * <p>
+ * The ring only counts the orders this instance consumes, so it is used only
+ * with {@code analytics.columnar.single-consumer}; instances sharing the
+ * subscription answer from the order_analytics table instead.
+ */
+@Slf4j
+@Component
+public class RealTimeStatsWindow {
+    
+    private static final int SLOTS = 25 * 60 + 1;
+    private static final DateTimeFormatter MINUTE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
+    private final OrderAnalyticsRepository analyticsRepository;
+    private final boolean singleConsumer;
+    
+    private final AtomicReferenceArray<MinuteBucket> buckets = new AtomicReferenceArray<>(SLOTS);
+    
+    public RealTimeStatsWindow(OrderAnalyticsRepository analyticsRepository,
+                               @Value("${analytics.columnar.single-consumer:true}") boolean singleConsumer) {
+        this.analyticsRepository = analyticsRepository;
+        this.singleConsumer = singleConsumer;
+    }
+    
+    @PostConstruct
+    void warmUp() {
+        warmUp(LocalDateTime.now());
+    }
+    
+    void warmUp(LocalDateTime now) {
+        if (!singleConsumer) {
+            log.info("Real-time stats window off: this instance shares the order subscription, stats come from the database");
+            return;
+        }
+        LocalDateTime since = windowStart(now, 24 * 60);
+        List<Object[]> rows = analyticsRepository.sumOrdersByMinuteSince(since);
+        for (Object[] row : rows) {
+            long minute = epochMinute(LocalDateTime.parse((String) row[0], MINUTE_FORMATTER));
+            add(minute, ((Number) row[1]).longValue(), toCents((BigDecimal) row[2]));
+        }
+        log.info("Warmed real-time stats window from {} minute buckets since {}", rows.size(), since);
+    }
+    
+    public void record(LocalDateTime orderTimestamp, BigDecimal orderValue) {
+        if (!singleConsumer) {
+            return;
+        }
+        add(epochMinute(orderTimestamp), 1, toCents(orderValue));
+    }
+    
+    public Totals totalsSince(LocalDateTime now, int minutes) {
+        LocalDateTime start = windowStart(now, minutes);
+        if (!singleConsumer) {
+            Long orders = analyticsRepository.countOrdersSince(start);
+            BigDecimal revenue = analyticsRepository.sumOrderValueSince(start);
+            return new Totals(orders != null ? orders : 0, revenue != null ? revenue : BigDecimal.ZERO);
+        }
+        long startMinute = epochMinute(start);
+        long orders = 0;
+        long cents = 0;
+        for (int i = 0; i < SLOTS; i++) {
+            MinuteBucket bucket = buckets.get(i);
+            if (bucket != null && bucket.minute >= startMinute) {
+                orders += bucket.orders.sum();
+                cents += bucket.cents.sum();
+            }
+        }
+        return new Totals(orders, BigDecimal.valueOf(cents, 2));
+    }
+    
+    public static LocalDateTime windowStart(LocalDateTime now, int minutes) {
+        return now.minusMinutes(minutes).truncatedTo(ChronoUnit.MINUTES);
+    }
+    
+    private void add(long minute, long orders, long cents) {
+        int slot = (int) Math.floorMod(minute, (long) SLOTS);
+        while (true) {
+            MinuteBucket bucket = buckets.get(slot);
+            if (bucket != null && bucket.minute == minute) {
+                bucket.orders.add(orders);
+                bucket.cents.add(cents);
+                return;
+            }
+            if (bucket != null && bucket.minute > minute) {
+                return; // older than anything the ring still covers
+            }
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (buckets.compareAndSet(slot, bucket, fresh)) {
+                fresh.orders.add(orders);
+                fresh.cents.add(cents);
+                return;
+            }
+        }
+    }
+    
+    private static long epochMinute(LocalDateTime timestamp) {
+        return Math.floorDiv(timestamp.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+    
+    private static long toCents(BigDecimal value) {
+        return value == null ? 0 : value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    private static final class MinuteBucket {
+        
+        private final long minute;
+        private final LongAdder orders = new LongAdder();
+        private final LongAdder cents = new LongAdder();
+        
+        private MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+    }
+    
+    public record Totals(long orders, BigDecimal revenue) {
+    }
+}
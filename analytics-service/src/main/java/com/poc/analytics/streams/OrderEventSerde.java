@@ -0,0 +1,41 @@
+package com.poc.analytics.streams;
+
+import com.poc.shared.codec.BinaryEventCodec;
+import com.poc.shared.codec.OrderEventField;
+import com.poc.shared.codec.OrderEventReader;
+import com.poc.shared.events.OrderCreatedEvent;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Reads order-events payloads in either wire format, sniffed from the bytes
+ * since Kafka Streams does not pass the content type header. Writes the
+ * binary format, which the reader sniffs back; the topology itself only
+ * re-keys {@link WindowTotals}, so that is for producers such as tests.
+ */
+public class OrderEventSerde implements Serde<OrderCreatedEvent> {
+    
+    private final OrderEventReader orderEventReader;
+    private final BinaryEventCodec binaryEventCodec;
+    private final OrderEventReader.Selection fields;
+    
+    public OrderEventSerde(OrderEventReader orderEventReader, BinaryEventCodec binaryEventCodec) {
+        this.orderEventReader = orderEventReader;
+        this.binaryEventCodec = binaryEventCodec;
+        this.fields = orderEventReader.select(
+                OrderEventField.CUSTOMER_ID, OrderEventField.PRODUCT_ID, OrderEventField.QUANTITY,
+                OrderEventField.PRICE, OrderEventField.ORDER_TIMESTAMP);
+    }
+    
+    @Override
+    public Serializer<OrderCreatedEvent> serializer() {
+        return (topic, event) -> event == null ? null : binaryEventCodec.encode(event);
+    }
+    
+    @Override
+    public Deserializer<OrderCreatedEvent> deserializer() {
+        // Not pooled: the timestamp extractor and the topology both see the event
+        return (topic, bytes) -> bytes == null ? null : orderEventReader.read(bytes, null, fields);
+    }
+}
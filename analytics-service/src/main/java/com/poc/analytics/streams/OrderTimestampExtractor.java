@@ -0,0 +1,21 @@
+package com.poc.analytics.streams;
+
+import com.poc.shared.events.OrderCreatedEvent;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+
+/**
+ * Windows orders by their order timestamp rather than the time they were
+ * published, so relay delays and redeliveries land in the right hour.
+ * Falls back to the record timestamp for events without one.
+ */
+public class OrderTimestampExtractor implements TimestampExtractor {
+    
+    @Override
+    public long extract(ConsumerRecord<Object, Object> record, long partitionTime) {
+        if (record.value() instanceof OrderCreatedEvent event && event.getOrderTimestamp() != null) {
+            return OrderWindowTopology.toEpochMillis(event.getOrderTimestamp());
+        }
+        return record.timestamp() >= 0 ? record.timestamp() : partitionTime;
+    }
+}
@@ -0,0 +1,92 @@
+package com.poc.analytics.streams;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.QueryableStoreTypes;
+import org.apache.kafka.streams.state.ReadOnlyWindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.springframework.cloud.stream.binder.kafka.streams.InteractiveQueryService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Interactive queries over the order window stores. Results have the same
+ * columns and order as the rollup queries they replace.
+ * <p>
+ * Reads this instance's local stores only, which hold every key while one
+ * analytics instance runs the topology. With more instances each holds the
+ * partitions it is assigned.
+ */
+@Component
+@Profile("streams")
+@RequiredArgsConstructor
+public class OrderWindowQueries {
+    
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH");
+    
+    private final InteractiveQueryService interactiveQueryService;
+    
+    /** [hourBucket, orderCount, totalValue] per hour of the day that had orders, by hour. */
+    public List<Object[]> hourlyStats(LocalDate day) {
+        Map<Long, WindowTotals> byHour = new TreeMap<>();
+        try (KeyValueIterator<Windowed<String>, WindowTotals> windows = store(OrderWindowTopology.PRODUCT_HOURLY_STORE)
+                .fetchAll(dayStart(day), dayStart(day).plusSeconds(23 * 3600))) {
+            windows.forEachRemaining(window -> byHour.merge(window.key.window().start(), window.value, WindowTotals::plus));
+        }
+        List<Object[]> rows = new ArrayList<>(byHour.size());
+        byHour.forEach((start, totals) -> rows.add(new Object[] {
+                OrderWindowTopology.toLocalDateTime(start).format(HOUR_FORMATTER), totals.orders(), totals.totalValue()}));
+        return rows;
+    }
+    
+    /** [productId, orderCount, totalQuantity, totalValue] per product ordered that day, by order count descending. */
+    public List<Object[]> topProducts(LocalDate day) {
+        List<KeyValue<String, WindowTotals>> products = new ArrayList<>();
+        try (KeyValueIterator<Windowed<String>, WindowTotals> windows = store(OrderWindowTopology.PRODUCT_DAILY_STORE)
+                .fetchAll(dayStart(day), dayStart(day))) {
+            windows.forEachRemaining(window -> products.add(KeyValue.pair(window.key.key(), window.value)));
+        }
+        products.sort(Comparator.comparingLong((KeyValue<String, WindowTotals> product) -> product.value.orders()).reversed());
+        List<Object[]> rows = new ArrayList<>(products.size());
+        for (KeyValue<String, WindowTotals> product : products) {
+            rows.add(new Object[] {product.key, product.value.orders(), product.value.quantity(), product.value.totalValue()});
+        }
+        return rows;
+    }
+    
+    /** [hourBucket, orderCount, totalQuantity, totalValue] per hour the customer ordered that day, by hour. */
+    public List<Object[]> customerHourlyStats(String customerId, LocalDate day) {
+        List<Object[]> rows = new ArrayList<>();
+        try (WindowStoreIterator<WindowTotals> windows = store(OrderWindowTopology.CUSTOMER_HOURLY_STORE)
+                .fetch(customerId, dayStart(day), dayStart(day).plusSeconds(23 * 3600))) {
+            windows.forEachRemaining(window -> rows.add(new Object[] {
+                    OrderWindowTopology.toLocalDateTime(window.key).format(HOUR_FORMATTER),
+                    window.value.orders(), window.value.quantity(), window.value.totalValue()}));
+        }
+        return rows;
+    }
+    
+    /** The customer's totals for the day, or null if they did not order. */
+    public WindowTotals customerDailyTotals(String customerId, LocalDate day) {
+        return store(OrderWindowTopology.CUSTOMER_DAILY_STORE).fetch(customerId, dayStart(day).toEpochMilli());
+    }
+    
+    private ReadOnlyWindowStore<String, WindowTotals> store(String name) {
+        return interactiveQueryService.getQueryableStore(name, QueryableStoreTypes.<String, WindowTotals>windowStore());
+    }
+    
+    private static Instant dayStart(LocalDate day) {
+        return OrderWindowTopology.toInstant(day.atStartOfDay());
+    }
+}
@@ -0,0 +1,52 @@
+package com.poc.analytics.streams;
+
+import com.poc.shared.codec.BinaryEventCodec;
+import com.poc.shared.codec.OrderEventReader;
+import com.poc.shared.events.OrderCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.processor.TimestampExtractor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Binds the order window topology to order-events through the Kafka Streams
+ * binder, active with the {@code streams} profile. Needs order-service on the
+ * kafka profile. The binder picks up the event Serde bean by the function's
+ * value type.
+ */
+@Slf4j
+@Configuration
+@Profile("streams")
+public class OrderWindowStreamsConfig {
+    
+    @Bean
+    public Serde<OrderCreatedEvent> orderEventSerde(OrderEventReader orderEventReader, BinaryEventCodec binaryEventCodec) {
+        return new OrderEventSerde(orderEventReader, binaryEventCodec);
+    }
+    
+    @Bean
+    public TimestampExtractor orderTimestampExtractor() {
+        return new OrderTimestampExtractor();
+    }
+    
+    @Bean
+    public OrderWindowTopology orderWindowTopology(
+            @Value("${analytics.streams.grace:5m}") Duration grace,
+            @Value("${analytics.streams.hourly-retention:48h}") Duration hourlyRetention,
+            @Value("${analytics.streams.daily-retention:35d}") Duration dailyRetention) {
+        log.info("Order windows: grace {}, hourly retention {}, daily retention {}", grace, hourlyRetention, dailyRetention);
+        return new OrderWindowTopology(grace, hourlyRetention, dailyRetention);
+    }
+    
+    @Bean
+    public Consumer<KStream<byte[], OrderCreatedEvent>> orderWindows(OrderWindowTopology orderWindowTopology) {
+        return orderWindowTopology::apply;
+    }
+}
@@ -0,0 +1,96 @@
+package com.poc.analytics.streams;
+
+import com.poc.shared.events.OrderCreatedEvent;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.Topology;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KGroupedStream;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Tumbling hourly and daily order totals keyed by product and by customer,
+ * each in its own window store.
+ * <p>
+ * Order timestamps are zone-less like the hour_bucket and day_bucket
+ * columns. They are mapped to epoch millis as if they were UTC, so windows
+ * aligned to the epoch start exactly on those buckets' hours and days.
+ */
+public class OrderWindowTopology {
+
+    public static final String PRODUCT_HOURLY_STORE = "product-hourly";
+    public static final String PRODUCT_DAILY_STORE = "product-daily";
+    public static final String CUSTOMER_HOURLY_STORE = "customer-hourly";
+    public static final String CUSTOMER_DAILY_STORE = "customer-daily";
+
+    private final Duration grace;
+    private final Duration hourlyRetention;
+    private final Duration dailyRetention;
+
+    public OrderWindowTopology(Duration grace, Duration hourlyRetention, Duration dailyRetention) {
+        this.grace = grace;
+        this.hourlyRetention = hourlyRetention;
+        this.dailyRetention = dailyRetention;
+    }
+
+    public <K> void apply(KStream<K, OrderCreatedEvent> orders) {
+        KStream<K, OrderCreatedEvent> valid = orders.filter((key, event) -> event != null
+                && event.getProductId() != null && event.getCustomerId() != null);
+
+        aggregate(valid.map((key, event) -> KeyValue.pair(event.getProductId(), WindowTotals.of(event)))
+                        .groupByKey(Grouped.with("orders-by-product", Serdes.String(), new WindowTotalsSerde())),
+                PRODUCT_HOURLY_STORE, PRODUCT_DAILY_STORE);
+        aggregate(valid.map((key, event) -> KeyValue.pair(event.getCustomerId(), WindowTotals.of(event)))
+                        .groupByKey(Grouped.with("orders-by-customer", Serdes.String(), new WindowTotalsSerde())),
+                CUSTOMER_HOURLY_STORE, CUSTOMER_DAILY_STORE);
+    }
+
+    /**
+     * The same topology reading {@code sourceTopic} directly, outside the
+     * binder, e.g. for {@code TopologyTestDriver}.
+     */
+    public Topology topology(String sourceTopic, Serde<OrderCreatedEvent> eventSerde) {
+        StreamsBuilder builder = new StreamsBuilder();
+        apply(builder.stream(sourceTopic, Consumed.with(Serdes.ByteArray(), eventSerde)
+                .withTimestampExtractor(new OrderTimestampExtractor())));
+        return builder.build();
+    }
+
+    public static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    public static Instant toInstant(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC);
+    }
+
+    public static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+    }
+
+    private void aggregate(KGroupedStream<String, WindowTotals> grouped, String hourlyStore, String dailyStore) {
+        grouped.windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofHours(1), grace))
+                .reduce(WindowTotals::plus, store(hourlyStore, hourlyRetention));
+        grouped.windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofDays(1), grace))
+                .reduce(WindowTotals::plus, store(dailyStore, dailyRetention));
+    }
+
+    private static Materialized<String, WindowTotals, WindowStore<Bytes, byte[]>> store(String name, Duration retention) {
+        return Materialized.<String, WindowTotals, WindowStore<Bytes, byte[]>>as(name)
+                .withKeySerde(Serdes.String())
+                .withValueSerde(new WindowTotalsSerde())
+                .withRetention(retention);
+    }
+}
@@ -0,0 +1,30 @@
+package com.poc.analytics.streams;
+
+import com.poc.shared.events.OrderCreatedEvent;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Order count, quantity and value of one key in one window. Value is held as
+ * long cents, the same precision as the order_value column.
+ */
+public record WindowTotals(long orders, long quantity, long valueCents) {
+    
+    public static WindowTotals of(OrderCreatedEvent event) {
+        return of(event.getQuantity(), event.getPrice().multiply(BigDecimal.valueOf(event.getQuantity())));
+    }
+    
+    /** One order of {@code quantity} items worth {@code value} in total. */
+    public static WindowTotals of(long quantity, BigDecimal value) {
+        return new WindowTotals(1, quantity, value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+    
+    public WindowTotals plus(WindowTotals other) {
+        return new WindowTotals(orders + other.orders, quantity + other.quantity, valueCents + other.valueCents);
+    }
+    
+    public BigDecimal totalValue() {
+        return BigDecimal.valueOf(valueCents, 2);
+    }
+}
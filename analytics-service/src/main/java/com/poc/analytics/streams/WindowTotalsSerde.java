@@ -0,0 +1,36 @@
+package com.poc.analytics.streams;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed 24-byte encoding of {@link WindowTotals} for repartition topics,
+ * state stores and their changelogs.
+ */
+public class WindowTotalsSerde implements Serde<WindowTotals> {
+    
+    private static final int SIZE = 3 * Long.BYTES;
+    
+    @Override
+    public Serializer<WindowTotals> serializer() {
+        return (topic, totals) -> totals == null ? null : ByteBuffer.allocate(SIZE)
+                .putLong(totals.orders())
+                .putLong(totals.quantity())
+                .putLong(totals.valueCents())
+                .array();
+    }
+    
+    @Override
+    public Deserializer<WindowTotals> deserializer() {
+        return (topic, bytes) -> {
+            if (bytes == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new WindowTotals(buffer.getLong(), buffer.getLong(), buffer.getLong());
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.poc.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinTopKTest {
+    
+    private static final int KEYS = 20_000;
+    
+    @Test
+    void estimatesNeverUndercountAndStayWithinTheErrorBound() {
+        Map<String, Long> counts = new HashMap<>();
+        CountMinTopK sketch = new CountMinTopK();
+        feed(sketch, counts, new Random(42), 500_000);
+        
+        double maxError = CountMinTopK.EPSILON * sketch.total();
+        long withinBound = 0;
+        for (Map.Entry<String, Long> entry : counts.entrySet()) {
+            long estimate = sketch.estimate(entry.getKey());
+            assertThat(estimate).as(entry.getKey()).isGreaterThanOrEqualTo(entry.getValue());
+            if (estimate - entry.getValue() <= maxError) {
+                withinBound++;
+            }
+        }
+        assertThat((double) withinBound / counts.size()).isGreaterThanOrEqualTo(1 - CountMinTopK.DELTA);
+        assertThat(sketch.total()).isEqualTo(500_000);
+    }
+    
+    @Test
+    void topKeepsTheHeaviestKeysInOrder() {
+        CountMinTopK sketch = new CountMinTopK();
+        feed(sketch, new HashMap<>(), new Random(7), 200_000);
+        // Heavy hitters well above the noise, lightest first so they have to displace candidates
+        for (int heavy = 5; heavy >= 1; heavy--) {
+            for (int i = 0; i < heavy * 30_000; i++) {
+                sketch.add("heavy_" + heavy);
+            }
+        }
+        
+        List<Map.Entry<String, Long>> top = sketch.top(5);
+        
+        assertThat(top).extracting(Map.Entry::getKey)
+                .containsExactly("heavy_5", "heavy_4", "heavy_3", "heavy_2", "heavy_1");
+    }
+    
+    @Test
+    void mergeAddsCountersAndRanksTheUnion() {
+        CountMinTopK first = new CountMinTopK();
+        CountMinTopK second = new CountMinTopK();
+        CountMinTopK both = new CountMinTopK();
+        for (int i = 0; i < 30_000; i++) {
+            first.add("left");
+            both.add("left");
+        }
+        for (int i = 0; i < 40_000; i++) {
+            second.add("right");
+            both.add("right");
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 100_000; i++) {
+            String key = "product_" + random.nextInt(KEYS);
+            (i % 2 == 0 ? first : second).add(key);
+            both.add(key);
+        }
+        
+        first.merge(second);
+        
+        assertThat(first.total()).isEqualTo(both.total());
+        for (int i = 0; i < KEYS; i += 97) {
+            assertThat(first.estimate("product_" + i)).isEqualTo(both.estimate("product_" + i));
+        }
+        assertThat(first.top(2)).extracting(Map.Entry::getKey).containsExactly("right", "left");
+    }
+    
+    // Skewed stream: key i is drawn about 1 / (i + 1) as often as key 0
+    private static void feed(CountMinTopK sketch, Map<String, Long> counts, Random random, int events) {
+        double[] cumulative = new double[KEYS];
+        double sum = 0;
+        for (int i = 0; i < KEYS; i++) {
+            sum += 1.0 / (i + 1);
+            cumulative[i] = sum;
+        }
+        for (int e = 0; e < events; e++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            String key = "product_" + Math.min(KEYS - 1, index >= 0 ? index : -index - 1);
+            sketch.add(key);
+            counts.merge(key, 1L, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.poc.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+    
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 10_000, 100_000, 1_000_000})
+    void estimateIsWithinThreeStandardErrors(int distinct) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < distinct; i++) {
+            sketch.add("customer_" + i);
+        }
+        
+        assertThat((double) sketch.estimate())
+                .isCloseTo(distinct, within(3 * HyperLogLog.RELATIVE_STANDARD_ERROR * distinct + 1));
+    }
+    
+    @Test
+    void repeatedValuesCountOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 200; i++) {
+                sketch.add("customer_" + i);
+            }
+        }
+        
+        assertThat(sketch.estimate()).isBetween(196L, 204L);
+    }
+    
+    @Test
+    void mergeMatchesOneSketchFedBothStreams() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        for (int i = 0; i < 60_000; i++) {
+            first.add("customer_" + i);
+            both.add("customer_" + i);
+        }
+        // Overlaps the first half of the other stream
+        for (int i = 40_000; i < 100_000; i++) {
+            second.add("customer_" + i);
+            both.add("customer_" + i);
+        }
+        
+        first.merge(second);
+        
+        assertThat(first.estimate()).isEqualTo(both.estimate());
+        // Idempotent: merging the same sketch again changes nothing
+        first.merge(second);
+        assertThat(first.estimate()).isEqualTo(both.estimate());
+    }
+}
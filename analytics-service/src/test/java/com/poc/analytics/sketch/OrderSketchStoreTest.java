@@ -0,0 +1,116 @@
+package com.poc.analytics.sketch;
+
+import com.poc.analytics.entity.OrderAnalytics;
+import com.poc.analytics.entity.SketchSnapshot;
+import com.poc.analytics.entity.SketchSnapshot.Granularity;
+import com.poc.analytics.repository.SketchSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two instances sharing one {@code sketch_snapshot} table, backed by a map
+ * keyed like the table.
+ */
+class OrderSketchStoreTest {
+    
+    private final Map<SketchSnapshot.Key, SketchSnapshot> table = new ConcurrentHashMap<>();
+    private final SketchSnapshotRepository repository = mock(SketchSnapshotRepository.class);
+    private final LocalDateTime orderTime = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+    private final LocalDateTime hourStart = orderTime.truncatedTo(ChronoUnit.HOURS);
+    
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            Iterable<SketchSnapshot> snapshots = invocation.getArgument(0);
+            snapshots.forEach(snapshot -> table.put(new SketchSnapshot.Key(
+                    snapshot.getInstanceId(), snapshot.getGranularity(), snapshot.getBucketStart()), snapshot));
+            return snapshots;
+        }).when(repository).saveAll(any());
+        when(repository.findByInstanceIdAndGranularityAndBucketStartGreaterThanEqual(anyString(), any(), any()))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), invocation.getArgument(2), LocalDateTime.MAX)
+                        .filter(row -> row.getInstanceId().equals(invocation.getArgument(0)))
+                        .toList());
+        when(repository.findOtherInstances(anyString(), any(), any(), any()))
+                .thenAnswer(invocation -> rows(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3))
+                        .filter(row -> !row.getInstanceId().equals(invocation.getArgument(0)))
+                        .toList());
+    }
+    
+    @Test
+    void instancesKeepTheirOwnRowsAndQueriesMergeThem() {
+        OrderSketchStore first = store("analytics-1");
+        OrderSketchStore second = store("analytics-2");
+        record(first, 0, 10_000);
+        record(second, 10_000, 20_000);
+        
+        first.flush();
+        second.flush();
+        
+        assertThat(table.keySet()).filteredOn(key -> key.getGranularity() == Granularity.HOUR).hasSize(2);
+        for (OrderSketchStore store : List.of(first, second)) {
+            OrderSketch hour = store.hour(hourStart);
+            assertThat(hour.products().total()).isEqualTo(20_000);
+            assertThat((double) hour.customers().estimate())
+                    .isCloseTo(20_000, within(3 * HyperLogLog.RELATIVE_STANDARD_ERROR * 20_000));
+            assertThat(store.lastMinutes(orderTime, 5).products().total()).isEqualTo(20_000);
+        }
+    }
+    
+    @Test
+    void restartedInstanceLoadsOnlyItsOwnRows() {
+        OrderSketchStore first = store("analytics-1");
+        OrderSketchStore second = store("analytics-2");
+        record(first, 0, 3_000);
+        record(second, 3_000, 5_000);
+        first.flush();
+        second.flush();
+        
+        OrderSketchStore restarted = store("analytics-1");
+        record(restarted, 5_000, 6_000);
+        restarted.flush();
+        
+        // Counts add on merge, so loading the other instance's rows would double them
+        assertThat(restarted.hour(hourStart).products().total()).isEqualTo(6_000);
+        assertThat(second.hour(hourStart).products().total()).isEqualTo(6_000);
+    }
+    
+    private OrderSketchStore store(String instanceId) {
+        OrderSketchStore store = new OrderSketchStore(repository, instanceId, 60, 48);
+        store.load();
+        return store;
+    }
+    
+    private void record(OrderSketchStore store, int fromOrder, int toOrder) {
+        for (int i = fromOrder; i < toOrder; i++) {
+            OrderAnalytics analytics = new OrderAnalytics();
+            analytics.setOrderId("order-" + i);
+            analytics.setCustomerId("customer_" + i);
+            analytics.setProductId("product_" + (i % 50));
+            analytics.setOrderValue(BigDecimal.valueOf(10 + i % 90));
+            analytics.setOrderTimestamp(orderTime);
+            store.record(analytics);
+        }
+    }
+    
+    private Stream<SketchSnapshot> rows(Granularity granularity, LocalDateTime from, LocalDateTime to) {
+        return table.values().stream()
+                .filter(row -> row.getGranularity() == granularity)
+                .filter(row -> !row.getBucketStart().isBefore(from) && row.getBucketStart().isBefore(to));
+    }
+}
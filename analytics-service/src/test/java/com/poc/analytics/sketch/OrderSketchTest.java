@@ -0,0 +1,75 @@
+package com.poc.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderSketchTest {
+    
+    @Test
+    void serializationRoundTripKeepsEveryEstimate() {
+        OrderSketch sketch = sketch(0, 50_000);
+        
+        OrderSketch restored = OrderSketch.fromBytes(sketch.toBytes());
+        
+        assertSameEstimates(restored, sketch);
+        assertThat(restored.toBytes()).isEqualTo(sketch.toBytes());
+    }
+    
+    @Test
+    void mergeOfRoundTrippedPartsMatchesOneSketch() {
+        OrderSketch first = OrderSketch.fromBytes(sketch(0, 30_000).toBytes());
+        OrderSketch second = OrderSketch.fromBytes(sketch(30_000, 70_000).toBytes());
+        OrderSketch whole = sketch(0, 70_000);
+        
+        first.merge(second);
+        OrderSketch merged = first.copy();
+        
+        assertThat(merged.customers().estimate()).isEqualTo(whole.customers().estimate());
+        assertThat(merged.products().total()).isEqualTo(whole.products().total());
+        assertThat(merged.products().estimate("product_3")).isEqualTo(whole.products().estimate("product_3"));
+        assertThat(merged.products().top(1)).isEqualTo(whole.products().top(1));
+        assertThat(merged.orderValues().count()).isEqualTo(whole.orderValues().count());
+        assertThat(merged.orderValues().min()).isEqualTo(whole.orderValues().min());
+        assertThat(merged.orderValues().max()).isEqualTo(whole.orderValues().max());
+    }
+    
+    @Test
+    void takeIfDirtyReportsEachChangeOnce() {
+        OrderSketch sketch = new OrderSketch();
+        assertThat(sketch.takeIfDirty()).isNull();
+        
+        sketch.add("customer_1", "product_1", 10);
+        
+        assertThat(sketch.takeIfDirty()).isNotNull();
+        assertThat(sketch.takeIfDirty()).isNull();
+    }
+    
+    @Test
+    void rejectsUnknownFormatVersion() {
+        byte[] bytes = new OrderSketch().toBytes();
+        bytes[0] = 99;
+        
+        assertThatThrownBy(() -> OrderSketch.fromBytes(bytes))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version 99");
+    }
+    
+    static OrderSketch sketch(int fromOrder, int toOrder) {
+        OrderSketch sketch = new OrderSketch();
+        for (int i = fromOrder; i < toOrder; i++) {
+            sketch.add("customer_" + (i % 20_000), "product_" + (i % 7 == 0 ? 3 : i % 500), 5 + (i % 1_000) * 0.37);
+        }
+        return sketch;
+    }
+    
+    private static void assertSameEstimates(OrderSketch actual, OrderSketch expected) {
+        assertThat(actual.customers().estimate()).isEqualTo(expected.customers().estimate());
+        assertThat(actual.products().total()).isEqualTo(expected.products().total());
+        assertThat(actual.products().top(CountMinTopK.CAPACITY)).isEqualTo(expected.products().top(CountMinTopK.CAPACITY));
+        for (double q : new double[] {0, 0.1, 0.5, 0.9, 0.99, 1}) {
+            assertThat(actual.orderValues().quantile(q)).as("q=%s", q).isEqualTo(expected.orderValues().quantile(q));
+        }
+    }
+}
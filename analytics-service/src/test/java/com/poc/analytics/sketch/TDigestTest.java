@@ -0,0 +1,78 @@
+package com.poc.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TDigestTest {
+    
+    private static final int VALUES = 200_000;
+    
+    @Test
+    void quantilesStayWithinTheRankBounds() {
+        double[] values = orderValues(new Random(11), VALUES);
+        TDigest digest = new TDigest();
+        for (double value : values) {
+            digest.add(value);
+        }
+        
+        assertRankBounds(digest, values);
+    }
+    
+    @Test
+    void mergedDigestKeepsTheSameBounds() {
+        double[] values = orderValues(new Random(13), VALUES);
+        TDigest first = new TDigest();
+        TDigest second = new TDigest();
+        for (int i = 0; i < values.length; i++) {
+            (i < values.length / 3 ? first : second).add(values[i]);
+        }
+        
+        first.merge(second);
+        
+        assertRankBounds(first, values);
+    }
+    
+    @Test
+    void emptyDigestHasNoQuantiles() {
+        TDigest digest = new TDigest();
+        
+        assertThat(digest.quantile(0.5)).isNaN();
+        assertThat(digest.min()).isNaN();
+        assertThat(digest.count()).isZero();
+    }
+    
+    private static void assertRankBounds(TDigest digest, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        
+        assertThat(digest.count()).isEqualTo(values.length);
+        assertThat(digest.min()).isEqualTo(sorted[0]);
+        assertThat(digest.max()).isEqualTo(sorted[sorted.length - 1]);
+        assertThat(rank(sorted, digest.quantile(0.5))).isCloseTo(0.5, within(0.005));
+        assertThat(rank(sorted, digest.quantile(0.25))).isCloseTo(0.25, within(0.005));
+        assertThat(rank(sorted, digest.quantile(0.95))).isCloseTo(0.95, within(0.002));
+        assertThat(rank(sorted, digest.quantile(0.99))).isCloseTo(0.99, within(0.001));
+        assertThat(rank(sorted, digest.quantile(0.999))).isCloseTo(0.999, within(0.0002));
+    }
+    
+    // Fraction of values at or below the estimate
+    private static double rank(double[] sorted, double estimate) {
+        int index = Arrays.binarySearch(sorted, estimate);
+        int below = index >= 0 ? index + 1 : -index - 1;
+        return (double) below / sorted.length;
+    }
+    
+    // Long-tailed like order values: log-normal around $50, in cents
+    private static double[] orderValues(Random random, int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = Math.round(Math.exp(Math.log(50) + random.nextGaussian()) * 100) / 100.0;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,135 @@
+package com.poc.analytics.stats;
+
+import com.poc.analytics.repository.OrderAnalyticsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Window totals against the repository aggregates, with the repository
+ * answering from an in-memory order_analytics table.
+ */
+class RealTimeStatsWindowTest {
+    
+    private static final DateTimeFormatter MINUTE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
+    private final List<Row> table = new CopyOnWriteArrayList<>();
+    private final OrderAnalyticsRepository repository = mock(OrderAnalyticsRepository.class);
+    private final LocalDateTime now = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+    
+    @BeforeEach
+    void setUp() {
+        when(repository.countOrdersSince(any())).thenAnswer(invocation ->
+                (long) since(invocation.getArgument(0)).size());
+        when(repository.sumOrderValueSince(any())).thenAnswer(invocation -> {
+            List<Row> rows = since(invocation.getArgument(0));
+            return rows.isEmpty() ? null : rows.stream().map(Row::value).reduce(BigDecimal.ZERO, BigDecimal::add);
+        });
+        when(repository.sumOrdersByMinuteSince(any())).thenAnswer(invocation -> {
+            Map<String, Object[]> minutes = new TreeMap<>();
+            for (Row row : since(invocation.getArgument(0))) {
+                Object[] bucket = minutes.computeIfAbsent(row.timestamp().format(MINUTE_FORMATTER),
+                        minute -> new Object[] {minute, 0L, BigDecimal.ZERO});
+                bucket[1] = (Long) bucket[1] + 1;
+                bucket[2] = ((BigDecimal) bucket[2]).add(row.value());
+            }
+            return List.copyOf(minutes.values());
+        });
+    }
+    
+    @Test
+    void warmUpAndLiveOrdersMatchRepositoryAggregates() {
+        LocalDateTime hourStart = RealTimeStatsWindow.windowStart(now, 60);
+        LocalDateTime dayStart = RealTimeStatsWindow.windowStart(now, 24 * 60);
+        // Already in the table when the instance starts
+        insert(dayStart.minusSeconds(1), "1000.00");
+        insert(dayStart, "12.34");
+        insert(dayStart.plusSeconds(59), "0.01");
+        insert(now.minusHours(5), "99.99");
+        insert(hourStart.minusNanos(1), "7.50");
+        insert(hourStart, "20.00");
+        insert(now.minusMinutes(1), "3.33");
+        
+        RealTimeStatsWindow window = new RealTimeStatsWindow(repository, true);
+        window.warmUp(now);
+        
+        // Consumed after start-up, including a late one from before the day window
+        record(window, now.minusDays(2), "500.00");
+        record(window, dayStart, "1.11");
+        record(window, hourStart.minusSeconds(1), "2.22");
+        record(window, hourStart.plusSeconds(30), "4.44");
+        record(window, now, "5.55");
+        
+        assertMatchesRepository(window, 60);
+        assertMatchesRepository(window, 24 * 60);
+        assertThat(window.totalsSince(now, 60).orders()).isEqualTo(4);
+        assertThat(window.totalsSince(now, 24 * 60).orders()).isEqualTo(10);
+    }
+    
+    @Test
+    void sharedSubscriptionAnswersFromTheRepository() {
+        insert(now.minusMinutes(30), "10.00");
+        insert(now.minusHours(3), "20.00");
+        
+        RealTimeStatsWindow window = new RealTimeStatsWindow(repository, false);
+        window.warmUp(now);
+        // Another instance consumed this one; only the table has it
+        insert(now.minusMinutes(2), "30.00");
+        // Counted in memory this would be added twice
+        record(window, now.minusMinutes(1), "40.00");
+        
+        verify(repository, never()).sumOrdersByMinuteSince(any());
+        assertMatchesRepository(window, 60);
+        assertMatchesRepository(window, 24 * 60);
+        assertThat(window.totalsSince(now, 60).orders()).isEqualTo(3);
+    }
+    
+    @Test
+    void emptyTableGivesZeroTotals() {
+        RealTimeStatsWindow shared = new RealTimeStatsWindow(repository, false);
+        assertThat(shared.totalsSince(now, 60).orders()).isZero();
+        assertThat(shared.totalsSince(now, 60).revenue()).isEqualByComparingTo(BigDecimal.ZERO);
+        
+        RealTimeStatsWindow single = new RealTimeStatsWindow(repository, true);
+        single.warmUp(now);
+        assertThat(single.totalsSince(now, 60).orders()).isZero();
+        assertThat(single.totalsSince(now, 60).revenue()).isEqualByComparingTo(BigDecimal.ZERO);
+    }
+    
+    private void assertMatchesRepository(RealTimeStatsWindow window, int minutes) {
+        LocalDateTime start = RealTimeStatsWindow.windowStart(now, minutes);
+        RealTimeStatsWindow.Totals totals = window.totalsSince(now, minutes);
+        assertThat(totals.orders()).isEqualTo(repository.countOrdersSince(start));
+        assertThat(totals.revenue()).isEqualByComparingTo(repository.sumOrderValueSince(start));
+    }
+    
+    private void record(RealTimeStatsWindow window, LocalDateTime timestamp, String value) {
+        insert(timestamp, value);
+        window.record(timestamp, new BigDecimal(value));
+    }
+    
+    private void insert(LocalDateTime timestamp, String value) {
+        table.add(new Row(timestamp, new BigDecimal(value)));
+    }
+    
+    private List<Row> since(LocalDateTime start) {
+        return table.stream().filter(row -> !row.timestamp().isBefore(start)).toList();
+    }
+    
+    private record Row(LocalDateTime timestamp, BigDecimal value) {
+    }
+}
@@ -0,0 +1,135 @@
+package com.poc.analytics.streams;
+
+import com.poc.shared.codec.BinaryEventCodec;
+import com.poc.shared.codec.OrderEventReader;
+import com.poc.shared.config.EventSerializationConfig;
+import com.poc.shared.events.OrderCreatedEvent;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@link OrderWindowTopology} with a five minute grace, fed through
+ * {@link OrderEventSerde} in both directions.
+ */
+class OrderWindowTopologyTest {
+    
+    private static final String TOPIC = "order-events";
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 10, 17, 0, 0);
+    
+    private final AtomicInteger orderIds = new AtomicInteger();
+    private final OrderEventSerde serde = new OrderEventSerde(
+            new OrderEventReader(new EventSerializationConfig().eventObjectMapper(), new BinaryEventCodec()),
+            new BinaryEventCodec());
+    
+    @TempDir
+    Path stateDir;
+    
+    private TopologyTestDriver driver;
+    private TestInputTopic<byte[], OrderCreatedEvent> orders;
+    
+    @BeforeEach
+    void setUp() {
+        Properties config = new Properties();
+        config.put(StreamsConfig.APPLICATION_ID_CONFIG, "order-windows-test");
+        config.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
+        config.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.toString());
+        OrderWindowTopology topology = new OrderWindowTopology(Duration.ofMinutes(5), Duration.ofHours(48), Duration.ofDays(35));
+        driver = new TopologyTestDriver(topology.topology(TOPIC, serde), config);
+        orders = driver.createInputTopic(TOPIC, new ByteArraySerializer(), serde.serializer());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        driver.close();
+    }
+    
+    @Test
+    void sumsOrdersIntoHourlyAndDailyWindowsByProductAndCustomer() {
+        order("customer-1", "laptop", 1, "999.99", DAY.plusHours(10).plusMinutes(5));
+        order("customer-2", "laptop", 2, "999.99", DAY.plusHours(10).plusMinutes(55));
+        order("customer-1", "mouse", 3, "19.50", DAY.plusHours(11).plusMinutes(1));
+        
+        assertThat(hourly(OrderWindowTopology.PRODUCT_HOURLY_STORE, "laptop", DAY.plusHours(10)))
+                .isEqualTo(new WindowTotals(2, 3, 299_997));
+        assertThat(hourly(OrderWindowTopology.PRODUCT_HOURLY_STORE, "laptop", DAY.plusHours(11))).isNull();
+        assertThat(daily(OrderWindowTopology.PRODUCT_DAILY_STORE, "mouse")).isEqualTo(new WindowTotals(1, 3, 5_850));
+        assertThat(hourly(OrderWindowTopology.CUSTOMER_HOURLY_STORE, "customer-1", DAY.plusHours(11)))
+                .isEqualTo(new WindowTotals(1, 3, 5_850));
+        assertThat(daily(OrderWindowTopology.CUSTOMER_DAILY_STORE, "customer-1")).isEqualTo(new WindowTotals(2, 4, 105_849));
+    }
+    
+    @Test
+    void lateOrderWithinGraceIsCounted() {
+        order("customer-1", "laptop", 1, "10.00", DAY.plusHours(10).plusMinutes(30));
+        order("customer-1", "laptop", 1, "10.00", DAY.plusHours(11).plusMinutes(4));
+        
+        // Stream time is 11:04, the 10:00 window closes at 11:05
+        order("customer-2", "laptop", 1, "10.00", DAY.plusHours(10).plusMinutes(59));
+        
+        assertThat(hourly(OrderWindowTopology.PRODUCT_HOURLY_STORE, "laptop", DAY.plusHours(10)))
+                .isEqualTo(new WindowTotals(2, 2, 2_000));
+    }
+    
+    @Test
+    void orderAfterGraceIsDroppedFromTheClosedHourButNotFromTheDay() {
+        order("customer-1", "laptop", 1, "10.00", DAY.plusHours(10).plusMinutes(30));
+        order("customer-1", "laptop", 1, "10.00", DAY.plusHours(11).plusMinutes(6));
+        
+        // Stream time is 11:06, past the 10:00 window's end plus grace
+        order("customer-2", "laptop", 1, "10.00", DAY.plusHours(10).plusMinutes(59));
+        
+        assertThat(hourly(OrderWindowTopology.PRODUCT_HOURLY_STORE, "laptop", DAY.plusHours(10)))
+                .isEqualTo(new WindowTotals(1, 1, 1_000));
+        assertThat(hourly(OrderWindowTopology.CUSTOMER_HOURLY_STORE, "customer-2", DAY.plusHours(10))).isNull();
+        assertThat(daily(OrderWindowTopology.PRODUCT_DAILY_STORE, "laptop")).isEqualTo(new WindowTotals(3, 3, 3_000));
+    }
+    
+    @Test
+    void serdeRoundTripsTheFieldsTheTopologyReads() {
+        OrderCreatedEvent event = event("customer-1", "laptop", 2, "12.34", DAY.plusHours(9));
+        
+        OrderCreatedEvent read = serde.deserializer().deserialize(TOPIC, serde.serializer().serialize(TOPIC, event));
+        
+        assertThat(read.getCustomerId()).isEqualTo("customer-1");
+        assertThat(read.getProductId()).isEqualTo("laptop");
+        assertThat(read.getQuantity()).isEqualTo(2);
+        assertThat(read.getPrice()).isEqualByComparingTo("12.34");
+        assertThat(read.getOrderTimestamp()).isEqualTo(DAY.plusHours(9));
+        assertThat(serde.serializer().serialize(TOPIC, null)).isNull();
+    }
+    
+    private void order(String customerId, String productId, int quantity, String price, LocalDateTime orderTime) {
+        orders.pipeInput(null, event(customerId, productId, quantity, price, orderTime));
+    }
+    
+    private OrderCreatedEvent event(String customerId, String productId, int quantity, String price, LocalDateTime orderTime) {
+        return new OrderCreatedEvent("order-" + orderIds.incrementAndGet(), customerId, productId, quantity,
+                new BigDecimal(price), orderTime, "CREATED");
+    }
+    
+    private WindowTotals hourly(String store, String key, LocalDateTime hourStart) {
+        WindowStore<String, WindowTotals> windows = driver.getWindowStore(store);
+        return windows.fetch(key, OrderWindowTopology.toEpochMillis(hourStart));
+    }
+    
+    private WindowTotals daily(String store, String key) {
+        WindowStore<String, WindowTotals> windows = driver.getWindowStore(store);
+        return windows.fetch(key, OrderWindowTopology.toEpochMillis(DAY));
+    }
+}
@@ -0,0 +1,116 @@
+package com.poc.analytics.columnar;
+
+import com.poc.analytics.entity.OrderAnalytics;
+import com.poc.analytics.repository.OrderAnalyticsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Columnar store scans against the same queries over materialized
+ * {@link OrderAnalytics} entities, which is what the JPA path hands the
+ * service after its round trip; the database time itself is not included.
+ * Setup prints the store's bytes per row.
+ */
+@State(Scope.Benchmark)
+public class ColumnarOrderStoreBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private ColumnarOrderStore parallelStore;
+    private ColumnarOrderStore serialStore;
+    private List<OrderAnalytics> entities;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String customerId;
+
+    @Setup
+    public void setUp() {
+        parallelStore = newStore(65_536);
+        serialStore = newStore(Integer.MAX_VALUE);
+        entities = new ArrayList<>(rows);
+
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime dayStart = LocalDate.now().atStartOfDay();
+        for (int i = 0; i < rows; i++) {
+            LocalDateTime orderTime = dayStart.plusNanos(i * (86_000_000_000_000L / rows));
+            OrderAnalytics analytics = new OrderAnalytics();
+            analytics.setId((long) i + 1);
+            analytics.setOrderId(UUID.randomUUID().toString());
+            analytics.setCustomerId("customer_" + random.nextInt(50_000));
+            analytics.setProductId("product_" + random.nextInt(500));
+            analytics.setQuantity(1 + random.nextInt(5));
+            analytics.setOrderValue(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            analytics.setOrderTimestamp(orderTime);
+            analytics.setProcessedTimestamp(orderTime.plusSeconds(1));
+            analytics.setHourBucket(String.format("%tY-%<tm-%<td-%<tH", orderTime));
+            analytics.setDayBucket(String.format("%tY-%<tm-%<td", orderTime));
+            entities.add(analytics);
+            parallelStore.add(analytics);
+            serialStore.add(analytics);
+        }
+        from = dayStart.plusHours(2);
+        to = dayStart.plusHours(20);
+        customerId = "customer_4242";
+
+        System.out.printf("%ncolumnar store: %d rows, %d bytes per row%n",
+                parallelStore.rows(), parallelStore.memoryBytes() / parallelStore.rows());
+    }
+
+    @Benchmark
+    public List<Object[]> columnarProductTotalsParallel() {
+        return parallelStore.productTotals(from, to);
+    }
+
+    @Benchmark
+    public List<Object[]> columnarProductTotalsSerial() {
+        return serialStore.productTotals(from, to);
+    }
+
+    @Benchmark
+    public Map<String, Long> entityProductTotals() {
+        return entities.stream()
+                .filter(analytics -> !analytics.getOrderTimestamp().isBefore(from) && analytics.getOrderTimestamp().isBefore(to))
+                .collect(Collectors.groupingBy(OrderAnalytics::getProductId, Collectors.counting()));
+    }
+
+    @Benchmark
+    public List<OrderAnalytics> columnarCustomerPage() {
+        return parallelStore.customerOrders(customerId, null, 101);
+    }
+
+    @Benchmark
+    public List<OrderAnalytics> entityCustomerPage() {
+        return entities.stream()
+                .filter(analytics -> analytics.getCustomerId().equals(customerId))
+                .sorted(Comparator.comparing(OrderAnalytics::getOrderTimestamp)
+                        .thenComparing(OrderAnalytics::getId).reversed())
+                .limit(101)
+                .toList();
+    }
+
+    private ColumnarOrderStore newStore(int parallelScanRows) {
+        // Nothing to warm up from
+        OrderAnalyticsRepository repository = (OrderAnalyticsRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {OrderAnalyticsRepository.class}, (proxy, method, args) -> null);
+        ColumnarOrderStore store = new ColumnarOrderStore(repository, new SimpleMeterRegistry(), true, true, 2, parallelScanRows);
+        store.warmUp();
+        return store;
+    }
+}
@@ -0,0 +1,39 @@
+package com.poc.analytics.service;
+
+import com.poc.analytics.entity.OrderAnalytics;
+import com.poc.shared.events.OrderCreatedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Per-event analytics derivation: hour/day bucket formatting and the
+ * order-value multiplication, as done for every ingested order.
+ */
+@State(Scope.Thread)
+public class AnalyticsBucketBenchmark {
+    
+    private OrderCreatedEvent event;
+    private LocalDateTime processedAt;
+    
+    @Setup
+    public void setUp() {
+        event = new OrderCreatedEvent("01a14c20-aaf0-717e-820f-9e8bed65e28c", "customer_4242", "laptop", 3,
+                new BigDecimal("899.99"), LocalDateTime.of(2026, 10, 17, 14, 30, 15), "CREATED");
+        processedAt = LocalDateTime.of(2026, 10, 17, 14, 30, 16);
+    }
+    
+    @Benchmark
+    public OrderAnalytics toAnalytics() {
+        return AnalyticsService.toAnalytics(event, processedAt);
+    }
+    
+    @Benchmark
+    public BigDecimal orderValue() {
+        return event.getPrice().multiply(BigDecimal.valueOf(event.getQuantity()));
+    }
+}
@@ -0,0 +1,38 @@
+package com.poc.inventory.entity;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+
+/**
+ * {@link Inventory#canReserve} and {@link Inventory#reserveQuantity}. Stock
+ * is refilled when it runs low so every call takes the success path.
+ */
+@State(Scope.Thread)
+public class InventoryReserveBenchmark {
+    
+    private Inventory inventory;
+    
+    @Setup
+    public void setUp() {
+        inventory = new Inventory("laptop", Integer.MAX_VALUE, 0, LocalDateTime.now(), 0L);
+    }
+    
+    @Benchmark
+    public boolean canReserve() {
+        return inventory.canReserve(3);
+    }
+    
+    @Benchmark
+    public Integer reserveQuantity() {
+        if (inventory.getAvailableQuantity() < 3) {
+            inventory.setAvailableQuantity(Integer.MAX_VALUE);
+            inventory.setReservedQuantity(0);
+        }
+        inventory.reserveQuantity(3);
+        return inventory.getAvailableQuantity();
+    }
+}
@@ -0,0 +1,47 @@
+package com.poc.notification.template;
+
+import com.poc.shared.events.OrderCreatedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.io.ClassPathResource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Notification message building: the compiled templates NotificationService
+ * uses, next to the String.format calls they replaced.
+ */
+@State(Scope.Thread)
+public class NotificationMessageBenchmark {
+    
+    private TemplateRegistry templateRegistry;
+    private OrderCreatedEvent event;
+    
+    @Setup
+    public void setUp() {
+        templateRegistry = new TemplateRegistry(new ClassPathResource("notification-templates.properties"));
+        event = new OrderCreatedEvent("01a14c20-aaf0-717e-820f-9e8bed65e28c", "customer_4242", "laptop", 3,
+                new BigDecimal("899.99"), LocalDateTime.of(2026, 10, 17, 14, 30, 15), "CREATED");
+    }
+    
+    @Benchmark
+    public String emailTemplate() {
+        return templateRegistry.render("order-confirmation", event);
+    }
+    
+    @Benchmark
+    public String pushTemplate() {
+        return templateRegistry.render("order-push", event);
+    }
+    
+    @Benchmark
+    public String emailStringFormat() {
+        return String.format(
+            "Your order %s has been created successfully! " +
+            "Product: %s, Quantity: %s, Total: $%.2f",
+            event.getOrderId(), event.getProductId(), event.getQuantity(), event.getPrice());
+    }
+}
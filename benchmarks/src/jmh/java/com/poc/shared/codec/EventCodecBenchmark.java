@@ -0,0 +1,70 @@
+package com.poc.shared.codec;
+
+import com.poc.shared.config.EventSerializationConfig;
+import com.poc.shared.events.AnalyticsEvent;
+import com.poc.shared.events.InventoryUpdateEvent;
+import com.poc.shared.events.NotificationEvent;
+import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.utils.EventUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * {@link EventUtils#serialize}/{@link EventUtils#deserialize} for every event
+ * class, in both wire formats.
+ */
+@State(Scope.Thread)
+public class EventCodecBenchmark {
+    
+    @Param({"OrderCreatedEvent", "InventoryUpdateEvent", "NotificationEvent", "AnalyticsEvent"})
+    public String eventType;
+    
+    @Param({EventContentTypes.JSON, EventContentTypes.BINARY})
+    public String contentType;
+    
+    private EventUtils eventUtils;
+    private Object event;
+    private Class<?> eventClass;
+    private byte[] payload;
+    
+    @Setup
+    public void setUp() {
+        eventUtils = new EventUtils(new EventSerializationConfig().eventObjectMapper(), new BinaryEventCodec());
+        LocalDateTime now = LocalDateTime.of(2026, 10, 17, 14, 30, 15);
+        String orderId = "01a14c20-aaf0-717e-820f-9e8bed65e28c";
+        
+        event = switch (eventType) {
+            case "OrderCreatedEvent" -> new OrderCreatedEvent(
+                    orderId, "customer_4242", "laptop", 3, new BigDecimal("899.99"), now, "CREATED");
+            case "InventoryUpdateEvent" -> new InventoryUpdateEvent(
+                    orderId, "laptop", 3, 97, true, now, null);
+            case "NotificationEvent" -> new NotificationEvent(
+                    orderId, "customer_4242", "EMAIL", 
+                    "Your order " + orderId + " has been created successfully! Product: laptop, Quantity: 3, Total: $899.99",
+                    "customer_4242@example.com", now, "order-confirmation");
+            case "AnalyticsEvent" -> new AnalyticsEvent(
+                    "evt-1", "ORDER_CREATED", orderId, "customer_4242", "laptop", new BigDecimal("2699.97"), now,
+                    Map.of("quantity", 3, "channel", "web"));
+            default -> throw new IllegalArgumentException(eventType);
+        };
+        eventClass = event.getClass();
+        payload = eventUtils.serialize(event, contentType);
+    }
+    
+    @Benchmark
+    public byte[] serialize() {
+        return eventUtils.serialize(event, contentType);
+    }
+    
+    @Benchmark
+    public Object deserialize() {
+        return eventUtils.deserialize(payload, contentType, eventClass);
+    }
+}
@@ -0,0 +1,85 @@
+package com.poc.benchmarks.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.messaging.Message;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers order events to one consumer service, standing in for its broker
+ * subscription: one unbounded queue and one listener thread per consumer
+ * group, so a slow consumer backs up only its own queue, as it would behind
+ * a real broker. The test binder invokes the consumer on the sending thread,
+ * so the send returning is the consumer's completion.
+ */
+@Slf4j
+final class ConsumerLane implements Runnable {
+
+    static final String DESTINATION = "order-events";
+
+    final Stage stage;
+    private final InputDestination input;
+    private final PipelineRun run;
+    private final BlockingQueue<Message<byte[]>> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong failures = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    ConsumerLane(String name, InputDestination input, PipelineRun run) {
+        this.stage = new Stage(name);
+        this.input = input;
+        this.run = run;
+        this.thread = new Thread(this, "pipeline-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void offer(Message<byte[]> message) {
+        queue.add(message);
+    }
+
+    int backlog() {
+        return queue.size();
+    }
+
+    long failures() {
+        return failures.get();
+    }
+
+    @Override
+    public void run() {
+        while (running || !queue.isEmpty()) {
+            Message<byte[]> message;
+            try {
+                message = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (message == null) {
+                continue;
+            }
+            int seq = message.getHeaders().get(EventForwarder.SEQUENCE_HEADER, Integer.class);
+            try {
+                input.send(message, DESTINATION);
+            } catch (RuntimeException e) {
+                // Failed events still complete, the report counts them separately
+                failures.incrementAndGet();
+                log.debug("{} failed event {}", stage.name, seq, e);
+            }
+            run.completed(stage, seq, System.nanoTime());
+        }
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,62 @@
+package com.poc.benchmarks.pipeline;
+
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+
+/**
+ * Fans messages published on the order service's output binding out to every
+ * consumer lane, like a topic with one subscription per consumer group.
+ *
+ * <p>The driver publishes from a single thread and the output destination is
+ * a FIFO queue, so the n-th message received is the n-th event sent. Each
+ * message is stamped with that sequence number for the lanes to report on.
+ */
+final class EventForwarder implements Runnable {
+
+    static final String SEQUENCE_HEADER = "pipeline-seq";
+
+    private final OutputDestination output;
+    private final List<ConsumerLane> lanes;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private int nextSeq;
+
+    EventForwarder(OutputDestination output, List<ConsumerLane> lanes) {
+        this.output = output;
+        this.lanes = lanes;
+        this.thread = new Thread(this, "pipeline-forwarder");
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    int forwarded() {
+        return nextSeq;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            Message<byte[]> published = output.receive(100, ConsumerLane.DESTINATION);
+            if (published == null) {
+                continue;
+            }
+            Message<byte[]> message = MessageBuilder.fromMessage(published)
+                .setHeader(SEQUENCE_HEADER, nextSeq++)
+                .build();
+            for (ConsumerLane lane : lanes) {
+                lane.offer(message);
+            }
+        }
+    }
+
+    void stop() throws InterruptedException {
+        running = false;
+        thread.join();
+    }
+}
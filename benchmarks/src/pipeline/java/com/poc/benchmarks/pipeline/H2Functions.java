@@ -0,0 +1,51 @@
+package com.poc.benchmarks.pipeline;
+
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * MySQL functions the services' native queries use that H2's MySQL mode
+ * lacks, registered as aliases by {@code pipeline/h2-functions.sql}.
+ */
+public final class H2Functions {
+
+    private H2Functions() {
+    }
+
+    /** Subset of MySQL DATE_FORMAT: %Y %m %d %H %i %s. */
+    public static String dateFormat(Timestamp timestamp, String format) {
+        if (timestamp == null) {
+            return null;
+        }
+        StringBuilder pattern = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < format.length(); i++) {
+            char c = format.charAt(i);
+            if (c != '%' || i + 1 == format.length()) {
+                literal.append(c);
+                continue;
+            }
+            appendLiteral(pattern, literal);
+            char specifier = format.charAt(++i);
+            pattern.append(switch (specifier) {
+                case 'Y' -> "yyyy";
+                case 'm' -> "MM";
+                case 'd' -> "dd";
+                case 'H' -> "HH";
+                case 'i' -> "mm";
+                case 's' -> "ss";
+                default -> throw new IllegalArgumentException("Unsupported DATE_FORMAT specifier %" + specifier);
+            });
+        }
+        appendLiteral(pattern, literal);
+        return DateTimeFormatter.ofPattern(pattern.toString()).format(timestamp.toLocalDateTime());
+    }
+
+    /** Quotes literal text so DateTimeFormatter does not read its letters as fields. */
+    private static void appendLiteral(StringBuilder pattern, StringBuilder literal) {
+        if (literal.length() > 0) {
+            pattern.append('\'').append(literal.toString().replace("'", "''")).append('\'');
+            literal.setLength(0);
+        }
+    }
+}
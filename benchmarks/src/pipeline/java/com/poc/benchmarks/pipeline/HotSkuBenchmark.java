@@ -0,0 +1,115 @@
+package com.poc.benchmarks.pipeline;
+
+import com.poc.inventory.InventoryServiceApplication;
+import com.poc.inventory.entity.Inventory;
+import com.poc.inventory.repository.InventoryRepository;
+import com.poc.inventory.reservation.InventoryReserver;
+import com.poc.inventory.service.InventoryService;
+import com.poc.shared.events.InventoryUpdateEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hot-SKU reservation benchmark: {@code pipeline.hot-sku.threads} callers
+ * reserve one unit each of a single product in a closed loop, straight
+ * against the inventory service's {@link InventoryReserver}, so every
+ * reservation contends for the same row.
+ *
+ * <p>Run it once per {@code inventory.reservation.mode} to compare them:
+ * <pre>
+ * ./gradlew :benchmarks:hotSku -Pinventory.reservation.mode=engine
+ * </pre>
+ * After the run the inventory row is checked against the reservations the
+ * callers saw succeed, so lost or doubled updates fail the run.
+ */
+@Slf4j
+public final class HotSkuBenchmark {
+
+    private static final String PRODUCT_ID = "HOT-SKU";
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private HotSkuBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("pipeline.hot-sku.threads", 32);
+        int stock = Integer.getInteger("pipeline.hot-sku.stock", 1_000_000_000);
+        int warmupSeconds = Integer.getInteger("pipeline.warmup-seconds", 10);
+        int durationSeconds = Integer.getInteger("pipeline.duration-seconds", 30);
+
+        try (ConfigurableApplicationContext inventory = PipelineBenchmark.start(InventoryServiceApplication.class, "inventory-service")) {
+            inventory.getBean(InventoryService.class).initializeInventory(PRODUCT_ID, stock);
+            InventoryReserver reserver = inventory.getBean(InventoryReserver.class);
+            String mode = inventory.getEnvironment().getProperty("inventory.reservation.mode", "entity");
+
+            log.info("Reserving {} with {} threads in {} mode for {}s warm-up and {}s measurement",
+                    PRODUCT_ID, threads, mode, warmupSeconds, durationSeconds);
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+            AtomicInteger orderIds = new AtomicInteger();
+            AtomicLong reserved = new AtomicLong();
+            AtomicLong rejected = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            List<Histogram> histograms = new ArrayList<>(threads);
+            List<Thread> callers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                Histogram histogram = new Histogram(HIGHEST_MICROS, 3);
+                histograms.add(histogram);
+                callers.add(new Thread(() -> {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        String orderId = "hot-" + orderIds.getAndIncrement();
+                        try {
+                            InventoryUpdateEvent outcome = reserver.reserve(orderId, PRODUCT_ID, 1);
+                            (outcome != null && outcome.getInventoryReserved() ? reserved : rejected).incrementAndGet();
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                            log.debug("Reservation {} failed", orderId, e);
+                        }
+                        long completed = System.nanoTime();
+                        if (now >= measureFrom) {
+                            histogram.recordValue(Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(completed - now)));
+                        }
+                    }
+                }, "hot-sku-" + t));
+            }
+            callers.forEach(Thread::start);
+            for (Thread caller : callers) {
+                caller.join();
+            }
+
+            Histogram latency = new Histogram(HIGHEST_MICROS, 3);
+            histograms.forEach(latency::add);
+            Inventory row = inventory.getBean(InventoryRepository.class).findById(PRODUCT_ID).orElseThrow();
+            boolean consistent = row.getReservedQuantity() == reserved.get()
+                    && row.getAvailableQuantity() == stock - reserved.get();
+
+            System.out.printf(Locale.ROOT, "%nHot SKU: %d threads, %s mode, %ds after %ds warm-up%n",
+                    threads, mode, durationSeconds, warmupSeconds);
+            System.out.printf(Locale.ROOT, "Measured reservations: %d (%.0f/s)%n",
+                    latency.getTotalCount(), latency.getTotalCount() / (double) durationSeconds);
+            System.out.printf(Locale.ROOT, "Whole run: %d reserved, %d rejected, %d failed%n",
+                    reserved.get(), rejected.get(), failed.get());
+            System.out.printf(Locale.ROOT, "Latency ms: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                    latency.getValueAtPercentile(50) / 1_000.0, latency.getValueAtPercentile(90) / 1_000.0,
+                    latency.getValueAtPercentile(99) / 1_000.0, latency.getValueAtPercentile(99.9) / 1_000.0,
+                    latency.getMaxValue() / 1_000.0);
+            System.out.printf(Locale.ROOT, "Inventory row: %d available, %d reserved (%s)%n",
+                    row.getAvailableQuantity(), row.getReservedQuantity(),
+                    consistent ? "matches the callers" : "DOES NOT match the callers");
+            if (!consistent) {
+                throw new IllegalStateException("Inventory row does not match the reservations the callers saw");
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.poc.benchmarks.pipeline;
+
+import com.poc.shared.id.UuidV7Generator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Insert throughput of the orders table shape under different primary keys:
+ * UUIDv7 and random UUIDv4 as {@code BINARY(16)}, and random UUIDv4 as
+ * {@code VARCHAR(36)}, the layout before time-ordered ids. Each key type fills
+ * its own table with {@code pipeline.id-insert.rows} rows from
+ * {@code pipeline.id-insert.threads} writers in batched transactions.
+ *
+ * <p>Throughput is reported per segment of rows as the table grows. Random
+ * keys only fall behind once the primary key index outgrows the buffer pool,
+ * so the comparison needs tens of millions of rows against MySQL:
+ * <pre>
+ * ./gradlew :benchmarks:idInsert -Ppipeline.id-insert.rows=50000000
+ * ./gradlew :benchmarks:idInsert -Ppipeline.id-insert.keys=v7,v4
+ * </pre>
+ * The default URL is the order database of docker-compose's MySQL.
+ */
+@Slf4j
+public final class IdInsertBenchmark {
+
+    private static final String INSERT = "INSERT INTO %s (order_id, customer_id, product_id, quantity, price, status, created_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private IdInsertBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("pipeline.id-insert.jdbc-url",
+                "jdbc:mysql://localhost:3306/order_db?rewriteBatchedStatements=true");
+        String user = System.getProperty("pipeline.id-insert.user", "root");
+        String password = System.getProperty("pipeline.id-insert.password", "password");
+        long rows = Long.getLong("pipeline.id-insert.rows", 20_000_000L);
+        long segmentRows = Long.getLong("pipeline.id-insert.segment-rows", 1_000_000L);
+        int threads = Integer.getInteger("pipeline.id-insert.threads", 8);
+        int batchSize = Integer.getInteger("pipeline.id-insert.batch-size", 500);
+        boolean keepTables = Boolean.getBoolean("pipeline.id-insert.keep-tables");
+        String[] keys = System.getProperty("pipeline.id-insert.keys", "v7,v4,v4-varchar").split(",");
+
+        List<String> summaries = new ArrayList<>();
+        for (String key : keys) {
+            KeyType keyType = KeyType.of(key.trim());
+            String table = "id_insert_" + keyType.name().toLowerCase(Locale.ROOT);
+            try (Connection connection = DriverManager.getConnection(url, user, password);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS " + table);
+                statement.execute("CREATE TABLE " + table + " (order_id " + keyType.columnType + " NOT NULL PRIMARY KEY, "
+                        + "customer_id VARCHAR(255) NOT NULL, product_id VARCHAR(255) NOT NULL, quantity INT NOT NULL, "
+                        + "price DECIMAL(10,2) NOT NULL, status VARCHAR(32) NOT NULL, created_at DATETIME(6) NOT NULL)");
+            }
+
+            log.info("Inserting {} rows keyed by {} into {} with {} writers, batches of {}",
+                    rows, keyType.label, table, threads, batchSize);
+            System.out.printf(Locale.ROOT, "%n%s: %d rows, %d writers, batches of %d%n", keyType.label, rows, threads, batchSize);
+            AtomicLong claimed = new AtomicLong();
+            AtomicLong inserted = new AtomicLong();
+            Supplier<Object> ids = keyType.ids();
+            long start = System.nanoTime();
+            List<Thread> writers = new ArrayList<>(threads);
+            List<Throwable> failures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(new Thread(() -> {
+                    try (Connection connection = DriverManager.getConnection(url, user, password);
+                         PreparedStatement insert = connection.prepareStatement(String.format(INSERT, table))) {
+                        connection.setAutoCommit(false);
+                        long from;
+                        while ((from = claimed.getAndAdd(batchSize)) < rows) {
+                            int count = (int) Math.min(batchSize, rows - from);
+                            for (int i = 0; i < count; i++) {
+                                bind(insert, ids.get());
+                                insert.addBatch();
+                            }
+                            insert.executeBatch();
+                            connection.commit();
+                            inserted.addAndGet(count);
+                        }
+                    } catch (SQLException | RuntimeException e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }, "id-insert-" + t));
+            }
+            writers.forEach(Thread::start);
+
+            // Segment rates show how throughput holds up as the index grows
+            long segmentEnd = segmentRows;
+            long segmentStart = start;
+            while (writers.stream().anyMatch(Thread::isAlive)) {
+                Thread.sleep(100);
+                long done = inserted.get();
+                while (done >= segmentEnd && segmentEnd <= rows) {
+                    long now = System.nanoTime();
+                    System.out.printf(Locale.ROOT, "  rows %,d-%,d: %.0f rows/s%n",
+                            segmentEnd - segmentRows, segmentEnd, segmentRows / seconds(now - segmentStart));
+                    segmentStart = now;
+                    segmentEnd += segmentRows;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (!failures.isEmpty()) {
+                throw new IllegalStateException("Insert into " + table + " failed", failures.get(0));
+            }
+
+            String summary = String.format(Locale.ROOT, "%-22s %,d rows in %.1fs, %.0f rows/s, %s",
+                    keyType.label, inserted.get(), seconds(elapsed), inserted.get() / seconds(elapsed),
+                    tableSize(url, user, password, table));
+            System.out.println(summary);
+            summaries.add(summary);
+
+            if (!keepTables) {
+                try (Connection connection = DriverManager.getConnection(url, user, password);
+                     Statement statement = connection.createStatement()) {
+                    statement.execute("DROP TABLE " + table);
+                }
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%nId insert comparison%n");
+        summaries.forEach(System.out::println);
+    }
+
+    private static void bind(PreparedStatement insert, Object id) throws SQLException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        insert.setObject(1, id);
+        insert.setString(2, "customer-" + random.nextInt(100_000));
+        insert.setString(3, "product-" + random.nextInt(1_000));
+        insert.setInt(4, 1 + random.nextInt(5));
+        insert.setBigDecimal(5, BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+        insert.setString(6, "PENDING");
+        insert.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+    }
+
+    // Data and index size where the database reports it (MySQL), else n/a
+    private static String tableSize(String url, String user, String password, String table) {
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE TABLE " + table);
+            try (ResultSet size = statement.executeQuery("SELECT data_length, index_length FROM information_schema.tables "
+                    + "WHERE table_schema = DATABASE() AND table_name = '" + table + "'")) {
+                if (size.next()) {
+                    return String.format(Locale.ROOT, "%.0f MB data, %.0f MB secondary indexes",
+                            size.getLong(1) / 1048576.0, size.getLong(2) / 1048576.0);
+                }
+            }
+        } catch (SQLException e) {
+            log.debug("No table size for {}", table, e);
+        }
+        return "size n/a";
+    }
+
+    private static double seconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private enum KeyType {
+        V7("BINARY(16)", "UUIDv7 BINARY(16)"),
+        V4("BINARY(16)", "UUIDv4 BINARY(16)"),
+        V4_VARCHAR("VARCHAR(36)", "UUIDv4 VARCHAR(36)");
+
+        private final String columnType;
+        private final String label;
+
+        KeyType(String columnType, String label) {
+            this.columnType = columnType;
+            this.label = label;
+        }
+
+        static KeyType of(String key) {
+            return valueOf(key.toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+
+        Supplier<Object> ids() {
+            return switch (this) {
+                case V7 -> {
+                    UuidV7Generator generator = new UuidV7Generator();
+                    yield () -> bytes(generator.nextId());
+                }
+                case V4 -> () -> bytes(UUID.randomUUID());
+                case V4_VARCHAR -> () -> UUID.randomUUID().toString();
+            };
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.poc.benchmarks.pipeline;
+
+import com.poc.order.entity.OutboxEvent;
+import com.poc.order.publisher.OrderEventPublisher;
+import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.id.IdGenerator;
+import com.poc.shared.utils.EventUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publishes order events on a fixed schedule, one every {@code 1/rate}
+ * seconds, through the same {@link OrderEventPublisher#publish(OutboxEvent)}
+ * call the outbox relay makes. The schedule never waits for the pipeline: a
+ * send that falls behind is issued immediately and keeps its original
+ * intended time, which is what latencies are measured from.
+ */
+@Slf4j
+@RequiredArgsConstructor
+final class OpenLoopDriver {
+
+    private final PipelineSettings settings;
+    private final OrderEventPublisher publisher;
+    private final EventUtils eventUtils;
+    private final IdGenerator idGenerator;
+    private final PipelineRun run;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    /** Returns the number of sends the publisher rejected. */
+    long drive() {
+        int total = settings.totalEvents();
+        long start = System.nanoTime();
+        long failures = 0;
+        int seq = 0;
+        for (int i = 0; i < total; i++) {
+            // Build the next event while waiting for its slot
+            OutboxEvent event = nextEvent();
+            long intended = start + settings.intendedOffsetNanos(i);
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                LockSupport.parkNanos(intended - now);
+            }
+
+            run.sending(seq, intended, now);
+            try {
+                publisher.publish(event);
+                run.sent(seq, System.nanoTime());
+                seq++;
+            } catch (RuntimeException e) {
+                failures++;
+                log.debug("Publish of event {} failed", i, e);
+            }
+        }
+        return failures;
+    }
+
+    private OutboxEvent nextEvent() {
+        OrderCreatedEvent event = new OrderCreatedEvent(
+            idGenerator.nextId().toString(),
+            "customer-" + random.nextInt(settings.customers()),
+            PipelineBenchmark.productId(random.nextInt(settings.products())),
+            1 + random.nextInt(5),
+            BigDecimal.valueOf(500 + random.nextInt(200_000), 2),
+            LocalDateTime.now(),
+            "CREATED"
+        );
+
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(event.getOrderId());
+        outboxEvent.setEventType("ORDER_CREATED");
+        outboxEvent.setPartitionKey(event.getCustomerId());
+        outboxEvent.setContentType(settings.contentType());
+        outboxEvent.setPayload(eventUtils.serialize(event, settings.contentType()));
+        outboxEvent.setCreatedAt(event.getOrderTimestamp());
+        return outboxEvent;
+    }
+}
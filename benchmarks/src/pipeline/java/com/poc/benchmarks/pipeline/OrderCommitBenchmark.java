@@ -0,0 +1,146 @@
+package com.poc.benchmarks.pipeline;
+
+import com.poc.order.OrderServiceApplication;
+import com.poc.order.intake.OrderIntake;
+import com.poc.order.service.OrderService;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synchronous order creation benchmark: {@code pipeline.order-commit.threads}
+ * callers create orders in a closed loop through {@link OrderService}, the
+ * path behind {@code POST /api/orders}, so every call waits for its commit.
+ *
+ * <p>Run it once per {@code order.commit.mode} to compare per-request commits
+ * with the group committer:
+ * <pre>
+ * ./gradlew :benchmarks:orderCommit -Porder.commit.mode=per-request
+ * ./gradlew :benchmarks:orderCommit -Porder.commit.mode=group -Porder.commit.window-micros=500
+ * ./gradlew :benchmarks:orderCommit -Porder.intake.mode=async
+ * </pre>
+ * With {@code order.intake.mode=async} callers submit to {@link OrderIntake}
+ * instead, as {@code POST /api/orders} does in that mode; latency is then the
+ * time to accept, and a full ring counts as a 429 after which the caller
+ * pauses {@code pipeline.order-commit.retry-after-ms}, as a client honouring
+ * the Retry-After header would, instead of spinning against the writer.
+ *
+ * <p>In-memory H2 has no fsync, which is most of what group commit saves, so
+ * point {@code pipeline.order-commit.jdbc-url} (plus {@code .user} and
+ * {@code .password}) at MySQL for numbers that mean anything.
+ */
+@Slf4j
+public final class OrderCommitBenchmark {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private OrderCommitBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("pipeline.order-commit.threads", 64);
+        int warmupSeconds = Integer.getInteger("pipeline.warmup-seconds", 10);
+        int durationSeconds = Integer.getInteger("pipeline.duration-seconds", 30);
+        int customers = Integer.getInteger("pipeline.customers", 1000);
+        int products = Integer.getInteger("pipeline.products", 50);
+        long retryAfterMs = Long.getLong("pipeline.order-commit.retry-after-ms", 1000);
+
+        List<String> overrides = new ArrayList<>();
+        String jdbcUrl = System.getProperty("pipeline.order-commit.jdbc-url");
+        if (jdbcUrl != null) {
+            overrides.add("--spring.datasource.url=" + jdbcUrl);
+            overrides.add("--spring.datasource.username=" + System.getProperty("pipeline.order-commit.user", "root"));
+            overrides.add("--spring.datasource.password=" + System.getProperty("pipeline.order-commit.password", "password"));
+            overrides.add("--spring.datasource.driver-class-name=");
+            overrides.add("--spring.sql.init.mode=never");
+        }
+
+        try (ConfigurableApplicationContext order = PipelineBenchmark.start(OrderServiceApplication.class, "order-service",
+                overrides.toArray(String[]::new))) {
+            OrderService orderService = order.getBean(OrderService.class);
+            OrderIntake intake = order.getBeanProvider(OrderIntake.class).getIfAvailable();
+            String mode = intake != null ? "async intake"
+                    : order.getEnvironment().getProperty("order.commit.mode", "per-request") + " commit";
+
+            log.info("Creating orders with {} threads in {} mode for {}s warm-up and {}s measurement",
+                    threads, mode, warmupSeconds, durationSeconds);
+            long start = System.nanoTime();
+            long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+            AtomicLong created = new AtomicLong();
+            AtomicLong rejected = new AtomicLong();
+            AtomicLong failed = new AtomicLong();
+            List<Histogram> histograms = new ArrayList<>(threads);
+            List<Thread> callers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                Histogram histogram = new Histogram(HIGHEST_MICROS, 3);
+                histograms.add(histogram);
+                callers.add(new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long now;
+                    boolean full = false;
+                    while ((now = System.nanoTime()) < end) {
+                        String customerId = "CUSTOMER-" + random.nextInt(customers);
+                        String productId = PipelineBenchmark.productId(random.nextInt(products));
+                        int quantity = 1 + random.nextInt(5);
+                        BigDecimal price = BigDecimal.valueOf(100 + random.nextInt(99_900), 2);
+                        try {
+                            if (intake == null) {
+                                orderService.createOrder(customerId, productId, quantity, price);
+                                created.incrementAndGet();
+                            } else if (intake.submit(customerId, productId, quantity, price) != null) {
+                                created.incrementAndGet();
+                            } else {
+                                rejected.incrementAndGet();
+                                full = true;
+                            }
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                            log.debug("Order creation failed", e);
+                        }
+                        long completed = System.nanoTime();
+                        if (now >= measureFrom) {
+                            histogram.recordValue(Math.min(HIGHEST_MICROS, TimeUnit.NANOSECONDS.toMicros(completed - now)));
+                        }
+                        if (full) {
+                            full = false;
+                            try {
+                                TimeUnit.MILLISECONDS.sleep(retryAfterMs);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return;
+                            }
+                        }
+                    }
+                }, "order-commit-" + t));
+            }
+            callers.forEach(Thread::start);
+            for (Thread caller : callers) {
+                caller.join();
+            }
+
+            Histogram latency = new Histogram(HIGHEST_MICROS, 3);
+            histograms.forEach(latency::add);
+
+            System.out.printf(Locale.ROOT, "%nOrder commit: %d threads, %s mode, %ds after %ds warm-up, %s%n",
+                    threads, mode, durationSeconds, warmupSeconds, jdbcUrl != null ? jdbcUrl : "in-memory H2");
+            System.out.printf(Locale.ROOT, "Measured creates: %d (%.0f/s)%n",
+                    latency.getTotalCount(), latency.getTotalCount() / (double) durationSeconds);
+            System.out.printf(Locale.ROOT, "Whole run: %d created, %d rejected as full, %d failed%n",
+                    created.get(), rejected.get(), failed.get());
+            System.out.printf(Locale.ROOT, "Latency ms: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                    latency.getValueAtPercentile(50) / 1_000.0, latency.getValueAtPercentile(90) / 1_000.0,
+                    latency.getValueAtPercentile(99) / 1_000.0, latency.getValueAtPercentile(99.9) / 1_000.0,
+                    latency.getMaxValue() / 1_000.0);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.poc.benchmarks.pipeline;
+
+import com.poc.analytics.AnalyticsServiceApplication;
+import com.poc.inventory.InventoryServiceApplication;
+import com.poc.inventory.service.InventoryService;
+import com.poc.notification.NotificationServiceApplication;
+import com.poc.order.OrderServiceApplication;
+import com.poc.order.publisher.OrderEventPublisher;
+import com.poc.shared.id.IdGenerator;
+import com.poc.shared.utils.EventUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cloud.stream.binder.test.InputDestination;
+import org.springframework.cloud.stream.binder.test.OutputDestination;
+import org.springframework.cloud.stream.binder.test.TestChannelBinderConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end pipeline benchmark: order service publisher to the inventory,
+ * notification and analytics consumers, all in one JVM.
+ *
+ * <p>Each service runs in its own application context with its production
+ * beans, on the Spring Cloud Stream test binder instead of Kafka, RabbitMQ
+ * and Pulsar and on in-memory H2 in MySQL mode instead of MySQL. Settings
+ * come from {@code pipeline/*.yml} and {@code pipeline.*} system properties,
+ * see {@link PipelineSettings}.
+ *
+ * <p>What is not modelled: broker and network latency, the outbox write and
+ * relay poll interval, and the notification consumer's key lanes and
+ * manual acks, which only engage for RabbitMQ deliveries; the test binder
+ * delivers to its inline path.
+ */
+@Slf4j
+public final class PipelineBenchmark {
+
+    private static final int INITIAL_STOCK = 1_000_000_000;
+
+    private PipelineBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        PipelineSettings settings = PipelineSettings.fromSystemProperties();
+
+        try (ConfigurableApplicationContext order = start(OrderServiceApplication.class, "order-service");
+             ConfigurableApplicationContext inventory = start(InventoryServiceApplication.class, "inventory-service");
+             ConfigurableApplicationContext notification = start(NotificationServiceApplication.class, "notification-service");
+             ConfigurableApplicationContext analytics = start(AnalyticsServiceApplication.class, "analytics-service")) {
+
+            InventoryService inventoryService = inventory.getBean(InventoryService.class);
+            for (int i = 0; i < settings.products(); i++) {
+                inventoryService.initializeInventory(productId(i), INITIAL_STOCK);
+            }
+
+            PipelineRun run = new PipelineRun(settings.totalEvents(), settings.warmupEvents(), 3);
+            List<ConsumerLane> lanes = List.of(
+                new ConsumerLane("inventory", inventory.getBean(InputDestination.class), run),
+                new ConsumerLane("notification", notification.getBean(InputDestination.class), run),
+                new ConsumerLane("analytics", analytics.getBean(InputDestination.class), run)
+            );
+            EventForwarder forwarder = new EventForwarder(order.getBean(OutputDestination.class), lanes);
+            lanes.forEach(ConsumerLane::start);
+            forwarder.start();
+
+            log.info("Publishing {} events/s for {}s warm-up and {}s measurement",
+                    settings.rate(), settings.warmupSeconds(), settings.durationSeconds());
+            OpenLoopDriver driver = new OpenLoopDriver(settings,
+                    order.getBean(OrderEventPublisher.class), order.getBean(EventUtils.class),
+                    order.getBean(IdGenerator.class), run);
+            long publishFailures = driver.drive();
+
+            List<Stage> consumerStages = lanes.stream().map(lane -> lane.stage).toList();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.drainTimeoutSeconds());
+            while (!run.drained(consumerStages) && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            if (!run.drained(consumerStages)) {
+                log.warn("Consumers did not drain within {}s, the report covers completed events only",
+                        settings.drainTimeoutSeconds());
+            }
+            forwarder.stop();
+            for (ConsumerLane lane : lanes) {
+                lane.stop();
+            }
+
+            List<Stage> stages = new ArrayList<>();
+            stages.add(run.publish);
+            stages.addAll(consumerStages);
+            stages.add(run.endToEnd);
+            PipelineReport.print(System.out, settings, run, stages, publishFailures, lanes);
+            PipelineReport.writeHistograms(settings.reportDir(), stages);
+            log.info("Wrote latency distributions to {}", settings.reportDir().toAbsolutePath());
+        }
+    }
+
+    static String productId(int index) {
+        return "PRODUCT-" + index;
+    }
+
+    static ConfigurableApplicationContext start(Class<?> application, String name, String... overrides) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.config.location=classpath:/pipeline/common.yml,classpath:/pipeline/" + name + ".yml");
+        args.addAll(List.of(overrides));
+        return new SpringApplicationBuilder(TestChannelBinderConfiguration.getCompleteConfiguration(application))
+            .web(WebApplicationType.NONE)
+            .bannerMode(Banner.Mode.OFF)
+            .run(args.toArray(String[]::new));
+    }
+}
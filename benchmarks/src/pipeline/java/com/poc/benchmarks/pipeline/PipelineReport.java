@@ -0,0 +1,74 @@
+package com.poc.benchmarks.pipeline;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Prints throughput and latency percentiles per stage, and writes each
+ * stage's full corrected distribution as an HdrHistogram {@code .hgrm} file
+ * that the HdrHistogram plotter can compare across runs.
+ */
+final class PipelineReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final double MICROS_PER_MILLI = 1_000.0;
+
+    private PipelineReport() {
+    }
+
+    static void print(PrintStream out, PipelineSettings settings, PipelineRun run,
+                      List<Stage> stages, long publishFailures, List<ConsumerLane> lanes) {
+        out.printf(Locale.ROOT, "%nPipeline: %d events/s open loop for %ds after %ds warm-up, %s%n",
+                settings.rate(), settings.durationSeconds(), settings.warmupSeconds(), settings.contentType());
+        out.printf(Locale.ROOT, "Measured events sent: %d, publish failures: %d%n",
+                run.measuredSent(), publishFailures);
+        for (ConsumerLane lane : lanes) {
+            if (lane.failures() > 0 || lane.backlog() > 0) {
+                out.printf(Locale.ROOT, "  %s: %d failed, %d never delivered%n",
+                        lane.stage.name, lane.failures(), lane.backlog());
+            }
+        }
+
+        out.printf(Locale.ROOT, "%nLatency in ms from intended send time (corrected for coordinated omission)%n");
+        header(out);
+        for (Stage stage : stages) {
+            row(out, stage, stage.corrected, run);
+        }
+        out.printf(Locale.ROOT, "%nLatency in ms from actual send time (uncorrected, for comparison)%n");
+        header(out);
+        for (Stage stage : stages) {
+            row(out, stage, stage.uncorrected, run);
+        }
+    }
+
+    static void writeHistograms(Path dir, List<Stage> stages) throws IOException {
+        Files.createDirectories(dir);
+        for (Stage stage : stages) {
+            Path file = dir.resolve(stage.name.replace(' ', '-') + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                stage.corrected.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static void header(PrintStream out) {
+        out.printf(Locale.ROOT, "%-14s %9s %10s %9s %9s %9s %9s %9s%n",
+                "stage", "count", "events/s", "p50", "p90", "p99", "p99.9", "max");
+    }
+
+    private static void row(PrintStream out, Stage stage, Histogram histogram, PipelineRun run) {
+        long elapsedNanos = stage.lastCompletedNanos() - run.firstMeasuredIntendedNanos();
+        double throughput = elapsedNanos > 0 ? stage.count() * 1e9 / elapsedNanos : 0;
+        out.printf(Locale.ROOT, "%-14s %9d %10.0f", stage.name, histogram.getTotalCount(), throughput);
+        for (double percentile : PERCENTILES) {
+            out.printf(Locale.ROOT, " %9.2f", histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+        }
+        out.printf(Locale.ROOT, " %9.2f%n", histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+}
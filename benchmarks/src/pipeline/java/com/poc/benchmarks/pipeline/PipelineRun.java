@@ -0,0 +1,79 @@
+package com.poc.benchmarks.pipeline;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Send and completion times of every event in one run, indexed by the
+ * sequence number the forwarder stamps on each message. Warm-up events are
+ * processed but not recorded.
+ */
+final class PipelineRun {
+
+    final Stage publish = new Stage("publish");
+    final Stage endToEnd = new Stage("all consumers");
+
+    private final int warmupEvents;
+    private final long[] intendedNanos;
+    private final long[] sentNanos;
+    private final AtomicIntegerArray remainingConsumers;
+    private volatile int sent;
+
+    PipelineRun(int totalEvents, int warmupEvents, int consumers) {
+        this.warmupEvents = warmupEvents;
+        this.intendedNanos = new long[totalEvents];
+        this.sentNanos = new long[totalEvents];
+        this.remainingConsumers = new AtomicIntegerArray(totalEvents);
+        for (int i = 0; i < totalEvents; i++) {
+            remainingConsumers.set(i, consumers);
+        }
+    }
+
+    /**
+     * Called by the single driver thread before handing event {@code seq} to
+     * the publisher; the binder queues publish both times to the lanes. A
+     * failed send leaves the slot to the next event.
+     */
+    void sending(int seq, long intended, long started) {
+        intendedNanos[seq] = intended;
+        sentNanos[seq] = started;
+    }
+
+    void sent(int seq, long returned) {
+        sent = seq + 1;
+        if (measured(seq)) {
+            publish.record(intendedNanos[seq], sentNanos[seq], returned);
+        }
+    }
+
+    void completed(Stage stage, int seq, long completedNanos) {
+        if (!measured(seq)) {
+            return;
+        }
+        stage.record(intendedNanos[seq], sentNanos[seq], completedNanos);
+        if (remainingConsumers.decrementAndGet(seq) == 0) {
+            endToEnd.record(intendedNanos[seq], sentNanos[seq], completedNanos);
+        }
+    }
+
+    int sent() {
+        return sent;
+    }
+
+    int measuredSent() {
+        return Math.max(0, sent - warmupEvents);
+    }
+
+    long firstMeasuredIntendedNanos() {
+        return intendedNanos[warmupEvents];
+    }
+
+    boolean drained(List<Stage> stages) {
+        int expected = measuredSent();
+        return stages.stream().allMatch(stage -> stage.count() >= expected);
+    }
+
+    private boolean measured(int seq) {
+        return seq >= warmupEvents;
+    }
+}
@@ -0,0 +1,49 @@
+package com.poc.benchmarks.pipeline;
+
+import java.nio.file.Path;
+
+/**
+ * Benchmark knobs, read from {@code pipeline.*} system properties.
+ */
+record PipelineSettings(int rate,
+                        int warmupSeconds,
+                        int durationSeconds,
+                        int drainTimeoutSeconds,
+                        String contentType,
+                        int customers,
+                        int products,
+                        Path reportDir) {
+
+    static PipelineSettings fromSystemProperties() {
+        PipelineSettings settings = new PipelineSettings(
+            Integer.getInteger("pipeline.rate", 1000),
+            Integer.getInteger("pipeline.warmup-seconds", 10),
+            Integer.getInteger("pipeline.duration-seconds", 30),
+            Integer.getInteger("pipeline.drain-timeout-seconds", 30),
+            System.getProperty("pipeline.content-type", "application/json"),
+            Integer.getInteger("pipeline.customers", 1000),
+            Integer.getInteger("pipeline.products", 50),
+            Path.of(System.getProperty("pipeline.report-dir", "build/results/pipeline"))
+        );
+        if (settings.rate <= 0 || settings.durationSeconds <= 0 || settings.warmupSeconds < 0) {
+            throw new IllegalArgumentException("pipeline.rate and pipeline.duration-seconds must be positive");
+        }
+        if ((long) settings.rate * (settings.warmupSeconds + settings.durationSeconds) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many events for one run, lower the rate or duration");
+        }
+        return settings;
+    }
+
+    int warmupEvents() {
+        return rate * warmupSeconds;
+    }
+
+    int totalEvents() {
+        return rate * (warmupSeconds + durationSeconds);
+    }
+
+    /** Send time of event {@code i}, relative to the start of the run. */
+    long intendedOffsetNanos(int i) {
+        return (long) i * 1_000_000_000L / rate;
+    }
+}
@@ -0,0 +1,47 @@
+package com.poc.benchmarks.pipeline;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SynchronizedHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies of one pipeline stage, in microseconds.
+ *
+ * <p>{@code corrected} is measured from the event's intended send time, so
+ * time an event spent waiting behind a stalled producer or consumer counts
+ * against it (no coordinated omission). {@code uncorrected} is measured from
+ * when the send actually started, the way a closed-loop tool would see it.
+ */
+final class Stage {
+
+    private static final long HIGHEST_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    final String name;
+    final Histogram corrected = new SynchronizedHistogram(HIGHEST_MICROS, 3);
+    final Histogram uncorrected = new SynchronizedHistogram(HIGHEST_MICROS, 3);
+    private final AtomicLong lastCompletedNanos = new AtomicLong();
+
+    Stage(String name) {
+        this.name = name;
+    }
+
+    void record(long intendedNanos, long sentNanos, long completedNanos) {
+        corrected.recordValue(toMicros(completedNanos - intendedNanos));
+        uncorrected.recordValue(toMicros(completedNanos - sentNanos));
+        lastCompletedNanos.accumulateAndGet(completedNanos, Math::max);
+    }
+
+    long count() {
+        return corrected.getTotalCount();
+    }
+
+    long lastCompletedNanos() {
+        return lastCompletedNanos.get();
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(Math.max(nanos, 0) / 1_000, HIGHEST_MICROS);
+    }
+}
@@ -0,0 +1 @@
+CREATE ALIAS IF NOT EXISTS DATE_FORMAT FOR 'com.poc.benchmarks.pipeline.H2Functions.dateFormat';
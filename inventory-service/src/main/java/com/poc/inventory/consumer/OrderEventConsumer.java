@@ -1,52 +1,300 @@
 package com.poc.inventory.consumer;
 
-import com.poc.inventory.service.InventoryService;
+import com.poc.inventory.reservation.InventoryReserver;
+import com.poc.shared.codec.EventContentTypes;
+import com.poc.shared.codec.OrderEventField;
+import com.poc.shared.codec.OrderEventReader;
+import com.poc.shared.dispatch.ContiguousAckTracker;
+import com.poc.shared.dispatch.KeyedDispatcher;
 import com.poc.shared.events.InventoryUpdateEvent;
 import com.poc.shared.events.OrderCreatedEvent;
-import com.poc.shared.utils.EventUtils;
-import lombok.RequiredArgsConstructor;
+import com.poc.shared.idempotency.IdempotencyFilter;
+import com.poc.shared.lag.EventLagRecorder;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+/**
+ * With manual acks the listener thread only decodes and hands each order to
+ * a {@link KeyedDispatcher} lane chosen by partition key (customerId), so
+ * one customer's orders stay in order while different customers are
+ * reserved in parallel, beyond the number of partitions. Offsets are
+ * committed per partition and only up to contiguously finished records; an
+ * order that still fails after retries is published to inventory-dlq first,
+ * and its lane keeps retrying that send until the DLQ accepts it. A record
+ * the listener thread itself cannot hand off is nacked and redelivered.
+ * <p>
+ * Without an acknowledgment header (auto ack, test binder) messages are
+ * handled inline and the binder's retry and DLQ handling applies as before.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OrderEventConsumer {
     
-    private final InventoryService inventoryService;
-    private final EventUtils eventUtils;
+    private static final String PARTITION_KEY_HEADER = "partitionKey";
+    private static final String BINDING = "processOrderEvents-in-0";
+    private static final String DLQ = "inventory-dlq";
+    private static final long MAX_DEAD_LETTER_BACKOFF_MS = 30_000;
+    
+    private final InventoryReserver inventoryReserver;
+    private final OrderEventReader orderEventReader;
+    private final IdempotencyFilter idempotencyFilter;
+    private final EventLagRecorder lagRecorder;
+    private final StreamBridge streamBridge;
+    private final KeyedDispatcher dispatcher;
+    private final Map<TopicPartition, PartitionAcks> partitionAcks = new ConcurrentHashMap<>();
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    
+    public OrderEventConsumer(InventoryReserver inventoryReserver,
+                              OrderEventReader orderEventReader,
+                              IdempotencyFilter idempotencyFilter,
+                              EventLagRecorder lagRecorder,
+                              StreamBridge streamBridge,
+                              @Value("${inventory.consumer.workers:0}") int workers,
+                              @Value("${inventory.consumer.queue-capacity:256}") int queueCapacity,
+                              @Value("${inventory.consumer.max-attempts:3}") int maxAttempts,
+                              @Value("${inventory.consumer.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.inventoryReserver = inventoryReserver;
+        this.orderEventReader = orderEventReader;
+        this.idempotencyFilter = idempotencyFilter;
+        this.lagRecorder = lagRecorder;
+        this.streamBridge = streamBridge;
+        this.dispatcher = new KeyedDispatcher("inventory-worker", workers, queueCapacity);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+    }
     
     @Bean
-    public Consumer<String> processOrderEvents() {
+    public Consumer<Message<byte[]>> processOrderEvents() {
+        // Inventory only needs what it reserves against
+        OrderEventReader.Selection fields = orderEventReader.select(
+                OrderEventField.ORDER_ID, OrderEventField.PRODUCT_ID, OrderEventField.QUANTITY);
+        
         return message -> {
+            EventLagRecorder.Receipt receipt = lagRecorder.received(BINDING, message.getHeaders());
+            Acknowledgment acknowledgment = message.getHeaders().get(KafkaHeaders.ACKNOWLEDGMENT, Acknowledgment.class);
+            Long offset = message.getHeaders().get(KafkaHeaders.OFFSET, Long.class);
+            if (acknowledgment == null || offset == null) {
+                handleInline(message, fields, receipt);
+                return;
+            }
+            // Registered in offset order, before any worker can finish it
+            PartitionAcks acks = register(message.getHeaders(), offset, acknowledgment);
+            
+            OrderCreatedEvent orderEvent;
             try {
-                log.debug("Received order event message: {}", message);
-                
-                OrderCreatedEvent orderEvent = eventUtils.deserialize(message, OrderCreatedEvent.class);
-                log.info("Processing order event for orderId: {}, customerId: {}", 
-                        orderEvent.getOrderId(), orderEvent.getCustomerId());
+                String contentType = EventContentTypes.of(message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+                log.debug("Received order event message: {} bytes, contentType: {}",
+                        message.getPayload().length, contentType);
                 
-                InventoryUpdateEvent result = inventoryService.processOrderEvent(
-                    orderEvent.getOrderId(),
-                    orderEvent.getProductId(),
-                    orderEvent.getQuantity()
-                );
-                
-                if (result.getInventoryReserved()) {
-                    log.info("Successfully processed order event for orderId: {}", orderEvent.getOrderId());
+                // Not pooled: orders are handed to other threads
+                orderEvent = orderEventReader.read(message.getPayload(), contentType, fields);
+            } catch (Exception e) {
+                log.error("Failed to process order event message: {}", message.getHeaders(), e);
+                // Undecodable, retrying will not help
+                if (deadLetter(message, e)) {
+                    acks.complete(offset, true);
                 } else {
-                    log.warn("Failed to reserve inventory for orderId: {} - {}", 
-                            orderEvent.getOrderId(), result.getFailureReason());
+                    redeliver(acks, offset, acknowledgment);
                 }
-                
-            } catch (Exception e) {
-                log.error("Failed to process order event message: {}", message, e);
-                // In a production system, this would go to a dead letter queue
-                throw e;
+                return;
+            }
+            
+            String key = message.getHeaders().get(PARTITION_KEY_HEADER, String.class);
+            try {
+                dispatcher.submit(key != null ? key : orderEvent.getProductId(),
+                        () -> {
+                            Exception failure = handleWithRetries(orderEvent);
+                            if (failure == null) {
+                                // Includes the wait for the key lane
+                                lagRecorder.done(receipt);
+                            }
+                            acks.complete(offset, failure == null || deadLetterUntilSent(message, failure));
+                        });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while dispatching order: {}", orderEvent.getOrderId());
+                // Not reserved
+                redeliver(acks, offset, acknowledgment);
             }
         };
     }
-}
\ No newline at end of file
+    
+    private void handleInline(Message<byte[]> message, OrderEventReader.Selection fields, EventLagRecorder.Receipt receipt) {
+        try {
+            String contentType = EventContentTypes.of(message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+            log.debug("Received order event message: {} bytes, contentType: {}",
+                    message.getPayload().length, contentType);
+            
+            OrderCreatedEvent orderEvent = orderEventReader.readPooled(
+                    message.getPayload(), contentType, fields);
+            handle(orderEvent);
+            lagRecorder.done(receipt);
+            
+        } catch (Exception e) {
+            log.error("Failed to process order event message: {}", message.getHeaders(), e);
+            // In a production system, this would go to a dead letter queue
+            throw e;
+        }
+    }
+    
+    private void handle(OrderCreatedEvent orderEvent) {
+        if (idempotencyFilter.isDuplicate(orderEvent.getOrderId())) {
+            log.info("Skipping redelivered order event for orderId: {}", orderEvent.getOrderId());
+            return;
+        }
+        log.info("Processing order event for orderId: {}, productId: {}",
+                orderEvent.getOrderId(), orderEvent.getProductId());
+        
+        InventoryUpdateEvent result = inventoryReserver.reserve(
+            orderEvent.getOrderId(),
+            orderEvent.getProductId(),
+            orderEvent.getQuantity()
+        );
+        // The reservation recorded the order durably; this remembers it in memory.
+        // A rejected reservation is a final outcome too, redelivery must not retry it
+        idempotencyFilter.markProcessed(orderEvent.getOrderId());
+        
+        if (result == null) {
+            log.info("Skipped already processed order event for orderId: {}", orderEvent.getOrderId());
+        } else if (result.getInventoryReserved()) {
+            log.info("Successfully processed order event for orderId: {}", orderEvent.getOrderId());
+        } else {
+            log.warn("Failed to reserve inventory for orderId: {} - {}",
+                    orderEvent.getOrderId(), result.getFailureReason());
+        }
+    }
+    
+    // Returns the last failure, or null once the order is handled
+    private Exception handleWithRetries(OrderCreatedEvent orderEvent) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                handle(orderEvent);
+                return null;
+            } catch (RuntimeException e) {
+                log.error("Failed to process order event for orderId: {} (attempt {})", orderEvent.getOrderId(), attempt, e);
+                if (attempt >= maxAttempts) {
+                    return e;
+                }
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return e;
+            }
+            backoffMs *= 2;
+        }
+    }
+    
+    // True once the message is safely in the DLQ and its offset may be committed
+    private boolean deadLetter(Message<byte[]> message, Exception failure) {
+        try {
+            Message<byte[]> dead = MessageBuilder.withPayload(message.getPayload())
+                    .setHeader(MessageHeaders.CONTENT_TYPE, message.getHeaders().get(MessageHeaders.CONTENT_TYPE))
+                    .setHeader(PARTITION_KEY_HEADER, message.getHeaders().get(PARTITION_KEY_HEADER))
+                    .setHeader("x-exception-message", String.valueOf(failure.getMessage()))
+                    .build();
+            if (streamBridge.send(DLQ, dead)) {
+                return true;
+            }
+            log.error("Dead-letter send to {} was not accepted: {}", DLQ, message.getHeaders());
+        } catch (RuntimeException e) {
+            log.error("Failed to dead-letter order event message: {}", message.getHeaders(), e);
+        }
+        return false;
+    }
+    
+    // Blocks the key lane, as the order would; false only when interrupted (shutdown)
+    private boolean deadLetterUntilSent(Message<byte[]> message, Exception failure) {
+        long backoffMs = retryBackoffMs;
+        while (!deadLetter(message, failure)) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_DEAD_LETTER_BACKOFF_MS);
+        }
+        return true;
+    }
+    
+    // Listener thread only: seeks the partition back to offset, whose redelivery
+    // replaces this PartitionAcks and so lifts the hold
+    private void redeliver(PartitionAcks acks, long offset, Acknowledgment acknowledgment) {
+        acks.complete(offset, false);
+        acknowledgment.nack(Duration.ofMillis(retryBackoffMs));
+    }
+    
+    private PartitionAcks register(MessageHeaders headers, long offset, Acknowledgment acknowledgment) {
+        TopicPartition partition = new TopicPartition(
+                headers.get(KafkaHeaders.RECEIVED_TOPIC, String.class),
+                headers.get(KafkaHeaders.RECEIVED_PARTITION, Integer.class));
+        // An offset at or below the last one means the partition was sought back
+        // (rebalance, error handler): start over, earlier work still commits its own offsets
+        PartitionAcks acks = partitionAcks.compute(partition,
+                (ignored, current) -> current == null || offset <= current.lastRegistered ? new PartitionAcks() : current);
+        acks.register(offset, acknowledgment);
+        return acks;
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        dispatcher.close();
+    }
+    
+    /**
+     * Commit point of one partition. A record that could be neither handled
+     * nor dead-lettered holds commits at and above its offset; it is nacked
+     * or, on shutdown, left for the next assignee, so the partition is
+     * redelivered from there.
+     */
+    private static final class PartitionAcks {
+        
+        private final ContiguousAckTracker tracker = new ContiguousAckTracker();
+        private final TreeMap<Long, Acknowledgment> acknowledgments = new TreeMap<>();
+        private long lastRegistered = -1;
+        private long holdFrom = Long.MAX_VALUE;
+        
+        private synchronized void register(long offset, Acknowledgment acknowledgment) {
+            tracker.register(offset);
+            acknowledgments.put(offset, acknowledgment);
+            lastRegistered = offset;
+        }
+        
+        private synchronized void complete(long offset, boolean done) {
+            if (!done) {
+                holdFrom = Math.min(holdFrom, offset);
+                log.error("Offset {} was not processed, later offsets stay uncommitted until it is redelivered", offset);
+            }
+            long commitTo = tracker.complete(offset, done);
+            if (commitTo >= 0) {
+                Acknowledgment acknowledgment = acknowledgments.get(commitTo);
+                acknowledgments.headMap(commitTo, true).clear();
+                if (commitTo < holdFrom) {
+                    // Queued for the consumer thread, which commits commitTo + 1
+                    acknowledgment.acknowledge();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.poc.inventory.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "processed_event")
+@IdClass(ProcessedEvent.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedEvent {
+    
+    @Id
+    @Column(length = 64)
+    private String consumerGroup;
+    
+    @Id
+    @Column(length = 64)
+    private String eventId;
+    
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String consumerGroup;
+        private String eventId;
+    }
+}
@@ -0,0 +1,62 @@
+package com.poc.inventory.idempotency;
+
+import com.poc.inventory.repository.ProcessedEventRepository;
+import com.poc.shared.idempotency.ProcessedEventStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Handled orders are recorded in their own table by the reservation itself,
+ * in the transaction that changes the inventory row, so a reservation and its
+ * record commit or roll back together. An order that is already recorded is
+ * not reserved again, which also catches duplicates the in-memory filter let
+ * through. Rows are only read after a Bloom filter hit or while the filter
+ * warms up.
+ */
+@Component
+@RequiredArgsConstructor
+public class JpaProcessedEventStore implements ProcessedEventStore {
+    
+    private static final String RECORD_SQL =
+        "INSERT IGNORE INTO processed_event (consumer_group, event_id, processed_at) VALUES (?, ?, ?)";
+    
+    private final ProcessedEventRepository processedEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public boolean contains(String consumerGroup, String eventId) {
+        return processedEventRepository.existsByConsumerGroupAndEventId(consumerGroup, eventId);
+    }
+    
+    @Override
+    public void record(String consumerGroup, String eventId) {
+        // Already written by the reservation, see recordNew
+    }
+    
+    /** Records one event in the caller's transaction; false if it was already recorded. */
+    public boolean recordNew(String consumerGroup, String eventId) {
+        return processedEventRepository.record(consumerGroup, eventId, LocalDateTime.now()) > 0;
+    }
+    
+    /** Records a batch in the caller's transaction; false at the index of each event already recorded. */
+    public boolean[] recordNew(String consumerGroup, List<String> eventIds) {
+        Timestamp processedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(eventIds.size());
+        for (String eventId : eventIds) {
+            args.add(new Object[]{consumerGroup, eventId, processedAt});
+        }
+        int[] inserted = jdbcTemplate.batchUpdate(RECORD_SQL, args);
+        boolean[] recorded = new boolean[inserted.length];
+        for (int i = 0; i < inserted.length; i++) {
+            // A rewritten batch reports no per-row counts; treat those rows as new
+            recorded[i] = inserted[i] != 0;
+        }
+        return recorded;
+    }
+}
@@ -0,0 +1,26 @@
+package com.poc.inventory.repository;
+
+import com.poc.inventory.entity.ProcessedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, ProcessedEvent.Key> {
+    
+    boolean existsByConsumerGroupAndEventId(String consumerGroup, String eventId);
+    
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO processed_event (consumer_group, event_id, processed_at) " +
+                   "VALUES (:consumerGroup, :eventId, :processedAt)",
+           nativeQuery = true)
+    int record(@Param("consumerGroup") String consumerGroup,
+               @Param("eventId") String eventId,
+               @Param("processedAt") LocalDateTime processedAt);
+}
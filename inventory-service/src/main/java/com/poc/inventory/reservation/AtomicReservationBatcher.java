@@ -0,0 +1,304 @@
+package com.poc.inventory.reservation;
+
+import com.poc.inventory.idempotency.JpaProcessedEventStore;
+import com.poc.shared.events.InventoryUpdateEvent;
+import com.poc.shared.idempotency.IdempotencyFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reserves with a single conditional decrement instead of loading and saving
+ * the Inventory entity. Reservations for the same product that arrive within
+ * {@code window-micros} are combined into one statement.
+ * <p>
+ * If the combined quantity exceeds stock, the current level is read and orders
+ * are admitted first-come-first-served while they still fit; only the
+ * admitted total is decremented. If stock moved in between, the allocation is
+ * retried a few times before the batch fails back to the broker. The batch's
+ * processed_event rows are written in the same transaction as the decrement;
+ * orders already recorded there are skipped, and outcomes are only handed
+ * back once that transaction has committed.
+ * <p>
+ * Each consumer thread blocks until its own reservation is done, so a batch
+ * only ever combines requests from different consumer threads. With the
+ * default of one thread per binding, or few partitions, batches rarely hold
+ * more than one request and the window only adds latency. Raise the
+ * binding's {@code concurrency} so several partitions are consumed at once
+ * before relying on it, or set {@code window-micros} to 0.
+ * <p>
+ * A caller that gives up waiting only fails if its batch has not been
+ * flushed yet; once flushing, the caller waits for the outcome, so a
+ * reservation that was applied is never redelivered and applied again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.reservation.mode", havingValue = "atomic")
+public class AtomicReservationBatcher implements InventoryReserver {
+    
+    // LAST_INSERT_ID(expr) hands the new level back as the generated key, so no read-back is needed
+    private static final String RESERVE_SQL =
+        "UPDATE inventory SET available_quantity = LAST_INSERT_ID(available_quantity - ?), " +
+        "reserved_quantity = reserved_quantity + ?, last_updated = NOW(), version = version + 1 " +
+        "WHERE product_id = ? AND available_quantity >= ?";
+    
+    private static final int MAX_ALLOCATION_ATTEMPTS = 3;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JpaProcessedEventStore processedEventStore;
+    private final IdempotencyFilter idempotencyFilter;
+    
+    @Value("${inventory.reservation.atomic.window-micros:2000}")
+    private long windowMicros;
+    
+    @Value("${inventory.reservation.atomic.flush-threads:4}")
+    private int flushThreads;
+    
+    @Value("${inventory.reservation.atomic.timeout-ms:5000}")
+    private long timeoutMs;
+    
+    private final ConcurrentHashMap<String, PendingBatch> openBatches = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flushExecutor;
+    
+    @PostConstruct
+    void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        flushExecutor = new ScheduledThreadPoolExecutor(flushThreads, 
+                runnable -> new Thread(runnable, "reservation-flush-" + threadIndex.getAndIncrement()));
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flushExecutor.shutdown();
+        flushExecutor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @Override
+    public InventoryUpdateEvent reserve(String orderId, String productId, Integer quantity) {
+        Request request = new Request(orderId, productId, quantity);
+        
+        if (windowMicros <= 0) {
+            request.claimed.set(true);
+            flush(productId, List.of(request));
+        } else {
+            openBatches.compute(productId, (key, batch) -> {
+                if (batch == null) {
+                    PendingBatch opened = new PendingBatch();
+                    flushExecutor.schedule(() -> close(key, opened), windowMicros, TimeUnit.MICROSECONDS);
+                    batch = opened;
+                }
+                batch.requests.add(request);
+                return batch;
+            });
+        }
+        
+        try {
+            return request.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (request.claimed.compareAndSet(false, true)) {
+                throw new RuntimeException("Interrupted while reserving inventory for orderId: " + orderId, e);
+            }
+            return awaitTaken(request);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to reserve inventory for orderId: " + orderId, e.getCause());
+        } catch (TimeoutException e) {
+            if (request.claimed.compareAndSet(false, true)) {
+                throw new RuntimeException("Timed out reserving inventory for orderId: " + orderId, e);
+            }
+            return awaitTaken(request);
+        }
+    }
+    
+    /** The batch holding this request is being flushed and always completes it, applied or failed. */
+    private static InventoryUpdateEvent awaitTaken(Request request) {
+        try {
+            return request.result.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to reserve inventory for orderId: " + request.orderId, e.getCause());
+        }
+    }
+    
+    private void close(String productId, PendingBatch batch) {
+        // Later arrivals open a fresh batch once this one is removed
+        openBatches.remove(productId, batch);
+        // Callers that already gave up are dropped; the rest wait for this flush
+        batch.requests.removeIf(request -> !request.claimed.compareAndSet(false, true));
+        if (!batch.requests.isEmpty()) {
+            flush(productId, batch.requests);
+        }
+    }
+    
+    private void flush(String productId, List<Request> requests) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> reserveFresh(productId, requests));
+        } catch (Exception e) {
+            log.error("Failed to reserve batch of {} for product {}", requests.size(), productId, e);
+            requests.forEach(request -> request.result.completeExceptionally(e));
+            return;
+        }
+        // Already processed orders keep a null outcome
+        requests.forEach(request -> request.result.complete(request.outcome));
+    }
+    
+    private void reserveFresh(String productId, List<Request> batch) {
+        List<String> orderIds = new ArrayList<>(batch.size());
+        batch.forEach(request -> orderIds.add(request.orderId));
+        boolean[] fresh = processedEventStore.recordNew(idempotencyFilter.consumerGroup(), orderIds);
+        List<Request> requests = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (fresh[i]) {
+                requests.add(batch.get(i));
+            }
+        }
+        if (requests.isEmpty()) {
+            return;
+        }
+        
+        int total = 0;
+        for (Request request : requests) {
+            total += request.quantity;
+        }
+        
+        Integer remaining = tryReserve(productId, total);
+        if (remaining != null) {
+            admit(requests, remaining);
+            return;
+        }
+        
+        for (int attempt = 0; attempt < MAX_ALLOCATION_ATTEMPTS; attempt++) {
+            if (allocate(productId, requests)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Stock for product " + productId + " kept changing during allocation");
+    }
+    
+    private boolean allocate(String productId, List<Request> requests) {
+        // A locking read sees the latest level, a plain one would repeat the transaction's snapshot
+        List<Integer> current = jdbcTemplate.queryForList(
+            "SELECT available_quantity FROM inventory WHERE product_id = ? FOR UPDATE", Integer.class, productId);
+        if (current.isEmpty()) {
+            requests.forEach(request -> request.outcome = outcome(request, 0, false, "Product not found: " + productId));
+            return true;
+        }
+        
+        int available = current.get(0);
+        List<Request> admitted = new ArrayList<>(requests.size());
+        List<Request> rejected = new ArrayList<>();
+        int left = available;
+        int total = 0;
+        for (Request request : requests) {
+            if (request.quantity <= left) {
+                admitted.add(request);
+                left -= request.quantity;
+                total += request.quantity;
+            } else {
+                rejected.add(request);
+            }
+        }
+        
+        int remaining = available;
+        if (!admitted.isEmpty()) {
+            Integer afterUpdate = tryReserve(productId, total);
+            if (afterUpdate == null) {
+                return false;
+            }
+            remaining = afterUpdate;
+            admit(admitted, remaining);
+        }
+        for (Request request : rejected) {
+            request.outcome = outcome(request, remaining, false, "Insufficient inventory");
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the available quantity after the decrement, or null when the row
+     * is missing or would go negative.
+     */
+    private Integer tryReserve(String productId, int quantity) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int updated = jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RESERVE_SQL, Statement.RETURN_GENERATED_KEYS);
+            statement.setInt(1, quantity);
+            statement.setInt(2, quantity);
+            statement.setString(3, productId);
+            statement.setInt(4, quantity);
+            return statement;
+        }, keyHolder);
+        if (updated == 0) {
+            return null;
+        }
+        // The driver reports no generated key when LAST_INSERT_ID is 0
+        Number key = keyHolder.getKey();
+        return key != null ? key.intValue() : 0;
+    }
+    
+    private static void admit(List<Request> admitted, int remaining) {
+        // Report the level each order left behind, as if they had been applied one by one
+        int availableAfter = remaining;
+        for (int i = admitted.size() - 1; i >= 0; i--) {
+            Request request = admitted.get(i);
+            request.outcome = outcome(request, availableAfter, true, null);
+            availableAfter += request.quantity;
+        }
+    }
+    
+    private static InventoryUpdateEvent outcome(Request request, int available, boolean reserved, String failureReason) {
+        return new InventoryUpdateEvent(
+            request.orderId, request.productId, request.quantity,
+            available, reserved, LocalDateTime.now(), failureReason
+        );
+    }
+    
+    private static final class PendingBatch {
+        
+        // Only mutated inside ConcurrentHashMap.compute for this product, then by close once removed
+        private final List<Request> requests = new ArrayList<>();
+    }
+    
+    private static final class Request {
+        
+        private final String orderId;
+        private final String productId;
+        private final int quantity;
+        private final CompletableFuture<InventoryUpdateEvent> result = new CompletableFuture<>();
+        // Set by the flush when it takes the request, or by a caller that gives up before that
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        // Decided inside the flush transaction, handed to the caller after it commits
+        private InventoryUpdateEvent outcome;
+        
+        private Request(String orderId, String productId, int quantity) {
+            this.orderId = orderId;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.poc.inventory.reservation;
+
+import com.poc.inventory.service.InventoryService;
+import com.poc.shared.events.InventoryUpdateEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default mode: optimistic-locking read-modify-write of the Inventory entity.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.reservation.mode", havingValue = "entity", matchIfMissing = true)
+public class EntityInventoryReserver implements InventoryReserver {
+    
+    private final InventoryService inventoryService;
+    
+    @Override
+    public InventoryUpdateEvent reserve(String orderId, String productId, Integer quantity) {
+        return inventoryService.processOrderEvent(orderId, productId, quantity);
+    }
+}
@@ -0,0 +1,16 @@
+package com.poc.inventory.reservation;
+
+import com.poc.shared.events.InventoryUpdateEvent;
+
+/**
+ * Reserves stock for one order. The implementation is selected with
+ * {@code inventory.reservation.mode}.
+ * <p>
+ * Every implementation records the order as processed in the same
+ * transaction as its reservation, see {@code JpaProcessedEventStore}.
+ */
+public interface InventoryReserver {
+    
+    /** The outcome, or null if the order was already processed and nothing was reserved. */
+    InventoryUpdateEvent reserve(String orderId, String productId, Integer quantity);
+}
@@ -0,0 +1,287 @@
+package com.poc.inventory.reservation;
+
+import com.poc.inventory.idempotency.JpaProcessedEventStore;
+import com.poc.shared.events.InventoryUpdateEvent;
+import com.poc.shared.idempotency.IdempotencyFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory reservation engine for hot SKUs. Products are sharded by hash
+ * across single-writer lanes; each lane owns the counts of its products, so
+ * reservations on one SKU are applied one after another without database
+ * conflicts.
+ * <p>
+ * A lane drains whatever is queued, decides every reservation against its
+ * in-memory counts, then writes the net change per product to the inventory
+ * table in one JDBC batch and transaction, together with the batch's
+ * processed_event rows. Orders already recorded there are skipped without
+ * touching stock. Callers are released only after
+ * that commit, so an acknowledged message is always durable. Counts are loaded
+ * from the table the first time a lane touches a product, which is also how a
+ * restarted instance recovers.
+ * <p>
+ * The engine must be the only writer of the products it serves: run one
+ * inventory instance in this mode, or route order events so each product is
+ * always consumed by the same instance. The UPDATE keeps
+ * {@code available_quantity >= delta}, so a second writer makes a batch fail
+ * and reload its counts instead of overselling.
+ * <p>
+ * A caller that gives up waiting only fails if its lane has not taken the
+ * reservation yet; once taken, the caller waits for the outcome, so a
+ * reservation that was applied is never redelivered and applied again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "inventory.reservation.mode", havingValue = "engine")
+public class ReservationEngine implements InventoryReserver {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JpaProcessedEventStore processedEventStore;
+    private final IdempotencyFilter idempotencyFilter;
+    
+    @Value("${inventory.reservation.engine.lanes:4}")
+    private int laneCount;
+    
+    @Value("${inventory.reservation.engine.max-batch:256}")
+    private int maxBatch;
+    
+    @Value("${inventory.reservation.engine.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${inventory.reservation.engine.timeout-ms:5000}")
+    private long timeoutMs;
+    
+    private Lane[] lanes;
+    private volatile boolean running;
+    
+    @PostConstruct
+    void start() {
+        running = true;
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i);
+            lanes[i].thread.start();
+        }
+        log.info("Started reservation engine with {} lanes", laneCount);
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.join(timeoutMs);
+        }
+        log.info("Stopped reservation engine");
+    }
+    
+    @Override
+    public InventoryUpdateEvent reserve(String orderId, String productId, Integer quantity) {
+        Reservation reservation = new Reservation(orderId, productId, quantity);
+        Lane lane = lanes[Math.floorMod(productId.hashCode(), lanes.length)];
+        try {
+            if (!running || !lane.queue.offer(reservation, timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Reservation lane " + lane.index + " is not accepting work");
+            }
+            return reservation.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (reservation.claimed.compareAndSet(false, true)) {
+                throw new RuntimeException("Interrupted while reserving inventory for orderId: " + orderId, e);
+            }
+            return awaitTaken(reservation);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to reserve inventory for orderId: " + orderId, e.getCause());
+        } catch (TimeoutException e) {
+            if (reservation.claimed.compareAndSet(false, true)) {
+                throw new RuntimeException("Timed out reserving inventory for orderId: " + orderId, e);
+            }
+            return awaitTaken(reservation);
+        }
+    }
+    
+    /** The lane is deciding this reservation and always completes it, applied or rolled back. */
+    private static InventoryUpdateEvent awaitTaken(Reservation reservation) {
+        try {
+            return reservation.result.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Failed to reserve inventory for orderId: " + reservation.orderId, e.getCause());
+        }
+    }
+    
+    private final class Lane implements Runnable {
+        
+        private final int index;
+        private final BlockingQueue<Reservation> queue = new LinkedBlockingQueue<>(queueCapacity);
+        private final Map<String, Stock> stocks = new HashMap<>();
+        private final Thread thread;
+        
+        private Lane(int index) {
+            this.index = index;
+            this.thread = new Thread(this, "reservation-lane-" + index);
+        }
+        
+        @Override
+        public void run() {
+            List<Reservation> batch = new ArrayList<>(maxBatch);
+            while (running || !queue.isEmpty()) {
+                try {
+                    Reservation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    // Callers that already gave up are dropped; the rest wait for this batch
+                    batch.removeIf(reservation -> !reservation.claimed.compareAndSet(false, true));
+                    process(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.error("Reservation lane {} failed a batch of {}", index, batch.size(), e);
+                    batch.forEach(reservation -> reservation.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+        
+        private void process(List<Reservation> batch) {
+            Map<Stock, Integer> deltas = new LinkedHashMap<>();
+            List<InventoryUpdateEvent> outcomes = new ArrayList<>(batch.size());
+            LocalDateTime now = LocalDateTime.now();
+            
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    List<String> orderIds = new ArrayList<>(batch.size());
+                    batch.forEach(reservation -> orderIds.add(reservation.orderId));
+                    boolean[] fresh = processedEventStore.recordNew(idempotencyFilter.consumerGroup(), orderIds);
+                    for (int i = 0; i < batch.size(); i++) {
+                        outcomes.add(fresh[i] ? decide(batch.get(i), deltas, now) : null);
+                    }
+                    writeBehind(deltas, now);
+                });
+            } catch (RuntimeException e) {
+                // Forget the touched products so their counts are reloaded from the table
+                deltas.forEach((stock, delta) -> stocks.remove(stock.productId));
+                throw e;
+            }
+            
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(outcomes.get(i));
+            }
+        }
+        
+        private InventoryUpdateEvent decide(Reservation reservation, Map<Stock, Integer> deltas, LocalDateTime now) {
+            Stock stock = stocks.get(reservation.productId);
+            if (stock == null) {
+                stock = load(reservation.productId);
+            }
+            
+            if (stock == null) {
+                return new InventoryUpdateEvent(
+                    reservation.orderId, reservation.productId, reservation.quantity, 0, false,
+                    now, "Product not found: " + reservation.productId
+                );
+            }
+            if (stock.available >= reservation.quantity) {
+                stock.available -= reservation.quantity;
+                deltas.merge(stock, reservation.quantity, Integer::sum);
+                return new InventoryUpdateEvent(
+                    reservation.orderId, reservation.productId, reservation.quantity,
+                    stock.available, true, now, null
+                );
+            }
+            return new InventoryUpdateEvent(
+                reservation.orderId, reservation.productId, reservation.quantity,
+                stock.available, false, now, "Insufficient inventory"
+            );
+        }
+        
+        private Stock load(String productId) {
+            List<Stock> found = jdbcTemplate.query(
+                "SELECT available_quantity FROM inventory WHERE product_id = ?",
+                (rs, rowNum) -> new Stock(productId, rs.getInt(1)),
+                productId);
+            if (found.isEmpty()) {
+                return null;
+            }
+            stocks.put(productId, found.get(0));
+            return found.get(0);
+        }
+        
+        private void writeBehind(Map<Stock, Integer> deltas, LocalDateTime now) {
+            if (deltas.isEmpty()) {
+                return;
+            }
+            List<Object[]> args = new ArrayList<>(deltas.size());
+            Timestamp lastUpdated = Timestamp.valueOf(now);
+            deltas.forEach((stock, delta) -> args.add(new Object[]{delta, delta, lastUpdated, stock.productId, delta}));
+            
+            int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE inventory SET available_quantity = available_quantity - ?, " +
+                "reserved_quantity = reserved_quantity + ?, last_updated = ?, version = version + 1 " +
+                "WHERE product_id = ? AND available_quantity >= ?",
+                args);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    // Rolls back the whole batch; the caller reloads the counts
+                    throw new IllegalStateException("Stock of product " + args.get(i)[3] + " changed outside reservation lane " + index);
+                }
+            }
+        }
+    }
+    
+    private static final class Reservation {
+        
+        private final String orderId;
+        private final String productId;
+        private final int quantity;
+        private final CompletableFuture<InventoryUpdateEvent> result = new CompletableFuture<>();
+        // Set by the lane when it takes the reservation, or by a caller that gives up before that
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        
+        private Reservation(String orderId, String productId, int quantity) {
+            this.orderId = orderId;
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+    }
+    
+    private static final class Stock {
+        
+        private final String productId;
+        private int available;
+        
+        private Stock(String productId, int available) {
+            this.productId = productId;
+            this.available = available;
+        }
+    }
+}
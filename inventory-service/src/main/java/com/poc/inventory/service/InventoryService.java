@@ -1,8 +1,10 @@
 package com.poc.inventory.service;
 
 import com.poc.inventory.entity.Inventory;
+import com.poc.inventory.idempotency.JpaProcessedEventStore;
 import com.poc.inventory.repository.InventoryRepository;
 import com.poc.shared.events.InventoryUpdateEvent;
+import com.poc.shared.idempotency.IdempotencyFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.OptimisticLockingFailureException;
@@ -21,6 +23,8 @@ import java.time.LocalDateTime;
 public class InventoryService {
     
     private final InventoryRepository inventoryRepository;
+    private final JpaProcessedEventStore processedEventStore;
+    private final IdempotencyFilter idempotencyFilter;
     
     @Transactional
     @Retryable(value = {OptimisticLockingFailureException.class}, 
@@ -29,6 +33,11 @@ public class InventoryService {
         log.info("Processing inventory update for orderId: {}, productId: {}, quantity: {}", 
                 orderId, productId, quantity);
         
+        if (!processedEventStore.recordNew(idempotencyFilter.consumerGroup(), orderId)) {
+            log.info("Order {} was already processed, not reserving again", orderId);
+            return null;
+        }
+        
         try {
             Inventory inventory = inventoryRepository.findByProductId(productId)
                     .orElseThrow(() -> new RuntimeException("Product not found: " + productId));
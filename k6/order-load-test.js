@@ -47,7 +47,7 @@ export default function () {
     });
 
     check(createResponse, {
-        'create order success': (r) => r.status === 200
+        'create order success': (r) => r.status === 200 || r.status === 202
     });
 
     // Occasionally test read endpoints (5% of requests)
@@ -24,6 +24,6 @@ export default function () {
     });
 
     check(createResponse, {
-        'create order success': (r) => r.status === 200
+        'create order success': (r) => r.status === 200 || r.status === 202
     });
 }
\ No newline at end of file
@@ -1,59 +1,212 @@
 package com.poc.notification.client;
 
 import com.poc.shared.events.NotificationEvent;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Email sends are coalesced into bulk provider calls: pending requests are
+ * buffered until {@code max-size} is reached or {@code linger-ms} has passed,
+ * then posted in one request on a pooled, non-blocking connection. Each
+ * notification gets a future completed from its own entry in the bulk
+ * response, so no thread waits on an in-flight email.
+ * <p>
+ * Batches are only cut when a bulk call slot can take them, so a slow
+ * provider backs pending emails up in the sink instead of failing the
+ * pipeline. If the pipeline fails anyway, every outstanding email is failed
+ * (its message is retried) and the pipeline resubscribes.
+ * <p>
+ * With {@code notification.email.mode=simulated} (the default, as the
+ * provider URL is a mock) the bulk call is replaced by a timed delay.
+ */
 @Slf4j
 @Component
 public class EmailClient {
     
     private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final boolean simulated;
+    private final String bulkPath;
+    private final Duration responseTimeout;
+    private final Sinks.Many<PendingEmail> pending;
+    private final Set<PendingEmail> outstanding = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Disposable batcher;
     
-    public EmailClient() {
+    public EmailClient(
+            @Value("${notification.email.base-url:https://api.emailservice.com}") String baseUrl,
+            @Value("${notification.email.mode:simulated}") String mode,
+            @Value("${notification.email.bulk-path:/v1/emails/bulk}") String bulkPath,
+            @Value("${notification.email.batch.max-size:100}") int batchMaxSize,
+            @Value("${notification.email.batch.linger-ms:20}") long lingerMs,
+            @Value("${notification.email.batch.max-concurrent-requests:8}") int maxConcurrentRequests,
+            @Value("${notification.email.pool.max-connections:16}") int maxConnections,
+            @Value("${notification.email.response-timeout-ms:5000}") long responseTimeoutMs) {
+        this.connectionProvider = ConnectionProvider.builder("email-client")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(maxConcurrentRequests * 4)
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        this.responseTimeout = Duration.ofMillis(responseTimeoutMs);
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 2000)
+                .responseTimeout(responseTimeout);
         this.webClient = WebClient.builder()
-                .baseUrl("https://api.emailservice.com") // Mock URL
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
+        this.simulated = "simulated".equalsIgnoreCase(mode);
+        this.bulkPath = bulkPath;
+        
+        // Multicast without auto-cancel keeps the sink open while the pipeline resubscribes
+        this.pending = Sinks.many().multicast().onBackpressureBuffer(batchMaxSize * maxConcurrentRequests, false);
+        this.batcher = pending.asFlux()
+                .bufferTimeout(batchMaxSize, Duration.ofMillis(lingerMs), true)
+                .flatMap(this::sendBatch, maxConcurrentRequests)
+                .doOnError(this::failOutstanding)
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofMillis(100)).maxBackoff(Duration.ofSeconds(5)))
+                .subscribe(null, e -> log.error("Email batching stopped", e));
     }
     
     public void sendEmail(NotificationEvent notification) {
-        log.info("Sending email to: {} for order: {}", 
+        try {
+            sendEmailAsync(notification).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Email sending failed", e.getCause());
+        }
+    }
+    
+    public CompletableFuture<Void> sendEmailAsync(NotificationEvent notification) {
+        log.debug("Queueing email to: {} for order: {}", 
                 notification.getRecipient(), notification.getOrderId());
         
+        EmailRequest request = new EmailRequest(
+            notification.getRecipient(),
+            "Order Confirmation - " + notification.getOrderId(),
+            notification.getMessage(),
+            notification.getTemplateId()
+        );
+        // The sequence keeps refs unique when a retry of the same order lands in the same batch
+        PendingEmail email = new PendingEmail(notification.getOrderId() + ":" + sequence.incrementAndGet(), 
+                notification.getOrderId(), request, new CompletableFuture<>());
+        outstanding.add(email);
+        email.result().whenComplete((ignored, error) -> outstanding.remove(email));
+        
         try {
-            // Mock external email service call
-            EmailRequest request = new EmailRequest(
-                notification.getRecipient(),
-                "Order Confirmation - " + notification.getOrderId(),
-                notification.getMessage(),
-                notification.getTemplateId()
-            );
-            
-            // In real implementation, this would be an actual HTTP call
-            // For now, we'll just simulate the call
-            simulateEmailSend(request);
-            
-            log.info("Successfully sent email for order: {}", notification.getOrderId());
-            
-        } catch (Exception e) {
-            log.error("Failed to send email for order: {}", notification.getOrderId(), e);
-            throw new RuntimeException("Email sending failed", e);
+            // Sinks reject concurrent emits and emits into a full buffer, retry briefly before failing the send
+            pending.emitNext(email, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        } catch (RuntimeException e) {
+            email.result().completeExceptionally(e);
         }
+        return email.result();
     }
     
-    private void simulateEmailSend(EmailRequest request) {
-        // Simulate network delay
-        try {
-            Thread.sleep(100);
-            log.debug("Mock email sent to: {}", request.getTo());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Email simulation interrupted", e);
+    private Mono<Void> sendBatch(List<PendingEmail> batch) {
+        Map<String, PendingEmail> byRef = new HashMap<>(batch.size() * 2);
+        List<BulkEmailRequest.Message> messages = new ArrayList<>(batch.size());
+        for (PendingEmail email : batch) {
+            // Already failed when an earlier pipeline broke, the message is being retried
+            if (!email.result().isDone()) {
+                byRef.put(email.clientRef(), email);
+                messages.add(new BulkEmailRequest.Message(email.clientRef(), email.request()));
+            }
+        }
+        if (messages.isEmpty()) {
+            return Mono.empty();
         }
+        
+        Mono<BulkEmailResponse> response = simulated
+                ? simulateBulkSend(messages)
+                : webClient.post()
+                        .uri(bulkPath)
+                        .bodyValue(new BulkEmailRequest(messages))
+                        .retrieve()
+                        .bodyToMono(BulkEmailResponse.class)
+                        .timeout(responseTimeout);
+        
+        return response
+                .doOnNext(bulk -> complete(byRef, bulk))
+                .doOnError(e -> {
+                    log.error("Bulk email request for {} messages failed", messages.size(), e);
+                    byRef.values().forEach(email -> email.result().completeExceptionally(e));
+                })
+                .onErrorResume(e -> Mono.empty())
+                .then();
+    }
+    
+    private void complete(Map<String, PendingEmail> byRef, BulkEmailResponse bulk) {
+        if (bulk.getResults() != null) {
+            for (BulkEmailResponse.Result result : bulk.getResults()) {
+                PendingEmail email = byRef.remove(result.getClientRef());
+                if (email == null) {
+                    continue;
+                }
+                if (result.isAccepted()) {
+                    log.info("Successfully sent email for order: {}", email.orderId());
+                    email.result().complete(null);
+                } else {
+                    log.error("Email rejected for order: {} - {}", email.orderId(), result.getError());
+                    email.result().completeExceptionally(
+                            new IllegalStateException("Email rejected: " + result.getError()));
+                }
+            }
+        }
+        // Anything the provider did not report on is treated as failed
+        byRef.values().forEach(email -> email.result().completeExceptionally(
+                new IllegalStateException("No result for email to " + email.request().getTo())));
+    }
+    
+    private void failOutstanding(Throwable error) {
+        log.error("Email batching failed, failing {} outstanding emails and resubscribing", outstanding.size(), error);
+        for (PendingEmail email : outstanding) {
+            email.result().completeExceptionally(error);
+        }
+    }
+    
+    private Mono<BulkEmailResponse> simulateBulkSend(List<BulkEmailRequest.Message> messages) {
+        // Simulate one network round trip per bulk call
+        return Mono.delay(Duration.ofMillis(100))
+                .map(ignored -> {
+                    List<BulkEmailResponse.Result> results = new ArrayList<>(messages.size());
+                    for (BulkEmailRequest.Message message : messages) {
+                        results.add(new BulkEmailResponse.Result(message.getClientRef(), true, null));
+                    }
+                    log.debug("Mock bulk email sent: {} messages", messages.size());
+                    return new BulkEmailResponse(results);
+                });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pending.tryEmitComplete();
+        batcher.dispose();
+        connectionProvider.disposeLater().block(Duration.ofSeconds(5));
+    }
+    
+    private record PendingEmail(String clientRef, String orderId, EmailRequest request, CompletableFuture<Void> result) {
     }
     
     public static class EmailRequest {
@@ -75,4 +228,73 @@ public class EmailClient {
         public String getBody() { return body; }
         public String getTemplateId() { return templateId; }
     }
-}
\ No newline at end of file
+    
+    public static class BulkEmailRequest {
+        private List<Message> messages;
+        
+        public BulkEmailRequest(List<Message> messages) {
+            this.messages = messages;
+        }
+        
+        public List<Message> getMessages() { return messages; }
+        
+        public static class Message {
+            private String clientRef;
+            private String to;
+            private String subject;
+            private String body;
+            private String templateId;
+            
+            public Message(String clientRef, EmailRequest request) {
+                this.clientRef = clientRef;
+                this.to = request.getTo();
+                this.subject = request.getSubject();
+                this.body = request.getBody();
+                this.templateId = request.getTemplateId();
+            }
+            
+            // Getters
+            public String getClientRef() { return clientRef; }
+            public String getTo() { return to; }
+            public String getSubject() { return subject; }
+            public String getBody() { return body; }
+            public String getTemplateId() { return templateId; }
+        }
+    }
+    
+    public static class BulkEmailResponse {
+        private List<Result> results;
+        
+        public BulkEmailResponse() {
+        }
+        
+        public BulkEmailResponse(List<Result> results) {
+            this.results = results;
+        }
+        
+        public List<Result> getResults() { return results; }
+        public void setResults(List<Result> results) { this.results = results; }
+        
+        public static class Result {
+            private String clientRef;
+            private boolean accepted;
+            private String error;
+            
+            public Result() {
+            }
+            
+            public Result(String clientRef, boolean accepted, String error) {
+                this.clientRef = clientRef;
+                this.accepted = accepted;
+                this.error = error;
+            }
+            
+            public String getClientRef() { return clientRef; }
+            public void setClientRef(String clientRef) { this.clientRef = clientRef; }
+            public boolean isAccepted() { return accepted; }
+            public void setAccepted(boolean accepted) { this.accepted = accepted; }
+            public String getError() { return error; }
+            public void setError(String error) { this.error = error; }
+        }
+    }
+}
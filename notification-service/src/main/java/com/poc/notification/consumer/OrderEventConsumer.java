@@ -1,42 +1,203 @@
 package com.poc.notification.consumer;
 
 import com.poc.notification.service.NotificationService;
+import com.poc.shared.codec.EventContentTypes;
+import com.poc.shared.codec.OrderEventField;
+import com.poc.shared.codec.OrderEventReader;
+import com.poc.shared.dispatch.ContiguousAckTracker;
+import com.poc.shared.dispatch.KeyedDispatcher;
 import com.poc.shared.events.OrderCreatedEvent;
-import com.poc.shared.utils.EventUtils;
-import lombok.RequiredArgsConstructor;
+import com.poc.shared.idempotency.IdempotencyFilter;
+import com.poc.shared.lag.EventLagRecorder;
+import com.rabbitmq.client.Channel;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+/**
+ * With manual acks the listener thread only decodes and hands each order to
+ * a {@link KeyedDispatcher} lane chosen by partition key (customerId), so
+ * one customer's notifications stay in order while different customers are
+ * handled in parallel, up to the Rabbit prefetch. Acks are cumulative and
+ * only cover contiguously finished deliveries; a message that still fails
+ * after retries is nacked on its own and dead-lettered to notification-dlq.
+ * <p>
+ * Without a channel header (auto ack, test binder) messages are handled
+ * inline and the binder's retry and DLQ handling applies as before.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OrderEventConsumer {
     
+    private static final String PARTITION_KEY_HEADER = "partitionKey";
+    private static final String BINDING = "processOrderEvents-in-0";
+    
     private final NotificationService notificationService;
-    private final EventUtils eventUtils;
+    private final OrderEventReader orderEventReader;
+    private final IdempotencyFilter idempotencyFilter;
+    private final EventLagRecorder lagRecorder;
+    private final KeyedDispatcher dispatcher;
+    private final Map<Channel, ContiguousAckTracker> ackTrackers = Collections.synchronizedMap(new WeakHashMap<>());
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    
+    public OrderEventConsumer(NotificationService notificationService,
+                              OrderEventReader orderEventReader,
+                              IdempotencyFilter idempotencyFilter,
+                              EventLagRecorder lagRecorder,
+                              @Value("${notification.consumer.workers:0}") int workers,
+                              @Value("${notification.consumer.queue-capacity:256}") int queueCapacity,
+                              @Value("${notification.consumer.max-attempts:3}") int maxAttempts,
+                              @Value("${notification.consumer.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.notificationService = notificationService;
+        this.orderEventReader = orderEventReader;
+        this.idempotencyFilter = idempotencyFilter;
+        this.lagRecorder = lagRecorder;
+        this.dispatcher = new KeyedDispatcher("notification-worker", workers, queueCapacity);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+    }
     
     @Bean
-    public Consumer<String> processOrderEvents() {
+    public Consumer<Message<byte[]>> processOrderEvents() {
+        // Every field a notification template can reference, see CompiledTemplate
+        OrderEventReader.Selection fields = orderEventReader.select(
+                OrderEventField.ORDER_ID, OrderEventField.CUSTOMER_ID, OrderEventField.PRODUCT_ID,
+                OrderEventField.QUANTITY, OrderEventField.PRICE, OrderEventField.STATUS);
+        
         return message -> {
+            EventLagRecorder.Receipt receipt = lagRecorder.received(BINDING, message.getHeaders());
+            Channel channel = message.getHeaders().get(AmqpHeaders.CHANNEL, Channel.class);
+            Long deliveryTag = message.getHeaders().get(AmqpHeaders.DELIVERY_TAG, Long.class);
+            boolean manualAck = channel != null && deliveryTag != null;
+            if (manualAck) {
+                // Registered in delivery order, before any worker can finish it
+                tracker(channel).register(deliveryTag);
+            }
+            
+            OrderCreatedEvent orderEvent;
             try {
-                log.debug("Received order event message: {}", message);
-                
-                OrderCreatedEvent orderEvent = eventUtils.deserialize(message, OrderCreatedEvent.class);
-                log.info("Processing notification for order: {}, customer: {}", 
-                        orderEvent.getOrderId(), orderEvent.getCustomerId());
-                
-                notificationService.processOrderCreatedEvent(orderEvent);
-                
-                log.info("Successfully processed notification for order: {}", orderEvent.getOrderId());
+                String contentType = EventContentTypes.of(message.getHeaders().get(MessageHeaders.CONTENT_TYPE));
+                log.debug("Received order event message: {} bytes, contentType: {}", 
+                        message.getPayload().length, contentType);
                 
+                // Not pooled: notifications are handed to other threads
+                orderEvent = orderEventReader.read(message.getPayload(), contentType, fields);
             } catch (Exception e) {
-                log.error("Failed to process order event message: {}", message, e);
-                // In a production system, this would go to a dead letter queue
-                throw e;
+                log.error("Failed to process order event message: {}", message.getHeaders(), e);
+                if (!manualAck) {
+                    throw e;
+                }
+                // Undecodable, retrying will not help
+                settle(channel, deliveryTag, false, false);
+                return;
+            }
+            
+            if (!manualAck) {
+                handle(orderEvent);
+                lagRecorder.done(receipt);
+                return;
+            }
+            
+            String key = message.getHeaders().get(PARTITION_KEY_HEADER, String.class);
+            try {
+                dispatcher.submit(key != null ? key : orderEvent.getCustomerId(), 
+                        () -> {
+                            boolean handled = handleWithRetries(orderEvent);
+                            if (handled) {
+                                // Includes the wait for the key lane
+                                lagRecorder.done(receipt);
+                            }
+                            settle(channel, deliveryTag, handled, false);
+                        });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // Never reaches a lane: requeue it so the tag does not hold back later acks
+                settle(channel, deliveryTag, false, true);
+                log.warn("Interrupted while dispatching order: {}", orderEvent.getOrderId());
             }
         };
     }
-}
\ No newline at end of file
+    
+    private void handle(OrderCreatedEvent orderEvent) {
+        try {
+            if (idempotencyFilter.isDuplicate(orderEvent.getOrderId())) {
+                log.info("Skipping redelivered notification for order: {}", orderEvent.getOrderId());
+                return;
+            }
+            log.info("Processing notification for order: {}, customer: {}", 
+                    orderEvent.getOrderId(), orderEvent.getCustomerId());
+            
+            notificationService.processOrderCreatedEvent(orderEvent);
+            idempotencyFilter.markProcessed(orderEvent.getOrderId());
+            
+            log.info("Successfully processed notification for order: {}", orderEvent.getOrderId());
+            
+        } catch (Exception e) {
+            log.error("Failed to process notification for order: {}", orderEvent.getOrderId(), e);
+            // In a production system, this would go to a dead letter queue
+            throw e;
+        }
+    }
+    
+    private boolean handleWithRetries(OrderCreatedEvent orderEvent) {
+        long backoffMs = retryBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                handle(orderEvent);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    return false;
+                }
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoffMs *= 2;
+        }
+    }
+    
+    private void settle(Channel channel, long deliveryTag, boolean success, boolean requeue) {
+        ContiguousAckTracker tracker = tracker(channel);
+        // Channels are not thread-safe; the tracker lock also orders acks
+        synchronized (tracker) {
+            try {
+                if (!success) {
+                    channel.basicNack(deliveryTag, false, requeue);
+                }
+                long ackUpTo = tracker.complete(deliveryTag, success);
+                if (ackUpTo >= 0) {
+                    channel.basicAck(ackUpTo, true);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Unacked deliveries are redelivered once the channel closes
+                log.error("Failed to settle delivery {} on channel {}", deliveryTag, channel, e);
+            }
+        }
+    }
+    
+    private ContiguousAckTracker tracker(Channel channel) {
+        return ackTrackers.computeIfAbsent(channel, ignored -> new ContiguousAckTracker());
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        dispatcher.close();
+    }
+}
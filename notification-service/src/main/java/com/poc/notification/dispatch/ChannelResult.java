@@ -0,0 +1,15 @@
+package com.poc.notification.dispatch;
+
+/**
+ * Outcome of one channel send for one order.
+ */
+public record ChannelResult(String channel, boolean delivered, long elapsedMillis, Throwable error) {
+    
+    static ChannelResult delivered(String channel, long elapsedMillis) {
+        return new ChannelResult(channel, true, elapsedMillis, null);
+    }
+    
+    static ChannelResult failed(String channel, long elapsedMillis, Throwable error) {
+        return new ChannelResult(channel, false, elapsedMillis, error);
+    }
+}
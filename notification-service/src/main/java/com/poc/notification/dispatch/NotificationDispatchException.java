@@ -0,0 +1,30 @@
+package com.poc.notification.dispatch;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when at least one channel failed, carrying every channel's result.
+ * The message is retried (and eventually dead-lettered), but channels that
+ * already delivered are skipped on the retry.
+ */
+@Getter
+public class NotificationDispatchException extends RuntimeException {
+    
+    private final String orderId;
+    private final List<ChannelResult> results;
+    
+    public NotificationDispatchException(String orderId, List<ChannelResult> results) {
+        super("Notification dispatch failed for order " + orderId + ": " + results.stream()
+                .filter(result -> !result.delivered())
+                .map(result -> result.channel() + " (" + result.error() + ")")
+                .collect(Collectors.joining(", ")));
+        this.orderId = orderId;
+        this.results = results;
+        results.stream()
+                .filter(result -> !result.delivered() && result.error() != null)
+                .forEach(result -> addSuppressed(result.error()));
+    }
+}
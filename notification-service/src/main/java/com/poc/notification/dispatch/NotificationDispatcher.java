@@ -0,0 +1,138 @@
+package com.poc.notification.dispatch;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the channel sends of one message concurrently and waits for all of
+ * them, so the consumer thread only acknowledges once every channel has
+ * finished and a failure still reaches the binder's retry and DLQ handling.
+ * <p>
+ * Channels with a non-blocking client hand back their own future; blocking
+ * ones are wrapped with {@link #blocking(Runnable)} and run on a fixed pool.
+ * A semaphore caps sends in flight across all messages and blocks the consumer
+ * thread when it is exhausted.
+ */
+@Slf4j
+@Component
+public class NotificationDispatcher {
+    
+    private final ThreadPoolExecutor executor;
+    private final Semaphore inFlight;
+    private final long timeoutNanos;
+    
+    public NotificationDispatcher(
+            @Value("${notification.dispatch.threads:16}") int threads,
+            @Value("${notification.dispatch.max-in-flight:64}") int maxInFlight,
+            @Value("${notification.dispatch.timeout-ms:5000}") long timeoutMs) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "notification-dispatch-" + threadIndex.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+    
+    /**
+     * Adapts a blocking send to run on the dispatch pool.
+     */
+    public Supplier<CompletionStage<?>> blocking(Runnable send) {
+        return () -> CompletableFuture.runAsync(send, executor);
+    }
+    
+    /**
+     * Starts every channel and returns one result per channel, in the given
+     * order. Never throws for a channel failure; the caller decides.
+     */
+    public List<ChannelResult> dispatch(String orderId, Map<String, Supplier<CompletionStage<?>>> sends) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        Map<String, CompletableFuture<ChannelResult>> pending = new LinkedHashMap<>();
+        List<ChannelResult> results = new ArrayList<>(sends.size());
+        
+        try {
+            for (Map.Entry<String, Supplier<CompletionStage<?>>> send : sends.entrySet()) {
+                if (!inFlight.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    results.add(ChannelResult.failed(send.getKey(), 0, 
+                            new TimeoutException("No dispatch capacity for order " + orderId)));
+                    continue;
+                }
+                pending.put(send.getKey(), start(send.getKey(), send.getValue()));
+            }
+            
+            for (Map.Entry<String, CompletableFuture<ChannelResult>> result : pending.entrySet()) {
+                results.add(await(result.getKey(), result.getValue(), deadline));
+            }
+        } catch (InterruptedException e) {
+            pending.values().forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dispatching notifications for order " + orderId, e);
+        }
+        
+        return results;
+    }
+    
+    private CompletableFuture<ChannelResult> start(String channel, Supplier<CompletionStage<?>> send) {
+        long start = System.nanoTime();
+        CompletableFuture<?> future;
+        try {
+            future = send.get().toCompletableFuture();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        // Released on the send itself, the result future may be cancelled on timeout
+        future.whenComplete((ignored, error) -> inFlight.release());
+        return future.handle((ignored, error) -> {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return error == null
+                    ? ChannelResult.delivered(channel, elapsedMillis)
+                    : ChannelResult.failed(channel, elapsedMillis, unwrap(error));
+        });
+    }
+    
+    private ChannelResult await(String channel, CompletableFuture<ChannelResult> result, long deadline) 
+            throws InterruptedException {
+        try {
+            return result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            return ChannelResult.failed(channel, 0, e.getCause());
+        } catch (TimeoutException | CancellationException e) {
+            result.cancel(true);
+            return ChannelResult.failed(channel, TimeUnit.NANOSECONDS.toMillis(timeoutNanos), e);
+        }
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Notification dispatch did not drain in time, {} sends dropped", 
+                    executor.shutdownNow().size());
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.poc.notification.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Additive-increase, multiplicative-decrease concurrency limit. A call that
+ * succeeds within the latency threshold while the window is in use grows the
+ * limit by about one per window; a failure or a slow call shrinks it by the
+ * backoff ratio. In-flight calls never exceed the current limit.
+ */
+final class AimdLimiter {
+    
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+    
+    private double limit;
+    private int inFlight;
+    
+    AimdLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdMillis) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.limit = initialLimit;
+    }
+    
+    /**
+     * Waits up to the timeout for a slot; false if none freed up.
+     */
+    synchronized boolean acquire(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (inFlight >= (int) limit) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        inFlight++;
+        return true;
+    }
+    
+    synchronized void release(long rttNanos, boolean success) {
+        // Only grow when the window is actually used, otherwise an idle channel drifts to max
+        boolean saturated = inFlight * 2 >= (int) limit;
+        inFlight--;
+        if (!success || rttNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+        notifyAll();
+    }
+    
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+    
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
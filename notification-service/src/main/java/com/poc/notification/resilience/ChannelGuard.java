@@ -0,0 +1,80 @@
+package com.poc.notification.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Concurrency limit and circuit breaker in front of one outbound channel.
+ * <p>
+ * An open circuit fails the send immediately, so the message goes through
+ * the binder's retries to the DLQ without touching the provider. A full
+ * window makes the caller wait (backpressure on the consumer) up to the
+ * acquire timeout before failing the same way.
+ */
+public class ChannelGuard {
+    
+    private final String channel;
+    private final AimdLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final long acquireTimeoutMillis;
+    private final Counter rejectedByCircuit;
+    private final Counter rejectedByLimit;
+    
+    ChannelGuard(String channel, AimdLimiter limiter, CircuitBreaker circuitBreaker, 
+                 long acquireTimeoutMillis, MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.limiter = limiter;
+        this.circuitBreaker = circuitBreaker;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        
+        Gauge.builder("poc.notification.channel.limit", limiter, AimdLimiter::getLimit)
+                .tag("channel", channel).register(meterRegistry);
+        Gauge.builder("poc.notification.channel.in-flight", limiter, AimdLimiter::getInFlight)
+                .tag("channel", channel).register(meterRegistry);
+        Gauge.builder("poc.notification.channel.circuit-state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .tag("channel", channel).register(meterRegistry);
+        this.rejectedByCircuit = Counter.builder("poc.notification.channel.rejected")
+                .tag("channel", channel).tag("reason", "circuit-open").register(meterRegistry);
+        this.rejectedByLimit = Counter.builder("poc.notification.channel.rejected")
+                .tag("channel", channel).tag("reason", "limit").register(meterRegistry);
+    }
+    
+    public CompletionStage<?> execute(Supplier<? extends CompletionStage<?>> send) {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedByCircuit.increment();
+            return CompletableFuture.failedFuture(new ChannelUnavailableException(channel + " circuit is open"));
+        }
+        
+        try {
+            if (!limiter.acquire(acquireTimeoutMillis)) {
+                rejectedByLimit.increment();
+                // Not the provider's fault, hand the permit back unjudged
+                circuitBreaker.cancel();
+                return CompletableFuture.failedFuture(new ChannelUnavailableException(
+                        channel + " concurrency limit " + limiter.getLimit() + " reached"));
+            }
+        } catch (InterruptedException e) {
+            circuitBreaker.cancel();
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        long start = System.nanoTime();
+        CompletionStage<?> result;
+        try {
+            result = send.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((ignored, error) -> {
+            limiter.release(System.nanoTime() - start, error == null);
+            circuitBreaker.record(error == null);
+        });
+    }
+}
@@ -0,0 +1,63 @@
+package com.poc.notification.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One {@link ChannelGuard} per notification channel, created on first use
+ * from the {@code notification.resilience} settings.
+ */
+@Component
+public class ChannelGuards {
+    
+    private final Map<String, ChannelGuard> guards = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${notification.resilience.limit.initial:20}")
+    private int initialLimit;
+    
+    @Value("${notification.resilience.limit.min:1}")
+    private int minLimit;
+    
+    @Value("${notification.resilience.limit.max:200}")
+    private int maxLimit;
+    
+    @Value("${notification.resilience.limit.backoff-ratio:0.9}")
+    private double backoffRatio;
+    
+    @Value("${notification.resilience.limit.latency-threshold-ms:1000}")
+    private long latencyThresholdMs;
+    
+    @Value("${notification.resilience.limit.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+    
+    @Value("${notification.resilience.breaker.window-size:50}")
+    private int windowSize;
+    
+    @Value("${notification.resilience.breaker.minimum-calls:20}")
+    private int minimumCalls;
+    
+    @Value("${notification.resilience.breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+    
+    @Value("${notification.resilience.breaker.open-ms:10000}")
+    private long openMs;
+    
+    @Value("${notification.resilience.breaker.half-open-calls:5}")
+    private int halfOpenCalls;
+    
+    public ChannelGuards(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    public ChannelGuard forChannel(String channel) {
+        return guards.computeIfAbsent(channel, name -> new ChannelGuard(name,
+                new AimdLimiter(initialLimit, minLimit, maxLimit, backoffRatio, latencyThresholdMs),
+                new CircuitBreaker(windowSize, minimumCalls, failureRateThreshold, openMs, halfOpenCalls),
+                acquireTimeoutMs, meterRegistry));
+    }
+}
@@ -0,0 +1,12 @@
+package com.poc.notification.resilience;
+
+/**
+ * A send refused before reaching the provider, because the channel's circuit
+ * is open or no concurrency slot freed up in time.
+ */
+public class ChannelUnavailableException extends RuntimeException {
+    
+    public ChannelUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,106 @@
+package com.poc.notification.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count-based circuit breaker. Opens when the failure rate over the last
+ * {@code windowSize} calls reaches the threshold, rejects everything while
+ * open, then lets {@code halfOpenCalls} probes through; the probes decide
+ * whether it closes or opens again.
+ */
+final class CircuitBreaker {
+    
+    enum State { CLOSED, OPEN, HALF_OPEN }
+    
+    private final boolean[] outcomes;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failures;
+    private long openedAt;
+    private int probesStarted;
+    private int probesSucceeded;
+    
+    CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis, int halfOpenCalls) {
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.halfOpenCalls = halfOpenCalls;
+    }
+    
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            probesStarted = 0;
+            probesSucceeded = 0;
+        }
+        if (state == State.OPEN) {
+            return false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= halfOpenCalls) {
+                return false;
+            }
+            probesStarted++;
+        }
+        return true;
+    }
+    
+    synchronized void record(boolean success) {
+        if (state == State.HALF_OPEN) {
+            if (!success) {
+                open();
+            } else if (++probesSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            return;
+        }
+        
+        if (recorded == outcomes.length) {
+            failures -= outcomes[next] ? 0 : 1;
+        } else {
+            recorded++;
+        }
+        outcomes[next] = success;
+        failures += success ? 0 : 1;
+        next = (next + 1) % outcomes.length;
+        
+        if (recorded >= minimumCalls && (double) failures / recorded >= failureRateThreshold) {
+            open();
+        }
+    }
+    
+    /**
+     * Gives back a permit whose call never ran, without counting an outcome.
+     */
+    synchronized void cancel() {
+        if (state == State.HALF_OPEN && probesStarted > 0) {
+            probesStarted--;
+        }
+    }
+    
+    synchronized State getState() {
+        return state;
+    }
+    
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+    
+    private void close() {
+        state = State.CLOSED;
+        recorded = 0;
+        next = 0;
+        failures = 0;
+    }
+}
@@ -2,52 +2,90 @@ package com.poc.notification.service;
 
 import com.poc.notification.client.EmailClient;
 import com.poc.notification.client.PushNotificationClient;
+import com.poc.notification.dispatch.ChannelResult;
+import com.poc.notification.dispatch.NotificationDispatchException;
+import com.poc.notification.dispatch.NotificationDispatcher;
+import com.poc.notification.resilience.ChannelGuard;
+import com.poc.notification.resilience.ChannelGuards;
+import com.poc.notification.template.TemplateRegistry;
 import com.poc.shared.events.NotificationEvent;
 import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.idempotency.IdempotencyFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
 
+/**
+ * Sends an order's email and push notifications. Each channel that delivers
+ * is remembered in the idempotency filter under {@code orderId:channel}, so
+ * when the other channel fails, the retry or redelivery only resends the
+ * failed one.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class NotificationService {
     
+    private static final String EMAIL_TEMPLATE_ID = "order-confirmation";
+    private static final String PUSH_TEMPLATE_ID = "order-push";
+    
     private final EmailClient emailClient;
     private final PushNotificationClient pushNotificationClient;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TemplateRegistry templateRegistry;
+    private final ChannelGuards channelGuards;
+    private final IdempotencyFilter idempotencyFilter;
     
     public void processOrderCreatedEvent(OrderCreatedEvent orderEvent) {
         log.info("Processing notification for order: {}, customer: {}", 
                 orderEvent.getOrderId(), orderEvent.getCustomerId());
         
-        try {
-            // Send email notification
-            NotificationEvent emailEvent = createEmailNotification(orderEvent);
-            emailClient.sendEmail(emailEvent);
-            
-            // Send push notification
-            NotificationEvent pushEvent = createPushNotification(orderEvent);
-            pushNotificationClient.sendPushNotification(pushEvent);
-            
-            log.info("Successfully sent notifications for order: {}", orderEvent.getOrderId());
-            
-        } catch (Exception e) {
+        NotificationEvent emailEvent = createEmailNotification(orderEvent);
+        NotificationEvent pushEvent = createPushNotification(orderEvent);
+        
+        ChannelGuard emailGuard = channelGuards.forChannel(emailEvent.getNotificationType());
+        ChannelGuard pushGuard = channelGuards.forChannel(pushEvent.getNotificationType());
+        Supplier<CompletionStage<?>> pushSend = notificationDispatcher.blocking(
+                () -> pushNotificationClient.sendPushNotification(pushEvent));
+        
+        // Channels are independent, send them concurrently and wait for both
+        Map<String, Supplier<CompletionStage<?>>> sends = new LinkedHashMap<>();
+        sends.put(emailEvent.getNotificationType(), () -> emailGuard.execute(() -> emailClient.sendEmailAsync(emailEvent)));
+        sends.put(pushEvent.getNotificationType(), () -> pushGuard.execute(pushSend));
+        // Channels an earlier attempt already delivered are not sent again
+        sends.keySet().removeIf(channel -> idempotencyFilter.isDuplicate(channelKey(orderEvent, channel)));
+        if (sends.isEmpty()) {
+            log.info("All notifications for order {} were already sent", orderEvent.getOrderId());
+            return;
+        }
+        
+        List<ChannelResult> results = notificationDispatcher.dispatch(orderEvent.getOrderId(), sends);
+        results.stream()
+                .filter(ChannelResult::delivered)
+                .forEach(result -> idempotencyFilter.markProcessed(channelKey(orderEvent, result.channel())));
+        
+        if (results.stream().anyMatch(result -> !result.delivered())) {
+            NotificationDispatchException e = new NotificationDispatchException(orderEvent.getOrderId(), results);
             log.error("Failed to send notifications for order: {}", orderEvent.getOrderId(), e);
             throw e;
         }
+        
+        log.info("Successfully sent notifications for order: {} {}", orderEvent.getOrderId(), results);
+    }
+    
+    private static String channelKey(OrderCreatedEvent orderEvent, String channel) {
+        return orderEvent.getOrderId() + ':' + channel;
     }
     
     private NotificationEvent createEmailNotification(OrderCreatedEvent orderEvent) {
-        String message = String.format(
-            "Your order %s has been created successfully! " +
-            "Product: %s, Quantity: %s, Total: $%.2f",
-            orderEvent.getOrderId(),
-            orderEvent.getProductId(),
-            orderEvent.getQuantity(),
-            orderEvent.getPrice()
-        );
+        String message = templateRegistry.render(EMAIL_TEMPLATE_ID, orderEvent);
         
         return new NotificationEvent(
             orderEvent.getOrderId(),
@@ -56,18 +94,12 @@ public class NotificationService {
             message,
             orderEvent.getCustomerId() + "@example.com", // Mock email
             LocalDateTime.now(),
-            "order-confirmation"
+            EMAIL_TEMPLATE_ID
         );
     }
     
     private NotificationEvent createPushNotification(OrderCreatedEvent orderEvent) {
-        String message = String.format(
-            "Order %s confirmed! %s x%s - $%.2f",
-            orderEvent.getOrderId().substring(0, 8),
-            orderEvent.getProductId(),
-            orderEvent.getQuantity(),
-            orderEvent.getPrice()
-        );
+        String message = templateRegistry.render(PUSH_TEMPLATE_ID, orderEvent);
         
         return new NotificationEvent(
             orderEvent.getOrderId(),
@@ -76,7 +108,7 @@ public class NotificationService {
             message,
             "device_token_" + orderEvent.getCustomerId(), // Mock device token
             LocalDateTime.now(),
-            "order-push"
+            PUSH_TEMPLATE_ID
         );
     }
 }
\ No newline at end of file
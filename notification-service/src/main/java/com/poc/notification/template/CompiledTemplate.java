@@ -0,0 +1,123 @@
+package com.poc.notification.template;
+
+import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.id.IdGenerator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A template parsed once into literal and field segments. Placeholders are
+ * {@code {field}} or {@code {field:format}}; {@code {{} and {@code }}} are
+ * literal braces. Rendering appends segments in order, with no parsing.
+ * <p>
+ * Formats: {@code short} is the id display form from
+ * {@link IdGenerator#shortForm}, {@code money} prints
+ * two decimals rounded half-up, matching {@code %.2f}.
+ */
+public final class CompiledTemplate {
+    
+    private static final Map<String, Function<OrderCreatedEvent, Object>> FIELDS = Map.of(
+            "orderId", OrderCreatedEvent::getOrderId,
+            "customerId", OrderCreatedEvent::getCustomerId,
+            "productId", OrderCreatedEvent::getProductId,
+            "quantity", OrderCreatedEvent::getQuantity,
+            "price", OrderCreatedEvent::getPrice,
+            "status", OrderCreatedEvent::getStatus);
+    
+    private final String templateId;
+    private final String source;
+    private final Segment[] segments;
+    
+    private CompiledTemplate(String templateId, String source, Segment[] segments) {
+        this.templateId = templateId;
+        this.source = source;
+        this.segments = segments;
+    }
+    
+    public static CompiledTemplate compile(String templateId, String source) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if ((c == '{' || c == '}') && i + 1 < source.length() && source.charAt(i + 1) == c) {
+                literal.append(c);
+                i += 2;
+            } else if (c == '{') {
+                int end = source.indexOf('}', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed placeholder at " + i + " in template " + templateId);
+                }
+                if (literal.length() > 0) {
+                    segments.add(new Literal(literal.toString()));
+                    literal.setLength(0);
+                }
+                segments.add(field(templateId, source.substring(i + 1, end)));
+                i = end + 1;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        if (literal.length() > 0) {
+            segments.add(new Literal(literal.toString()));
+        }
+        return new CompiledTemplate(templateId, source, segments.toArray(new Segment[0]));
+    }
+    
+    public String getTemplateId() {
+        return templateId;
+    }
+    
+    public String getSource() {
+        return source;
+    }
+    
+    public void renderTo(OrderCreatedEvent event, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.append(event, out);
+        }
+    }
+    
+    private static Segment field(String templateId, String placeholder) {
+        int colon = placeholder.indexOf(':');
+        String name = colon < 0 ? placeholder : placeholder.substring(0, colon);
+        String format = colon < 0 ? "" : placeholder.substring(colon + 1);
+        Function<OrderCreatedEvent, Object> getter = FIELDS.get(name);
+        if (getter == null) {
+            throw new IllegalArgumentException("Unknown field '" + name + "' in template " + templateId);
+        }
+        switch (format) {
+            case "":
+                return (event, out) -> out.append(getter.apply(event));
+            case "short":
+                return (event, out) -> out.append(IdGenerator.shortForm(String.valueOf(getter.apply(event))));
+            case "money":
+                return (event, out) -> {
+                    Object value = getter.apply(event);
+                    out.append(value instanceof BigDecimal decimal
+                            ? decimal.setScale(2, RoundingMode.HALF_UP).toPlainString()
+                            : String.valueOf(value));
+                };
+            default:
+                throw new IllegalArgumentException("Unknown format '" + format + "' in template " + templateId);
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Segment {
+        void append(OrderCreatedEvent event, StringBuilder out);
+    }
+    
+    private record Literal(String text) implements Segment {
+        @Override
+        public void append(OrderCreatedEvent event, StringBuilder out) {
+            out.append(text);
+        }
+    }
+}
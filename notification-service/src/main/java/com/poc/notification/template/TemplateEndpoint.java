@@ -0,0 +1,25 @@
+package com.poc.notification.template;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * {@code GET /actuator/templates} lists template sources. Recompiling is
+ * left to {@link TemplateReloadEndpoint}, which is not exposed over HTTP.
+ */
+@Component
+@Endpoint(id = "templates")
+@RequiredArgsConstructor
+public class TemplateEndpoint {
+    
+    private final TemplateRegistry templateRegistry;
+    
+    @ReadOperation
+    public Map<String, String> templates() {
+        return templateRegistry.sources();
+    }
+}
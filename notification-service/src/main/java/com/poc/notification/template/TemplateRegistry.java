@@ -0,0 +1,87 @@
+package com.poc.notification.template;
+
+import com.poc.shared.events.OrderCreatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled notification templates by templateId, loaded from
+ * {@code notification.templates.location}. A template can be replaced at
+ * runtime; renders already in progress finish with the version they started
+ * with.
+ */
+@Slf4j
+@Component
+public class TemplateRegistry {
+    
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    
+    private final Resource location;
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+    
+    public TemplateRegistry(
+            @Value("${notification.templates.location:classpath:notification-templates.properties}") Resource location) {
+        this.location = location;
+        loadSources().forEach(this::register);
+    }
+    
+    public String render(String templateId, OrderCreatedEvent event) {
+        CompiledTemplate template = templates.get(templateId);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown templateId: " + templateId);
+        }
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        template.renderTo(event, out);
+        return out.toString();
+    }
+    
+    /**
+     * Compiles and swaps in a template. A template that fails to compile
+     * leaves the current one in place.
+     */
+    public CompiledTemplate register(String templateId, String source) {
+        CompiledTemplate template = CompiledTemplate.compile(templateId, source);
+        templates.put(templateId, template);
+        log.info("Registered notification template: {}", templateId);
+        return template;
+    }
+    
+    /**
+     * Re-reads one template from the templates location.
+     */
+    public CompiledTemplate reload(String templateId) {
+        String source = loadSources().get(templateId);
+        if (source == null) {
+            throw new IllegalArgumentException("No template " + templateId + " in " + location);
+        }
+        return register(templateId, source);
+    }
+    
+    public Map<String, String> sources() {
+        Map<String, String> sources = new TreeMap<>();
+        templates.forEach((templateId, template) -> sources.put(templateId, template.getSource()));
+        return sources;
+    }
+    
+    private Map<String, String> loadSources() {
+        try {
+            Properties properties = PropertiesLoaderUtils.loadProperties(location);
+            Map<String, String> sources = new TreeMap<>();
+            properties.stringPropertyNames().forEach(name -> sources.put(name, properties.getProperty(name)));
+            return sources;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load notification templates from " + location, e);
+        }
+    }
+}
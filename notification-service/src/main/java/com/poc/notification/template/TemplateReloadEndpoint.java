@@ -0,0 +1,31 @@
+package com.poc.notification.template;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Recompiles one template, from {@code source} if given, otherwise from the
+ * templates file. JMX only: there is no HTTP security in this service, so the
+ * operation is reachable only through the JVM's JMX access control.
+ */
+@Component
+@JmxEndpoint(id = "templatereload")
+@RequiredArgsConstructor
+public class TemplateReloadEndpoint {
+    
+    private final TemplateRegistry templateRegistry;
+    
+    @WriteOperation
+    public Map<String, String> reload(@Selector String templateId, @Nullable String source) {
+        CompiledTemplate template = source != null
+                ? templateRegistry.register(templateId, source)
+                : templateRegistry.reload(templateId);
+        return Map.of(template.getTemplateId(), template.getSource());
+    }
+}
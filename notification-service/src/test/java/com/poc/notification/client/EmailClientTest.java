@@ -0,0 +1,188 @@
+package com.poc.notification.client;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.poc.shared.events.NotificationEvent;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@link EmailClient} in http mode against a local bulk endpoint that
+ * answers each request with a configurable handler.
+ */
+class EmailClientTest {
+    
+    private static final String BULK_PATH = "/v1/emails/bulk";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+    private volatile Function<JsonNode, Reply> handler = this::acceptAll;
+    private HttpServer server;
+    private EmailClient client;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(BULK_PATH, this::handle);
+        server.start();
+        client = new EmailClient("http://localhost:" + server.getAddress().getPort(), "http", BULK_PATH,
+                100, 200, 4, 4, 2000);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+    
+    @Test
+    void coalescesEmailsIntoOneBulkCall() {
+        CompletableFuture<Void> first = client.sendEmailAsync(email("order-1", "a@example.com"));
+        CompletableFuture<Void> second = client.sendEmailAsync(email("order-2", "b@example.com"));
+        
+        CompletableFuture.allOf(first, second).join();
+        
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).get("messages")).hasSize(2);
+    }
+    
+    @Test
+    void sameOrderAndRecipientInOneBatchGetDistinctRefs() {
+        CompletableFuture<Void> first = client.sendEmailAsync(email("order-1", "a@example.com"));
+        CompletableFuture<Void> retry = client.sendEmailAsync(email("order-1", "a@example.com"));
+        
+        CompletableFuture.allOf(first, retry).join();
+        
+        assertThat(requests).hasSize(1);
+        JsonNode messages = requests.get(0).get("messages");
+        assertThat(Set.of(messages.get(0).get("clientRef").asText(), messages.get(1).get("clientRef").asText()))
+                .hasSize(2);
+    }
+    
+    @Test
+    void rejectedEntryFailsOnlyItsEmail() {
+        handler = request -> {
+            ArrayNode results = objectMapper.createArrayNode();
+            for (JsonNode message : request.get("messages")) {
+                boolean accepted = !message.get("to").asText().startsWith("bounce");
+                ObjectNode result = results.addObject()
+                        .put("clientRef", message.get("clientRef").asText())
+                        .put("accepted", accepted);
+                if (!accepted) {
+                    result.put("error", "mailbox unavailable");
+                }
+            }
+            return Reply.ok(objectMapper.createObjectNode().set("results", results));
+        };
+        
+        CompletableFuture<Void> delivered = client.sendEmailAsync(email("order-1", "a@example.com"));
+        CompletableFuture<Void> bounced = client.sendEmailAsync(email("order-2", "bounce@example.com"));
+        
+        assertThat(delivered).succeedsWithin(Duration.ofSeconds(5));
+        assertThatThrownBy(bounced::join).hasMessageContaining("mailbox unavailable");
+    }
+    
+    @Test
+    void emailMissingFromResponseFails() {
+        handler = request -> {
+            ArrayNode results = objectMapper.createArrayNode();
+            JsonNode message = request.get("messages").get(0);
+            results.addObject().put("clientRef", message.get("clientRef").asText()).put("accepted", true);
+            return Reply.ok(objectMapper.createObjectNode().set("results", results));
+        };
+        
+        CompletableFuture<Void> reported = client.sendEmailAsync(email("order-1", "a@example.com"));
+        CompletableFuture<Void> missing = client.sendEmailAsync(email("order-2", "b@example.com"));
+        
+        assertThat(reported).succeedsWithin(Duration.ofSeconds(5));
+        assertThatThrownBy(missing::join).hasMessageContaining("No result for email to b@example.com");
+    }
+    
+    @Test
+    void failedBulkCallFailsItsEmailsAndLaterBatchesStillSend() {
+        handler = request -> new Reply(500, objectMapper.createObjectNode().put("error", "unavailable"));
+        CompletableFuture<Void> failed = client.sendEmailAsync(email("order-1", "a@example.com"));
+        assertThatThrownBy(() -> failed.get(5, TimeUnit.SECONDS)).hasMessageContaining("500");
+        
+        handler = this::acceptAll;
+        CompletableFuture<Void> next = client.sendEmailAsync(email("order-2", "b@example.com"));
+        
+        assertThat(next).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(requests).hasSize(2);
+    }
+    
+    @Test
+    void slowProviderBacksUpInsteadOfFailing() {
+        handler = request -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return acceptAll(request);
+        };
+        client.shutdown();
+        client = new EmailClient("http://localhost:" + server.getAddress().getPort(), "http", BULK_PATH,
+                2, 1, 1, 1, 5000);
+        
+        List<CompletableFuture<Void>> sends = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            sends.add(client.sendEmailAsync(email("order-" + i, "customer-" + i + "@example.com")));
+        }
+        
+        assertThat(CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)))
+                .succeedsWithin(Duration.ofSeconds(10));
+        assertThat(requests).allSatisfy(request -> assertThat(request.get("messages").size()).isLessThanOrEqualTo(2));
+    }
+    
+    private Reply acceptAll(JsonNode request) {
+        ArrayNode results = objectMapper.createArrayNode();
+        for (JsonNode message : request.get("messages")) {
+            results.addObject().put("clientRef", message.get("clientRef").asText()).put("accepted", true);
+        }
+        return Reply.ok(objectMapper.createObjectNode().set("results", results));
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        requests.add(request);
+        Reply reply = handler.apply(request);
+        byte[] body = objectMapper.writeValueAsString(reply.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(reply.status(), body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+    
+    private static NotificationEvent email(String orderId, String to) {
+        return new NotificationEvent(orderId, "customer-1", "EMAIL", "Your order " + orderId,
+                to, LocalDateTime.now(), "order-confirmation");
+    }
+    
+    private record Reply(int status, JsonNode body) {
+        
+        static Reply ok(JsonNode body) {
+            return new Reply(200, body);
+        }
+    }
+}
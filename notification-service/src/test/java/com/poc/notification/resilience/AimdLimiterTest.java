@@ -0,0 +1,134 @@
+package com.poc.notification.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AimdLimiterTest {
+    
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+    
+    // initial 10, between 2 and 20, halves on failure, 100ms latency threshold
+    private final AimdLimiter limiter = new AimdLimiter(10, 2, 20, 0.5, 100);
+    
+    @Test
+    void failureHalvesTheLimitDownToTheMinimum() throws InterruptedException {
+        call(false, FAST);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        call(false, FAST);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        
+        for (int i = 0; i < 5; i++) {
+            call(false, FAST);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+    
+    @Test
+    void slowSuccessCountsAsOverload() throws InterruptedException {
+        call(true, SLOW);
+        
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+    
+    @Test
+    void fullWindowGrowsByAboutOnePerWindowOfCalls() throws InterruptedException {
+        fill();
+        for (int limit = 10; limit < 13; limit++) {
+            int calls = 0;
+            while (limiter.getLimit() == limit) {
+                steadyCall();
+                calls++;
+            }
+            assertThat(limiter.getLimit()).isEqualTo(limit + 1);
+            assertThat(calls).isBetween(limit, limit + 1);
+        }
+    }
+    
+    @Test
+    void growthStopsAtTheMaximum() throws InterruptedException {
+        fill();
+        for (int i = 0; i < 1_000; i++) {
+            steadyCall();
+        }
+        
+        assertThat(limiter.getLimit()).isEqualTo(20);
+        assertThat(limiter.getInFlight()).isEqualTo(20);
+    }
+    
+    @Test
+    void idleChannelDoesNotGrow() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            call(true, FAST);
+        }
+        
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+    
+    @Test
+    void inFlightNeverExceedsTheLimit() throws InterruptedException {
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.acquire(0)).isTrue();
+        }
+        assertThat(limiter.acquire(20)).isFalse();
+        
+        // Shrinks to 5 with 9 still in flight: nothing new gets in until 4 or fewer are left
+        limiter.release(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.acquire(0)).isFalse();
+            limiter.release(SLOW, true);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isEqualTo(5);
+        // Still busy relative to the limit, so fast completions grow it again
+        for (int i = 0; i < 4; i++) {
+            limiter.release(FAST, true);
+        }
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+        assertThat(limiter.acquire(0)).isTrue();
+        assertThat(limiter.acquire(0)).isTrue();
+        assertThat(limiter.acquire(0)).isFalse();
+    }
+    
+    @Test
+    void waitingCallerGetsTheReleasedSlot() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(0);
+        }
+        Thread releaser = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            limiter.release(FAST, true);
+        });
+        releaser.start();
+        
+        assertThat(limiter.acquire(5_000)).isTrue();
+        releaser.join();
+        assertThat(limiter.getInFlight()).isEqualTo(10);
+    }
+    
+    private void call(boolean success, long rttNanos) throws InterruptedException {
+        assertThat(limiter.acquire(0)).isTrue();
+        limiter.release(rttNanos, success);
+    }
+    
+    private void fill() throws InterruptedException {
+        while (limiter.getInFlight() < limiter.getLimit()) {
+            assertThat(limiter.acquire(0)).isTrue();
+        }
+    }
+    
+    // One fast completion under steady load: the window is refilled right away
+    private void steadyCall() throws InterruptedException {
+        limiter.release(FAST, true);
+        fill();
+    }
+}
@@ -0,0 +1,137 @@
+package com.poc.notification.resilience;
+
+import com.poc.notification.resilience.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+    
+    private static final long OPEN_MILLIS = 50;
+    
+    // window of 10, at least 5 calls, opens at 50% failures, 2 half-open probes
+    private final CircuitBreaker breaker = new CircuitBreaker(10, 5, 0.5, OPEN_MILLIS, 2);
+    
+    @Test
+    void staysClosedBelowMinimumCallsAndThreshold() {
+        call(false);
+        call(false);
+        call(false);
+        call(false);
+        // 4 of 4 failed, but fewer than the minimum calls
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        
+        CircuitBreaker mostlyHealthy = new CircuitBreaker(10, 5, 0.5, OPEN_MILLIS, 2);
+        for (int i = 0; i < 20; i++) {
+            assertThat(mostlyHealthy.tryAcquire()).isTrue();
+            mostlyHealthy.record(i % 3 != 0);
+        }
+        assertThat(mostlyHealthy.getState()).isEqualTo(State.CLOSED);
+    }
+    
+    @Test
+    void opensAtTheFailureRateAndRejectsWhileOpen() {
+        for (int i = 0; i < 5; i++) {
+            call(i % 2 == 0);
+        }
+        // 2 of 5 failed
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        call(false);
+        
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+    
+    @Test
+    void oldOutcomesSlideOutOfTheWindow() {
+        for (int i = 0; i < 20; i++) {
+            call(true);
+        }
+        // Only the last 10 outcomes count, so 5 failures are enough despite the 20 successes
+        for (int i = 0; i < 4; i++) {
+            call(false);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        call(false);
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+    
+    @Test
+    void halfOpenProbesCloseTheBreaker() throws InterruptedException {
+        trip();
+        waitOutOpen();
+        
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+        // Only two probes at a time
+        assertThat(breaker.tryAcquire()).isFalse();
+        breaker.record(true);
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+        breaker.record(true);
+        
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+        // Starts over with an empty window
+        for (int i = 0; i < 4; i++) {
+            call(false);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+    }
+    
+    @Test
+    void failedProbeOpensAgainForAnotherPeriod() throws InterruptedException {
+        trip();
+        waitOutOpen();
+        
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.record(false);
+        
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        waitOutOpen();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    }
+    
+    @Test
+    void cancelledProbeFreesItsPermit() throws InterruptedException {
+        trip();
+        waitOutOpen();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        
+        breaker.cancel();
+        
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    }
+    
+    @Test
+    void outcomesOfCallsStartedBeforeOpeningAreIgnored() {
+        assertThat(breaker.tryAcquire()).isTrue();
+        trip();
+        
+        breaker.record(true);
+        
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+    
+    private void trip() {
+        for (int i = 0; i < 5; i++) {
+            call(false);
+        }
+        assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    }
+    
+    private void call(boolean success) {
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.record(success);
+    }
+    
+    private static void waitOutOpen() throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(OPEN_MILLIS + 20);
+    }
+}
@@ -0,0 +1,126 @@
+package com.poc.notification.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.shared.codec.BinaryEventCodec;
+import com.poc.shared.codec.EventContentTypes;
+import com.poc.shared.codec.OrderEventField;
+import com.poc.shared.codec.OrderEventReader;
+import com.poc.shared.config.EventSerializationConfig;
+import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.id.IdGenerator;
+import com.poc.shared.utils.EventUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.ClassPathResource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The shipped templates render exactly what the {@code String.format} calls
+ * they replaced produced, except that {@code short} ids are the last 8 digits
+ * ({@link IdGenerator#shortForm}) rather than the first 8.
+ */
+class CompiledTemplateTest {
+    
+    private final TemplateRegistry registry = new TemplateRegistry(new ClassPathResource("notification-templates.properties"));
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "0.5", "19.99", "10.005", "2.345", "2.3449", "1234567.891", "-3.215", "7"})
+    void confirmationMatchesFormatOutput(String price) {
+        OrderCreatedEvent event = event(new BigDecimal(price));
+        
+        String expected = String.format(Locale.ROOT,
+                "Your order %s has been created successfully! Product: %s, Quantity: %s, Total: $%.2f",
+                event.getOrderId(), event.getProductId(), event.getQuantity(), event.getPrice());
+        
+        assertThat(registry.render("order-confirmation", event)).isEqualTo(expected);
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "19.99", "10.005", "2.345", "1234567.891"})
+    void pushMatchesFormatOutput(String price) {
+        OrderCreatedEvent event = event(new BigDecimal(price));
+        
+        String expected = String.format(Locale.ROOT, "Order %s confirmed! %s x%s - $%.2f",
+                IdGenerator.shortForm(event.getOrderId()), event.getProductId(), event.getQuantity(), event.getPrice());
+        
+        assertThat(registry.render("order-push", event)).isEqualTo(expected);
+    }
+    
+    @Test
+    void missingFieldsRenderAsNullLikeFormat() {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setOrderId("order-1");
+        
+        String expected = String.format(Locale.ROOT,
+                "Your order %s has been created successfully! Product: %s, Quantity: %s, Total: $%s",
+                "order-1", null, null, null);
+        
+        assertThat(registry.render("order-confirmation", event)).isEqualTo(expected);
+    }
+    
+    @Test
+    void rendersEveryFieldAndEscapedBraces() {
+        CompiledTemplate template = CompiledTemplate.compile("all",
+                "{{{orderId}}} {customerId} {productId} {quantity} {price} {price:money} {status} {orderId:short}");
+        OrderCreatedEvent event = event(new BigDecimal("12.5"));
+        StringBuilder out = new StringBuilder();
+        
+        template.renderTo(event, out);
+        
+        assertThat(out).hasToString("{" + event.getOrderId() + "} customer-7 laptop 3 12.5 12.50 CREATED "
+                + IdGenerator.shortForm(event.getOrderId()));
+    }
+    
+    @Test
+    void statusSurvivesTheNotificationConsumersFieldSelection() {
+        // Same selection as the notification OrderEventConsumer
+        ObjectMapper objectMapper = new EventSerializationConfig().eventObjectMapper();
+        BinaryEventCodec codec = new BinaryEventCodec();
+        OrderEventReader reader = new OrderEventReader(objectMapper, codec);
+        OrderEventReader.Selection fields = reader.select(
+                OrderEventField.ORDER_ID, OrderEventField.CUSTOMER_ID, OrderEventField.PRODUCT_ID,
+                OrderEventField.QUANTITY, OrderEventField.PRICE, OrderEventField.STATUS);
+        EventUtils eventUtils = new EventUtils(objectMapper, codec);
+        CompiledTemplate template = CompiledTemplate.compile("status", "{orderId} is {status}");
+        OrderCreatedEvent event = event(new BigDecimal("1"));
+        
+        for (String contentType : new String[]{EventContentTypes.JSON, EventContentTypes.BINARY}) {
+            OrderCreatedEvent decoded = reader.read(eventUtils.serialize(event, contentType), contentType, fields);
+            StringBuilder out = new StringBuilder();
+            template.renderTo(decoded, out);
+            assertThat(out).as(contentType).hasToString(event.getOrderId() + " is CREATED");
+        }
+    }
+    
+    @Test
+    void rejectsUnknownFieldsFormatsAndUnclosedPlaceholders() {
+        assertThatThrownBy(() -> CompiledTemplate.compile("t", "{nope}"))
+                .hasMessageContaining("Unknown field 'nope'");
+        assertThatThrownBy(() -> CompiledTemplate.compile("t", "{price:euro}"))
+                .hasMessageContaining("Unknown format 'euro'");
+        assertThatThrownBy(() -> CompiledTemplate.compile("t", "Total {price"))
+                .hasMessageContaining("Unclosed placeholder");
+    }
+    
+    @Test
+    void failedRegisterKeepsTheCurrentTemplate() {
+        OrderCreatedEvent event = event(new BigDecimal("1"));
+        String before = registry.render("order-push", event);
+        
+        assertThatThrownBy(() -> registry.register("order-push", "{broken")).isInstanceOf(IllegalArgumentException.class);
+        
+        assertThat(registry.render("order-push", event)).isEqualTo(before);
+    }
+    
+    private static OrderCreatedEvent event(BigDecimal price) {
+        return new OrderCreatedEvent("018f3a5e-7c2b-7d4e-9a1b-2c3d4e5f6a7b", "customer-7", "laptop", 3, price,
+                LocalDateTime.of(2026, 10, 17, 12, 30), "CREATED");
+    }
+}
@@ -3,9 +3,11 @@ package com.poc.order;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.poc.order", "com.poc.shared"})
 @EntityScan(basePackages = {"com.poc.order.entity"})
+@EnableScheduling
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,60 @@
+package com.poc.order.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.poc.order.entity.Order;
+import com.poc.order.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache for single-order lookups, bounded by size and by time
+ * since load. Concurrent misses for the same id wait on one database load.
+ * Unknown ids are not cached, so an order accepted by the async intake shows
+ * up as soon as it is committed. Synchronously created orders are put in
+ * once their transaction commits.
+ * <p>
+ * Entries are dropped after a status change commits, see
+ * {@link OrderStatusChangedEvent}. Hit, miss and eviction counts are exported
+ * as the {@code cache.*} metrics with {@code cache=orders}.
+ */
+@Slf4j
+@Component
+public class OrderCache {
+    
+    private final LoadingCache<UUID, Order> cache;
+    
+    public OrderCache(OrderRepository orderRepository,
+                      MeterRegistry meterRegistry,
+                      @Value("${order.cache.max-size:100000}") long maxSize,
+                      @Value("${order.cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(orderId -> orderRepository.findById(orderId).orElse(null));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orders");
+    }
+    
+    public Optional<Order> get(UUID orderId) {
+        return Optional.ofNullable(cache.get(orderId));
+    }
+    
+    public void put(Order order) {
+        cache.put(order.getOrderId(), order);
+    }
+    
+    @TransactionalEventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        log.debug("Invalidating cached order {} after status change to {}", event.orderId(), event.status());
+        cache.invalidate(event.orderId());
+    }
+}
@@ -0,0 +1,12 @@
+package com.poc.order.cache;
+
+import com.poc.order.entity.Order;
+
+import java.util.UUID;
+
+/**
+ * Published inside the transaction that changes an order's status; listeners
+ * see it after commit.
+ */
+public record OrderStatusChangedEvent(UUID orderId, Order.OrderStatus status) {
+}
@@ -1,14 +1,22 @@
 package com.poc.order.controller;
 
 import com.poc.order.entity.Order;
+import com.poc.order.intake.OrderIntake;
 import com.poc.order.service.OrderService;
+import com.poc.shared.paging.CursorPage;
+import com.poc.shared.paging.NdjsonWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.net.URI;
+import java.util.Map;
 
 @Slf4j
 @RestController
@@ -17,12 +25,18 @@ import java.util.List;
 public class OrderController {
     
     private final OrderService orderService;
+    private final ObjectProvider<OrderIntake> orderIntake;
     
     @PostMapping
-    public ResponseEntity<Order> createOrder(@RequestBody CreateOrderRequest request) {
+    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request) {
         log.info("Creating order for customer: {}, product: {}", 
                 request.getCustomerId(), request.getProductId());
         
+        OrderIntake intake = orderIntake.getIfAvailable();
+        if (intake != null) {
+            return acceptOrder(intake, request);
+        }
+        
         Order order = orderService.createOrder(
             request.getCustomerId(),
             request.getProductId(),
@@ -33,24 +47,75 @@ public class OrderController {
         return ResponseEntity.ok(order);
     }
     
+    private ResponseEntity<?> acceptOrder(OrderIntake intake, CreateOrderRequest request) {
+        String invalid = request.validate();
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", invalid));
+        }
+        
+        String orderId = intake.submit(
+            request.getCustomerId(),
+            request.getProductId(),
+            request.getQuantity(),
+            request.getPrice()
+        );
+        if (orderId == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("error", "Order intake is full, retry later"));
+        }
+        
+        String statusUrl = "/api/orders/" + orderId;
+        return ResponseEntity.accepted()
+                .location(URI.create(statusUrl))
+                .body(Map.of("orderId", orderId, "status", "ACCEPTED", "statusUrl", statusUrl));
+    }
+    
     @GetMapping("/{orderId}")
     public ResponseEntity<Order> getOrder(@PathVariable String orderId) {
         Order order = orderService.getOrder(orderId);
         return ResponseEntity.ok(order);
     }
     
+    @PatchMapping("/{orderId}/status")
+    public ResponseEntity<Order> updateStatus(@PathVariable String orderId, 
+                                              @RequestBody UpdateStatusRequest request) {
+        log.info("Updating order {} status to {}", orderId, request.getStatus());
+        Order order = orderService.updateStatus(orderId, request.getStatus());
+        return ResponseEntity.ok(order);
+    }
+    
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderService.getAllOrders();
+    public ResponseEntity<CursorPage<Order>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) Integer limit) {
+        CursorPage<Order> orders = orderService.getOrders(cursor, limit);
         return ResponseEntity.ok(orders);
     }
     
+    @GetMapping(value = "/stream", produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        return ResponseEntity.ok(out -> orderService.streamOrders(null, out));
+    }
+    
     @GetMapping("/customer/{customerId}")
-    public ResponseEntity<List<Order>> getOrdersByCustomer(@PathVariable String customerId) {
-        List<Order> orders = orderService.getOrdersByCustomer(customerId);
+    public ResponseEntity<CursorPage<Order>> getOrdersByCustomer(@PathVariable String customerId,
+                                                                 @RequestParam(required = false) String cursor,
+                                                                 @RequestParam(required = false) Integer limit) {
+        CursorPage<Order> orders = orderService.getOrdersByCustomer(customerId, cursor, limit);
         return ResponseEntity.ok(orders);
     }
     
+    @GetMapping(value = "/customer/{customerId}/stream", produces = NdjsonWriter.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamOrdersByCustomer(@PathVariable String customerId) {
+        return ResponseEntity.ok(out -> orderService.streamOrders(customerId, out));
+    }
+    
+    // Malformed cursors and ids from the client
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+    }
+    
     public static class CreateOrderRequest {
         private String customerId;
         private String productId;
@@ -69,5 +134,21 @@ public class OrderController {
         
         public BigDecimal getPrice() { return price; }
         public void setPrice(BigDecimal price) { this.price = price; }
+        
+        // Returns the first problem found, or null when the request is valid
+        String validate() {
+            if (customerId == null || customerId.isBlank()) return "customerId is required";
+            if (productId == null || productId.isBlank()) return "productId is required";
+            if (quantity == null || quantity <= 0) return "quantity must be positive";
+            if (price == null || price.signum() <= 0) return "price must be positive";
+            return null;
+        }
+    }
+    
+    public static class UpdateStatusRequest {
+        private Order.OrderStatus status;
+        
+        public Order.OrderStatus getStatus() { return status; }
+        public void setStatus(Order.OrderStatus status) { this.status = status; }
     }
 }
\ No newline at end of file
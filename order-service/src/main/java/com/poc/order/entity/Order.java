@@ -1,22 +1,35 @@
 package com.poc.order.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_timestamp_id", columnList = "orderTimestamp, orderId"),
+    @Index(name = "idx_orders_customer_timestamp_id", columnList = "customerId, orderTimestamp, orderId")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class Order {
+public class Order implements Persistable<UUID> {
     
+    // Time-ordered UUIDv7 stored as 16 bytes, serialized as its canonical string
     @Id
-    private String orderId;
+    @Column(columnDefinition = "BINARY(16)")
+    private UUID orderId;
     
     @Column(nullable = false)
     private String customerId;
@@ -37,6 +50,33 @@ public class Order {
     @Column(nullable = false)
     private OrderStatus status;
     
+    // Ids are assigned by the application, so tell Spring Data a fresh order is
+    // new; otherwise save() merges and SELECTs every row before inserting it
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean persisted;
+    
+    @Override
+    @JsonIgnore
+    public UUID getId() {
+        return orderId;
+    }
+    
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return !persisted;
+    }
+    
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+    
     public enum OrderStatus {
         CREATED, CONFIRMED, CANCELLED
     }
@@ -0,0 +1,44 @@
+package com.poc.order.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Event written in the same transaction as the aggregate it describes and
+ * drained asynchronously by {@link com.poc.order.publisher.OutboxRelay}.
+ */
+@Entity
+@Table(name = "order_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+    
+    // Pooled sequence instead of IDENTITY so Hibernate can batch inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 100)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String aggregateId;
+    
+    @Column(nullable = false)
+    private String eventType; // ORDER_CREATED
+    
+    private String partitionKey;
+    
+    @Column(nullable = false)
+    private String contentType;
+    
+    @Lob
+    @Column(nullable = false, columnDefinition = "BLOB")
+    private byte[] payload;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
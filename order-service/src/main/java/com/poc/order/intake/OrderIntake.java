@@ -0,0 +1,235 @@
+package com.poc.order.intake;
+
+import com.poc.order.entity.Order;
+import com.poc.order.service.OrderService;
+import com.poc.order.service.OrderWriter;
+import com.poc.shared.id.IdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.math.BigDecimal;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Async order intake, enabled with {@code order.intake.mode=async}.
+ * <p>
+ * Request threads claim a sequence on a pre-allocated ring of slots, copy the
+ * order into the slot and publish it; a full ring is reported to the caller
+ * instead of blocking. A single writer thread drains published slots in
+ * sequence order and persists each drain as one transaction through
+ * {@link OrderWriter}, so request latency no longer includes
+ * the database.
+ * <p>
+ * An accepted order lives only in memory until its batch commits, and reads
+ * of its id find nothing until then. A batch that fails on a transient error
+ * (lost connection, lock timeout, deadlock) is retried with backoff while the
+ * ring fills up and new orders get rejected, rather than being dropped. Any
+ * other failure will not go away on retry: the batch is split in halves until
+ * the orders that cannot be written are isolated, and those are logged and
+ * counted in {@code poc.order.intake.dead-lettered} while the rest commit.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "order.intake.mode", havingValue = "async")
+public class OrderIntake {
+    
+    private final OrderWriter orderWriter;
+    private final IdGenerator idGenerator;
+    private final int mask;
+    private final Slot[] slots;
+    private final AtomicLongArray published;
+    private final AtomicLong claimed = new AtomicLong();
+    private final int maxBatch;
+    private final Counter rejected;
+    private final Counter deadLettered;
+    
+    // Written by the writer thread only
+    private volatile long consumed;
+    private volatile boolean running = true;
+    private Thread writer;
+    
+    public OrderIntake(OrderWriter orderWriter,
+                       IdGenerator idGenerator,
+                       @Value("${order.intake.capacity:65536}") int capacity,
+                       @Value("${order.intake.max-batch:500}") int maxBatch,
+                       MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.orderWriter = orderWriter;
+        this.idGenerator = idGenerator;
+        this.mask = size - 1;
+        this.slots = new Slot[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+        this.maxBatch = maxBatch;
+        this.rejected = Counter.builder("poc.order.intake.rejected").register(meterRegistry);
+        this.deadLettered = Counter.builder("poc.order.intake.dead-lettered").register(meterRegistry);
+        Gauge.builder("poc.order.intake.depth", this, intake -> intake.claimed.get() - intake.consumed)
+                .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::drain, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Async order intake started with {} slots", slots.length);
+    }
+    
+    /**
+     * Accepts an order for persistence and returns its orderId, or null when
+     * the ring is full.
+     */
+    public String submit(String customerId, String productId, Integer quantity, BigDecimal price) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (!running || sequence - consumed >= slots.length) {
+                rejected.increment();
+                return null;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        
+        int index = (int) (sequence & mask);
+        Slot slot = slots[index];
+        slot.orderId = idGenerator.nextId();
+        slot.customerId = customerId;
+        slot.productId = productId;
+        slot.quantity = quantity;
+        slot.price = price;
+        slot.orderTimestamp = LocalDateTime.now();
+        UUID orderId = slot.orderId;
+        published.set(index, sequence);
+        return orderId.toString();
+    }
+    
+    private void drain() {
+        List<Order> batch = new ArrayList<>(maxBatch);
+        long idleNanos = TimeUnit.MICROSECONDS.toNanos(50);
+        
+        while (running || consumed < claimed.get()) {
+            long next = consumed;
+            while (batch.size() < maxBatch) {
+                long sequence = next + batch.size();
+                int index = (int) (sequence & mask);
+                if (published.get(index) != sequence) {
+                    break;
+                }
+                Slot slot = slots[index];
+                batch.add(OrderService.newOrder(slot.orderId, slot.customerId, slot.productId, 
+                        slot.quantity, slot.price, slot.orderTimestamp));
+                slot.clear();
+            }
+            
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(idleNanos);
+                continue;
+            }
+            // Slots are copied out, hand them back to producers before the write
+            consumed = next + batch.size();
+            persist(batch);
+            batch.clear();
+        }
+    }
+    
+    private void persist(List<Order> batch) {
+        long backoffMillis = 10;
+        while (true) {
+            try {
+                orderWriter.write(batch);
+                return;
+            } catch (Exception e) {
+                if (!isTransient(e)) {
+                    isolate(batch, e);
+                    return;
+                }
+                log.warn("Failed to persist {} accepted orders, retrying in {}ms", batch.size(), backoffMillis, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+                backoffMillis = Math.min(1000, backoffMillis * 2);
+            }
+        }
+    }
+    
+    // Halves a batch that failed for good until the orders that cannot be written are found
+    private void isolate(List<Order> batch, Exception failure) {
+        if (batch.size() == 1) {
+            deadLetter(batch.get(0), failure);
+            return;
+        }
+        int half = batch.size() / 2;
+        persist(new ArrayList<>(batch.subList(0, half)));
+        persist(new ArrayList<>(batch.subList(half, batch.size())));
+    }
+    
+    private void deadLetter(Order order, Exception failure) {
+        deadLettered.increment();
+        log.error("Dropping accepted order {} that cannot be persisted: customer={}, product={}, quantity={}, price={}, timestamp={}",
+                order.getOrderId(), order.getCustomerId(), order.getProductId(), order.getQuantity(),
+                order.getPrice(), order.getOrderTimestamp(), failure);
+    }
+    
+    // Lost connections, lock timeouts and deadlocks can succeed on a later attempt
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        long pending = claimed.get() - consumed;
+        if (pending > 0) {
+            log.warn("Async order intake stopped with {} accepted orders not persisted", pending);
+        }
+    }
+    
+    private static final class Slot {
+        private UUID orderId;
+        private String customerId;
+        private String productId;
+        private Integer quantity;
+        private BigDecimal price;
+        private LocalDateTime orderTimestamp;
+        
+        private void clear() {
+            orderId = null;
+            customerId = null;
+            productId = null;
+            quantity = null;
+            price = null;
+            orderTimestamp = null;
+        }
+    }
+}
@@ -1,36 +1,51 @@
 package com.poc.order.publisher;
 
+import com.poc.order.entity.OutboxEvent;
+import com.poc.shared.codec.EventContentTypes;
 import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.lag.EventTrace;
 import com.poc.shared.utils.EventUtils;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.stream.function.StreamBridge;
 import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends order events to {@code orderEvents-out-0}. With publisher confirms on
+ * (the rabbitmq profile) each send carries a correlation the binder completes
+ * when the broker acks or nacks it; the Kafka producer is synchronous, so a
+ * send that returns has been acked.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class OrderEventPublisher {
     
     private final StreamBridge streamBridge;
     private final EventUtils eventUtils;
+    private final boolean publisherConfirms;
     
     private static final String ORDER_EVENTS_BINDING = "orderEvents-out-0";
     
+    public OrderEventPublisher(StreamBridge streamBridge, EventUtils eventUtils,
+                               @Value("${order.events.publisher-confirms:false}") boolean publisherConfirms) {
+        this.streamBridge = streamBridge;
+        this.eventUtils = eventUtils;
+        this.publisherConfirms = publisherConfirms;
+    }
+    
     public void publishOrderCreated(OrderCreatedEvent event) {
         try {
             String eventJson = eventUtils.serialize(event);
             log.info("Publishing order created event for orderId: {}", event.getOrderId());
             
-            // Create message with partition key header for ordering
-            Message<String> message = MessageBuilder
-                .withPayload(eventJson)
-                .setHeader("partitionKey", event.getCustomerId())
-                .build();
-            
-            streamBridge.send(ORDER_EVENTS_BINDING, message);
+            send(eventJson, event.getCustomerId(), EventContentTypes.JSON, null).join();
             
             log.debug("Successfully published order created event: {}", eventJson);
         } catch (Exception e) {
@@ -38,4 +53,56 @@ public class OrderEventPublisher {
             throw new RuntimeException("Failed to publish order event", e);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Hands the event to the binder. The returned future completes once the
+     * broker has acknowledged it and fails if the broker rejected it.
+     */
+    public CompletableFuture<Void> publish(OutboxEvent outboxEvent) {
+        try {
+            String trace = EventTrace.append(null, EventTrace.OUTBOX, EventTrace.toMicros(outboxEvent.getCreatedAt()));
+            CompletableFuture<Void> confirmed = send(outboxEvent.getPayload(), outboxEvent.getPartitionKey(), 
+                    outboxEvent.getContentType(), trace);
+            
+            log.debug("Relayed outbox event {} for orderId: {}", 
+                    outboxEvent.getId(), outboxEvent.getAggregateId());
+            return confirmed;
+        } catch (Exception e) {
+            log.error("Failed to relay outbox event {} for orderId: {}", 
+                    outboxEvent.getId(), outboxEvent.getAggregateId(), e);
+            throw new RuntimeException("Failed to publish order event", e);
+        }
+    }
+    
+    private CompletableFuture<Void> send(Object payload, String partitionKey, String contentType, String trace) {
+        // Stamped last so consumers measure broker lag from the actual send
+        long publishedAt = EventTrace.nowMicros();
+        
+        // Create message with partition key header for ordering
+        MessageBuilder<Object> builder = MessageBuilder
+            .withPayload(payload)
+            .setHeader("partitionKey", partitionKey)
+            .setHeader(MessageHeaders.CONTENT_TYPE, contentType)
+            .setHeader(EventTrace.PUBLISHED_AT_HEADER, Long.toString(publishedAt))
+            .setHeader(EventTrace.TRACE_HEADER, EventTrace.append(trace, EventTrace.PUBLISH, publishedAt));
+        CorrelationData correlation = null;
+        if (publisherConfirms) {
+            correlation = new CorrelationData();
+            builder.setHeader(AmqpHeaders.PUBLISH_CONFIRM_CORRELATION, correlation);
+        }
+        Message<Object> message = builder.build();
+        
+        if (!streamBridge.send(ORDER_EVENTS_BINDING, message)) {
+            throw new IllegalStateException("Binding " + ORDER_EVENTS_BINDING + " rejected the message");
+        }
+        if (correlation == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return correlation.getFuture().thenApply(confirm -> {
+            if (!confirm.isAck()) {
+                throw new IllegalStateException("Broker nacked order event: " + confirm.getReason());
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,87 @@
+package com.poc.order.publisher;
+
+import com.poc.order.entity.OutboxEvent;
+import com.poc.order.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains {@code order_outbox} in id order and hands each row to the broker.
+ * Rows are deleted only once the broker has acknowledged them (synchronous
+ * Kafka sends, Rabbit publisher confirms), with a single
+ * {@code DELETE ... WHERE id IN (...)} per batch. Rows are deleted by id rather than by range so a transaction that
+ * commits a lower id late is still picked up on the next poll.
+ * <p>
+ * Assumes one relay per outbox table; running several order-service instances
+ * against the same database delivers events at-least-once.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxRelay {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderEventPublisher orderEventPublisher;
+    
+    @Value("${order.outbox.relay.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${order.outbox.relay.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs;
+    
+    @Scheduled(fixedDelayString = "${order.outbox.relay.poll-interval-ms:100}")
+    public void relay() {
+        List<OutboxEvent> batch;
+        do {
+            batch = outboxEventRepository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                return;
+            }
+            
+            // Send the whole batch, then delete only the prefix the broker has acknowledged
+            List<CompletableFuture<Void>> confirms = new ArrayList<>(batch.size());
+            List<Long> delivered = new ArrayList<>(batch.size());
+            try {
+                for (OutboxEvent outboxEvent : batch) {
+                    confirms.add(orderEventPublisher.publish(outboxEvent));
+                }
+            } catch (Exception e) {
+                log.warn("Outbox relay could only send {} of {} events", confirms.size(), batch.size(), e);
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+            try {
+                for (int i = 0; i < confirms.size(); i++) {
+                    confirms.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    delivered.add(batch.get(i).getId());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                log.warn("Outbox event {} not confirmed by the broker, retrying on next poll", 
+                        batch.get(delivered.size()).getId(), e);
+            } finally {
+                if (!delivered.isEmpty()) {
+                    outboxEventRepository.deleteAllByIdInBatch(delivered);
+                }
+            }
+            
+            log.debug("Relayed {} outbox events", delivered.size());
+            if (delivered.size() < batch.size()) {
+                log.warn("Outbox relay stopped after {} of {} events, retrying on next poll", 
+                        delivered.size(), batch.size());
+                return;
+            }
+        } while (batch.size() == batchSize);
+    }
+}
@@ -1,17 +1,61 @@
 package com.poc.order.repository;
 
 import com.poc.order.entity.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, String> {
+public interface OrderRepository extends JpaRepository<Order, UUID> {
     
     List<Order> findByCustomerId(String customerId);
     
     List<Order> findByProductId(String productId);
     
     List<Order> findByStatus(Order.OrderStatus status);
-}
\ No newline at end of file
+    
+    // Keyset pages, newest first, served from the (timestamp, id) indexes
+    
+    @Query("SELECT o FROM Order o ORDER BY o.orderTimestamp DESC, o.orderId DESC")
+    List<Order> findFirstPage(Pageable limit);
+    
+    @Query("SELECT o FROM Order o " +
+           "WHERE o.orderTimestamp < :timestamp OR (o.orderTimestamp = :timestamp AND o.orderId < :orderId) " +
+           "ORDER BY o.orderTimestamp DESC, o.orderId DESC")
+    List<Order> findPageAfter(@Param("timestamp") LocalDateTime timestamp, 
+                              @Param("orderId") UUID orderId, 
+                              Pageable limit);
+    
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId " +
+           "ORDER BY o.orderTimestamp DESC, o.orderId DESC")
+    List<Order> findFirstPageByCustomer(@Param("customerId") String customerId, Pageable limit);
+    
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId " +
+           "AND (o.orderTimestamp < :timestamp OR (o.orderTimestamp = :timestamp AND o.orderId < :orderId)) " +
+           "ORDER BY o.orderTimestamp DESC, o.orderId DESC")
+    List<Order> findPageAfterByCustomer(@Param("customerId") String customerId,
+                                        @Param("timestamp") LocalDateTime timestamp, 
+                                        @Param("orderId") UUID orderId, 
+                                        Pageable limit);
+    
+    // Integer.MIN_VALUE makes Connector/J stream rows instead of buffering the result set
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT o FROM Order o ORDER BY o.orderTimestamp DESC, o.orderId DESC")
+    Stream<Order> streamAll();
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId " +
+           "ORDER BY o.orderTimestamp DESC, o.orderId DESC")
+    Stream<Order> streamByCustomer(@Param("customerId") String customerId);
+}
@@ -0,0 +1,14 @@
+package com.poc.order.repository;
+
+import com.poc.order.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    List<OutboxEvent> findByOrderByIdAsc(Pageable pageable);
+}
@@ -0,0 +1,146 @@
+package com.poc.order.service;
+
+import com.poc.order.entity.Order;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for synchronous order creation, enabled with
+ * {@code order.commit.mode=group}.
+ * <p>
+ * Request threads enqueue their order and wait. The committer thread takes
+ * the first waiting order, keeps collecting for up to {@code window-micros}
+ * or {@code max-batch} orders, writes them all in one transaction (one
+ * fsync, one multi-row batch) and only then releases every caller. If the
+ * shared write fails, each order is retried in its own transaction so one bad
+ * row only fails its own request.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "order.commit.mode", havingValue = "group")
+public class OrderGroupCommitter {
+    
+    private final OrderWriter orderWriter;
+    private final BlockingQueue<PendingOrder> queue;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final long timeoutMs;
+    
+    private volatile boolean running = true;
+    private Thread committer;
+    
+    public OrderGroupCommitter(OrderWriter orderWriter,
+                               @Value("${order.commit.window-micros:500}") long windowMicros,
+                               @Value("${order.commit.max-batch:200}") int maxBatch,
+                               @Value("${order.commit.queue-capacity:10000}") int queueCapacity,
+                               @Value("${order.commit.timeout-ms:5000}") long timeoutMs) {
+        this.orderWriter = orderWriter;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatch = maxBatch;
+        this.timeoutMs = timeoutMs;
+    }
+    
+    @PostConstruct
+    public void start() {
+        committer = new Thread(this::run, "order-group-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+    
+    /**
+     * Blocks until the order is committed, as the per-request path did.
+     */
+    public void commit(Order order) {
+        PendingOrder pending = new PendingOrder(order, new CompletableFuture<>());
+        try {
+            if (!running || !queue.offer(pending, timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Group commit queue is full");
+            }
+            pending.committed().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime 
+                    ? runtime : new IllegalStateException("Order commit failed", e.getCause());
+        } catch (TimeoutException e) {
+            // The order may still commit; the caller sees a failure as with a lost connection
+            throw new IllegalStateException("Timed out waiting for order commit: " + order.getOrderId(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for order commit", e);
+        }
+    }
+    
+    private void run() {
+        List<PendingOrder> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    PendingOrder next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void flush(List<PendingOrder> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            orders.add(pending.order());
+        }
+        
+        try {
+            orderWriter.write(orders);
+            batch.forEach(pending -> pending.committed().complete(null));
+            return;
+        } catch (Exception e) {
+            log.warn("Group commit of {} orders failed, retrying individually", batch.size(), e);
+        }
+        
+        for (PendingOrder pending : batch) {
+            try {
+                orderWriter.write(List.of(pending.order()));
+                pending.committed().complete(null);
+            } catch (Exception e) {
+                pending.committed().completeExceptionally(e);
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    
+    private record PendingOrder(Order order, CompletableFuture<Void> committed) {
+    }
+}
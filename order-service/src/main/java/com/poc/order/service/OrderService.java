@@ -1,17 +1,32 @@
 package com.poc.order.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.order.cache.OrderCache;
+import com.poc.order.cache.OrderStatusChangedEvent;
 import com.poc.order.entity.Order;
-import com.poc.order.publisher.OrderEventPublisher;
 import com.poc.order.repository.OrderRepository;
-import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.id.IdGenerator;
+import com.poc.shared.paging.CursorPage;
+import com.poc.shared.paging.KeysetCursor;
+import com.poc.shared.paging.NdjsonWriter;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -19,48 +34,105 @@ import java.util.UUID;
 public class OrderService {
     
     private final OrderRepository orderRepository;
-    private final OrderEventPublisher orderEventPublisher;
+    private final OrderWriter orderWriter;
+    private final ObjectProvider<OrderGroupCommitter> orderGroupCommitter;
+    private final IdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final OrderCache orderCache;
+    private final ApplicationEventPublisher eventPublisher;
     
-    @Transactional
     public Order createOrder(String customerId, String productId, Integer quantity, 
                            java.math.BigDecimal price) {
         
-        String orderId = UUID.randomUUID().toString();
-        LocalDateTime now = LocalDateTime.now();
+        Order order = newOrder(idGenerator.nextId(), customerId, productId, quantity, price, 
+                LocalDateTime.now());
+        
+        // Save the order and its outbox event, alone or together with concurrent requests
+        OrderGroupCommitter committer = orderGroupCommitter.getIfAvailable();
+        if (committer != null) {
+            committer.commit(order);
+        } else {
+            orderWriter.write(List.of(order));
+        }
+        // Committed: a follow-up GET is served without a load
+        orderCache.put(order);
+        log.info("Created order: {}", order.getOrderId());
         
+        return order;
+    }
+    
+    public static Order newOrder(UUID orderId, String customerId, String productId, Integer quantity,
+                                 java.math.BigDecimal price, LocalDateTime orderTimestamp) {
         Order order = new Order();
         order.setOrderId(orderId);
         order.setCustomerId(customerId);
         order.setProductId(productId);
         order.setQuantity(quantity);
         order.setPrice(price);
-        order.setOrderTimestamp(now);
+        order.setOrderTimestamp(orderTimestamp);
         order.setStatus(Order.OrderStatus.CREATED);
-        
-        // Save to database
-        Order savedOrder = orderRepository.save(order);
-        log.info("Created order: {}", savedOrder.getOrderId());
-        
-        // Publish event
-        // ToDo : 여기를 인쟈,,, 구현해야지비,,,
-        // OrderCreatedEvent event = new OrderCreatedEvent(
-        //     orderId, customerId, productId, quantity, price, now, "CREATED"
-        // );
-        // orderEventPublisher.publishOrderCreated(event);
-        
-        return savedOrder;
+        return order;
     }
     
-    public List<Order> getOrdersByCustomer(String customerId) {
-        return orderRepository.findByCustomerId(customerId);
+    public CursorPage<Order> getOrdersByCustomer(String customerId, String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+        List<Order> rows = after == null
+                ? orderRepository.findFirstPageByCustomer(customerId, fetch)
+                : orderRepository.findPageAfterByCustomer(customerId, after.timestamp(), UUID.fromString(after.id()), fetch);
+        return CursorPage.of(rows, pageSize, OrderService::cursorOf);
     }
     
+    // With async intake an accepted order is not found until its batch commits
     public Order getOrder(String orderId) {
-        return orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
+        return orderCache.get(UUID.fromString(orderId))
+                .orElseThrow(() -> notFound(orderId));
+    }
+    
+    @Transactional
+    public Order updateStatus(String orderId, Order.OrderStatus status) {
+        Order order = orderRepository.findById(UUID.fromString(orderId))
+                .orElseThrow(() -> notFound(orderId));
+        if (order.getStatus() != status) {
+            order.setStatus(status);
+            // Cached copies are invalidated once this commits
+            eventPublisher.publishEvent(new OrderStatusChangedEvent(order.getOrderId(), status));
+            log.info("Order {} status changed to {}", orderId, status);
+        }
+        return order;
+    }
+    
+    public CursorPage<Order> getOrders(String cursor, Integer limit) {
+        int pageSize = CursorPage.clampLimit(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable fetch = PageRequest.of(0, pageSize + 1);
+        List<Order> rows = after == null
+                ? orderRepository.findFirstPage(fetch)
+                : orderRepository.findPageAfter(after.timestamp(), UUID.fromString(after.id()), fetch);
+        return CursorPage.of(rows, pageSize, OrderService::cursorOf);
+    }
+    
+    /**
+     * Writes all orders, or one customer's, as NDJSON straight from a
+     * forward-only result set. Each row is detached once written so the
+     * persistence context stays empty.
+     */
+    @Transactional(readOnly = true)
+    public long streamOrders(String customerId, OutputStream out) throws IOException {
+        try (Stream<Order> rows = customerId == null 
+                ? orderRepository.streamAll() 
+                : orderRepository.streamByCustomer(customerId)) {
+            return NdjsonWriter.write(rows, out, objectMapper, entityManager::detach);
+        }
+    }
+    
+    private static KeysetCursor cursorOf(Order order) {
+        return new KeysetCursor(order.getOrderTimestamp(), order.getOrderId().toString());
     }
     
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    private static ResponseStatusException notFound(String orderId) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found: " + orderId);
     }
-}
\ No newline at end of file
+}
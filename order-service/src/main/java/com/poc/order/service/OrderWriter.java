@@ -0,0 +1,64 @@
+package com.poc.order.service;
+
+import com.poc.order.entity.Order;
+import com.poc.order.entity.OutboxEvent;
+import com.poc.order.repository.OrderRepository;
+import com.poc.order.repository.OutboxEventRepository;
+import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.utils.EventUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserts new orders and their outbox rows in one transaction. Shared by the
+ * per-request path, {@link OrderGroupCommitter} and the async intake.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderWriter {
+    
+    private final OrderRepository orderRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final EventUtils eventUtils;
+    
+    @Value("${order.events.content-type:application/json}")
+    private String eventContentType;
+    
+    @Transactional
+    public void write(List<Order> orders) {
+        orderRepository.saveAll(orders);
+        
+        // Record events in the outbox, OutboxRelay publishes them after commit
+        List<OutboxEvent> outboxEvents = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            outboxEvents.add(toOutboxEvent(toEvent(order)));
+        }
+        outboxEventRepository.saveAll(outboxEvents);
+        log.debug("Wrote {} orders", orders.size());
+    }
+    
+    private static OrderCreatedEvent toEvent(Order order) {
+        return new OrderCreatedEvent(
+            order.getOrderId().toString(), order.getCustomerId(), order.getProductId(), order.getQuantity(),
+            order.getPrice(), order.getOrderTimestamp(), order.getStatus().name()
+        );
+    }
+    
+    private OutboxEvent toOutboxEvent(OrderCreatedEvent event) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setAggregateId(event.getOrderId());
+        outboxEvent.setEventType("ORDER_CREATED");
+        outboxEvent.setPartitionKey(event.getCustomerId());
+        outboxEvent.setContentType(eventContentType);
+        outboxEvent.setPayload(eventUtils.serialize(event, eventContentType));
+        outboxEvent.setCreatedAt(event.getOrderTimestamp());
+        return outboxEvent;
+    }
+}
@@ -0,0 +1,247 @@
+package com.poc.order.intake;
+
+import com.poc.order.entity.Order;
+import com.poc.order.service.OrderWriter;
+import com.poc.shared.id.IdGenerator;
+import com.poc.shared.id.UuidV7Generator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderIntakeTest {
+    
+    private final RecordingWriter writer = new RecordingWriter();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService producers = Executors.newCachedThreadPool();
+    private OrderIntake intake;
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        producers.shutdownNow();
+        if (intake != null) {
+            intake.stop();
+        }
+    }
+    
+    @Test
+    void fullRingRejectsUntilTheWriterFreesSlots() throws InterruptedException {
+        // Not started yet, so nothing drains
+        intake = new OrderIntake(writer, new UuidV7Generator(), 4, 500, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            assertThat(submit("customer-" + i)).isNotNull();
+        }
+        
+        // The controller answers null with 429 and Retry-After
+        assertThat(submit("customer-4")).isNull();
+        assertThat(meterRegistry.get("poc.order.intake.rejected").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("poc.order.intake.depth").gauge().value()).isEqualTo(4);
+        
+        intake.start();
+        awaitWritten(4);
+        assertThat(submit("customer-5")).isNotNull();
+        intake.stop();
+        intake = null;
+        
+        assertThat(writer.written()).extracting(Order::getCustomerId)
+                .containsExactly("customer-0", "customer-1", "customer-2", "customer-3", "customer-5");
+    }
+    
+    @Test
+    void laterClaimIsNotWrittenBeforeAnEarlierSlotIsPublished() throws Exception {
+        CountDownLatch claimedFirst = new CountDownLatch(1);
+        CountDownLatch publishFirst = new CountDownLatch(1);
+        AtomicInteger ids = new AtomicInteger();
+        UuidV7Generator generator = new UuidV7Generator();
+        // The first producer stalls between claiming its sequence and publishing the slot
+        IdGenerator stalling = () -> {
+            if (ids.getAndIncrement() == 0) {
+                claimedFirst.countDown();
+                await(publishFirst);
+            }
+            return generator.nextId();
+        };
+        intake = new OrderIntake(writer, stalling, 16, 500, meterRegistry);
+        intake.start();
+        
+        Future<String> first = producers.submit(() -> submit("first"));
+        assertThat(claimedFirst.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(submit("second")).isNotNull();
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertThat(writer.attempts).isEmpty();
+        
+        publishFirst.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isNotNull();
+        awaitWritten(2);
+        
+        assertThat(writer.written()).extracting(Order::getCustomerId).containsExactly("first", "second");
+    }
+    
+    @Test
+    void racingProducersAreEachWrittenExactlyOnce() throws Exception {
+        intake = new OrderIntake(writer, new UuidV7Generator(), 1 << 16, 64, meterRegistry);
+        intake.start();
+        int threads = 8;
+        int perThread = 2_000;
+        
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int producer = t;
+            results.add(producers.submit(() -> {
+                go.await();
+                List<String> accepted = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) {
+                    accepted.add(submit("customer-" + producer + "-" + i));
+                }
+                return accepted;
+            }));
+        }
+        go.countDown();
+        Set<String> accepted = ConcurrentHashMap.newKeySet();
+        for (Future<List<String>> result : results) {
+            accepted.addAll(result.get(30, TimeUnit.SECONDS));
+        }
+        intake.stop();
+        intake = null;
+        
+        List<Order> written = writer.written();
+        assertThat(accepted).hasSize(threads * perThread).doesNotContainNull();
+        assertThat(written).hasSize(threads * perThread);
+        assertThat(written).extracting(order -> order.getOrderId().toString()).containsExactlyInAnyOrderElementsOf(accepted);
+        assertThat(writer.attempts).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(64));
+        // Each producer's orders keep their submission order
+        for (int t = 0; t < threads; t++) {
+            String prefix = "customer-" + t + "-";
+            assertThat(written).extracting(Order::getCustomerId).filteredOn(id -> id.startsWith(prefix))
+                    .containsExactlyElementsOf(IntStream.range(0, perThread)
+                            .mapToObj(i -> prefix + i).toList());
+        }
+    }
+    
+    @Test
+    void bisectionIsolatesExactlyThePoisonedOrder() throws InterruptedException {
+        intake = new OrderIntake(writer, new UuidV7Generator(), 64, 500, meterRegistry);
+        List<String> customers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            String customer = i == 11 ? "poisoned-11" : "customer-" + i;
+            customers.add(customer);
+            submit(customer);
+        }
+        intake.start();
+        intake.stop();
+        intake = null;
+        
+        assertThat(writer.written()).extracting(Order::getCustomerId)
+                .containsExactlyElementsOf(customers.stream().filter(customer -> !customer.startsWith("poisoned")).toList());
+        assertThat(writer.rejectedOrders).extracting(Order::getCustomerId).containsOnly("poisoned-11");
+        assertThat(meterRegistry.get("poc.order.intake.dead-lettered").counter().count()).isEqualTo(1);
+        // Depth first: 16, then halves 0-7 (commits) and 8-15, 8-11, 8-9 (commits), 10-11, 10, 11, 12-15
+        assertThat(writer.attempts).extracting(List::size).containsExactly(16, 8, 8, 4, 2, 2, 1, 1, 4);
+    }
+    
+    @Test
+    void everyPoisonedOrderIsIsolated() throws InterruptedException {
+        intake = new OrderIntake(writer, new UuidV7Generator(), 64, 500, meterRegistry);
+        for (int i = 0; i < 20; i++) {
+            submit(i == 0 || i == 7 || i == 8 || i == 19 ? "poisoned-" + i : "customer-" + i);
+        }
+        intake.start();
+        intake.stop();
+        intake = null;
+        
+        assertThat(writer.written()).hasSize(16).extracting(Order::getCustomerId).allMatch(id -> id.startsWith("customer-"));
+        assertThat(meterRegistry.get("poc.order.intake.dead-lettered").counter().count()).isEqualTo(4);
+    }
+    
+    @Test
+    void transientFailureIsRetriedNotDeadLettered() throws InterruptedException {
+        writer.transientFailures.set(2);
+        intake = new OrderIntake(writer, new UuidV7Generator(), 64, 500, meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            submit("customer-" + i);
+        }
+        intake.start();
+        intake.stop();
+        intake = null;
+        
+        assertThat(writer.attempts).hasSize(3).allSatisfy(batch -> assertThat(batch).hasSize(10));
+        assertThat(writer.written()).hasSize(10);
+        assertThat(meterRegistry.get("poc.order.intake.dead-lettered").counter().count()).isZero();
+    }
+    
+    private String submit(String customerId) {
+        return intake.submit(customerId, "product-1", 1, new BigDecimal("9.99"));
+    }
+    
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writer.written().size() < count && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(writer.written()).hasSize(count);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Records each transaction. One containing a poisoned order rolls back as
+     * a whole, as a constraint violation in the multi-row insert would.
+     */
+    private static final class RecordingWriter extends OrderWriter {
+        
+        private final List<List<Order>> attempts = new CopyOnWriteArrayList<>();
+        private final List<List<Order>> committed = new CopyOnWriteArrayList<>();
+        private final List<Order> rejectedOrders = new CopyOnWriteArrayList<>();
+        private final AtomicInteger transientFailures = new AtomicInteger();
+        
+        private RecordingWriter() {
+            super(null, null, null);
+        }
+        
+        @Override
+        public void write(List<Order> orders) {
+            attempts.add(List.copyOf(orders));
+            if (transientFailures.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new TransientDataAccessResourceException("Lock wait timeout exceeded");
+            }
+            List<Order> poisoned = orders.stream().filter(order -> order.getCustomerId().startsWith("poisoned")).toList();
+            if (!poisoned.isEmpty()) {
+                if (orders.size() == 1) {
+                    rejectedOrders.addAll(poisoned);
+                }
+                throw new DataIntegrityViolationException("Data too long for column 'customer_id'");
+            }
+            committed.add(List.copyOf(orders));
+        }
+        
+        private List<Order> written() {
+            List<Order> written = new ArrayList<>();
+            committed.forEach(written::addAll);
+            return written;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.poc.order.service;
+
+import com.poc.order.entity.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderGroupCommitterTest {
+    
+    // Long enough that every concurrent caller lands inside one window
+    private static final long WINDOW_MICROS = TimeUnit.MILLISECONDS.toMicros(300);
+    
+    private final RecordingWriter writer = new RecordingWriter();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private OrderGroupCommitter committer;
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        if (committer != null) {
+            committer.stop();
+        }
+    }
+    
+    @Test
+    void concurrentCreatesShareOneWrite() throws Exception {
+        committer = start(200);
+        
+        Map<String, Throwable> outcomes = commitConcurrently(orders(20, null));
+        
+        assertThat(outcomes).isEmpty();
+        assertThat(writer.attempts).hasSize(1);
+        assertThat(writer.attempts.get(0)).hasSize(20);
+        assertThat(writer.committed).hasSize(20);
+    }
+    
+    @Test
+    void maxBatchSplitsTheGroup() throws Exception {
+        committer = start(5);
+        
+        Map<String, Throwable> outcomes = commitConcurrently(orders(12, null));
+        
+        assertThat(outcomes).isEmpty();
+        assertThat(writer.attempts).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(5));
+        assertThat(writer.attempts).extracting(List::size).containsExactly(5, 5, 2);
+        assertThat(writer.committed).hasSize(12);
+    }
+    
+    @Test
+    void failedGroupIsRetriedPerOrderSoOnlyTheBadOrderFails() throws Exception {
+        committer = start(200);
+        List<Order> orders = orders(10, 6);
+        
+        Map<String, Throwable> outcomes = commitConcurrently(orders);
+        
+        String bad = orders.get(6).getCustomerId();
+        assertThat(outcomes).containsOnlyKeys(bad);
+        assertThat(outcomes.get(bad)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("rejected");
+        // The shared write, then one transaction per order
+        assertThat(writer.attempts).hasSize(11);
+        assertThat(writer.attempts.get(0)).hasSize(10);
+        assertThat(writer.attempts.subList(1, 11)).allSatisfy(batch -> assertThat(batch).hasSize(1));
+        assertThat(writer.committed).hasSize(9)
+                .extracting(Order::getCustomerId).doesNotContain(bad);
+    }
+    
+    @Test
+    void stoppedCommitterRejectsNewOrders() throws Exception {
+        committer = start(200);
+        committer.stop();
+        
+        assertThatThrownBy(() -> committer.commit(orders(1, null).get(0)))
+                .isInstanceOf(IllegalStateException.class);
+        committer = null;
+    }
+    
+    private OrderGroupCommitter start(int maxBatch) {
+        OrderGroupCommitter started = new OrderGroupCommitter(writer, WINDOW_MICROS, maxBatch, 1_000, 5_000);
+        started.start();
+        return started;
+    }
+    
+    // Failures by customer id; callers are released together to land in one window
+    private Map<String, Throwable> commitConcurrently(List<Order> orders) throws Exception {
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (Order order : orders) {
+            results.add(callers.submit(() -> {
+                go.await();
+                committer.commit(order);
+                return null;
+            }));
+        }
+        go.countDown();
+        
+        Map<String, Throwable> failures = new ConcurrentHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            try {
+                results.get(i).get(10, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failures.put(orders.get(i).getCustomerId(), e.getCause());
+            }
+        }
+        return failures;
+    }
+    
+    private static List<Order> orders(int count, Integer poisoned) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String customerId = poisoned != null && i == poisoned ? "bad-customer" : "customer-" + i;
+            orders.add(OrderService.newOrder(UUID.randomUUID(), customerId, "product-1", 1,
+                    new BigDecimal("9.99"), LocalDateTime.now()));
+        }
+        return orders;
+    }
+    
+    /**
+     * Records each transaction; one containing the bad customer's order rolls
+     * back as a whole, like a constraint violation in a multi-row insert.
+     */
+    private static final class RecordingWriter extends OrderWriter {
+        
+        private final List<List<Order>> attempts = new CopyOnWriteArrayList<>();
+        private final List<Order> committed = new CopyOnWriteArrayList<>();
+        
+        private RecordingWriter() {
+            super(null, null, null);
+        }
+        
+        @Override
+        public void write(List<Order> orders) {
+            attempts.add(List.copyOf(orders));
+            if (orders.stream().anyMatch(order -> order.getCustomerId().startsWith("bad"))) {
+                throw new IllegalArgumentException("Order rejected by the database");
+            }
+            committed.addAll(orders);
+        }
+    }
+}
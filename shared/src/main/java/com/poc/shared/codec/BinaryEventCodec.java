@@ -0,0 +1,129 @@
+package com.poc.shared.codec;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schema-driven binary encoding of the shared events.
+ * <p>
+ * Layout: magic byte, schema id, format version, field count, presence bitmap
+ * of non-null fields, then the present fields in schema order. Integers are
+ * zigzag varints, BigDecimal is scale plus unscaled long, LocalDateTime is
+ * epoch second plus nanos and strings are length-prefixed UTF-8.
+ * <p>
+ * Schemas evolve by appending fields, which keeps the format version: older
+ * readers skip the fields they do not know. The version only changes with
+ * the layout, and readers reject versions newer than their own.
+ */
+@Component
+public class BinaryEventCodec {
+    
+    public static final byte MAGIC = (byte) 0xB1;
+    
+    private static final int VERSION = 1;
+    
+    private final Map<Class<?>, EventSchema<?>> schemasByType = new HashMap<>();
+    
+    private final ThreadLocal<BinaryWriter> writers = ThreadLocal.withInitial(() -> new BinaryWriter(256));
+    
+    public BinaryEventCodec() {
+        for (EventSchema<?> schema : EventSchemas.all()) {
+            schemasByType.put(schema.type, schema);
+        }
+    }
+    
+    public static boolean isBinary(byte[] payload) {
+        return payload != null && payload.length > 0 && payload[0] == MAGIC;
+    }
+    
+    public boolean supports(Class<?> type) {
+        return schemasByType.containsKey(type);
+    }
+    
+    public <T> byte[] encode(T event) {
+        EventSchema<T> schema = schemaFor(event.getClass());
+        List<EventSchema.Field<T>> fields = schema.fields;
+        
+        long presence = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getter.apply(event) != null) {
+                presence |= 1L << i;
+            }
+        }
+        
+        BinaryWriter writer = writers.get();
+        writer.reset();
+        writer.writeByte(MAGIC);
+        writer.writeByte(schema.id);
+        writer.writeByte(VERSION);
+        writer.writeVarLong(fields.size());
+        writer.writeVarLong(presence);
+        for (int i = 0; i < fields.size(); i++) {
+            if ((presence & (1L << i)) != 0) {
+                EventSchema.Field<T> field = fields.get(i);
+                field.type.write(writer, field.getter.apply(event));
+            }
+        }
+        return writer.toByteArray();
+    }
+    
+    public <T> T decode(byte[] payload, Class<T> type) {
+        return decode(payload, 0, payload.length, type);
+    }
+    
+    public <T> T decode(byte[] payload, int offset, int length, Class<T> type) {
+        EventSchema<T> schema = schemaFor(type);
+        T event = schema.factory.get();
+        decodeInto(payload, offset, length, schema, event, -1L);
+        return event;
+    }
+    
+    <T> void decodeInto(byte[] payload, int offset, int length, EventSchema<T> schema, T target, long fieldMask) {
+        BinaryReader reader = new BinaryReader(payload, offset, length);
+        if ((byte) reader.readByte() != MAGIC) {
+            throw new IllegalArgumentException("Not a binary event payload");
+        }
+        int schemaId = reader.readByte();
+        if (schemaId != schema.id) {
+            throw new IllegalArgumentException("Payload carries schema " + schemaId
+                    + " but " + schema.type.getSimpleName() + " was requested");
+        }
+        // VERSION covers the layout itself; appending a field to a schema does not change it
+        int version = reader.readByte();
+        if (version > VERSION) {
+            throw new IllegalArgumentException("Unsupported binary event version: " + version);
+        }
+        
+        List<EventSchema.Field<T>> fields = schema.fields;
+        // Fields appended to the schema by a newer writer of this version sit at the tail and are not read
+        int fieldCount = (int) Math.min(reader.readVarLong(), fields.size());
+        long presence = reader.readVarLong();
+        long remaining = presence & fieldMask & ((fieldCount == 64 ? -1L : (1L << fieldCount) - 1));
+        
+        for (int i = 0; i < fieldCount && remaining != 0; i++) {
+            long bit = 1L << i;
+            if ((presence & bit) == 0) {
+                continue;
+            }
+            EventSchema.Field<T> field = fields.get(i);
+            if ((fieldMask & bit) != 0) {
+                field.setter.accept(target, field.type.read(reader));
+                remaining &= ~bit;
+            } else {
+                field.type.skip(reader);
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    <T> EventSchema<T> schemaFor(Class<?> type) {
+        EventSchema<?> schema = schemasByType.get(type);
+        if (schema == null) {
+            throw new IllegalArgumentException("No binary schema registered for " + type.getName());
+        }
+        return (EventSchema<T>) schema;
+    }
+}
@@ -0,0 +1,86 @@
+package com.poc.shared.codec;
+
+import java.nio.charset.StandardCharsets;
+
+final class BinaryReader {
+    
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+    
+    BinaryReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+    
+    int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+    
+    long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in event payload");
+    }
+    
+    long readZigZag() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+    
+    double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (long) (buffer[position++] & 0xFF) << (i * 8);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+    
+    byte[] readBytes() {
+        int length = readLength();
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+    
+    String readString() {
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+    
+    void skipBytes() {
+        int length = readLength();
+        position += length;
+    }
+    
+    void skip(int length) {
+        require(length);
+        position += length;
+    }
+    
+    private int readLength() {
+        long length = readVarLong();
+        if (length < 0 || length > limit - position) {
+            throw new IllegalArgumentException("Truncated event payload");
+        }
+        return (int) length;
+    }
+    
+    private void require(int length) {
+        if (limit - position < length) {
+            throw new IllegalArgumentException("Truncated event payload");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.poc.shared.codec;
+
+/**
+ * Content types understood by {@link com.poc.shared.utils.EventUtils}. Producers
+ * stamp one of these on the message so JSON and binary consumers can coexist
+ * on the same destination during a rollout.
+ */
+public final class EventContentTypes {
+    
+    public static final String JSON = "application/json";
+    public static final String BINARY = "application/x-poc-event";
+    
+    private EventContentTypes() {
+    }
+    
+    public static boolean isBinary(String contentType) {
+        return contentType != null && contentType.startsWith(BINARY);
+    }
+    
+    /**
+     * Normalizes a {@code contentType} message header, which binders hand over
+     * either as a String or as a MimeType.
+     */
+    public static String of(Object contentTypeHeader) {
+        return contentTypeHeader != null ? contentTypeHeader.toString() : null;
+    }
+}
@@ -0,0 +1,82 @@
+package com.poc.shared.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Field layout of one event class on the wire. Fields are encoded in
+ * declaration order; new fields may only be appended so older readers can
+ * ignore the tail.
+ */
+final class EventSchema<T> {
+    
+    final int id;
+    final Class<T> type;
+    final Supplier<T> factory;
+    final List<Field<T>> fields;
+    
+    private EventSchema(int id, Class<T> type, Supplier<T> factory, List<Field<T>> fields) {
+        this.id = id;
+        this.type = type;
+        this.factory = factory;
+        this.fields = List.copyOf(fields);
+    }
+    
+    static <T> Builder<T> builder(int id, Class<T> type, Supplier<T> factory) {
+        return new Builder<>(id, type, factory);
+    }
+    
+    int indexOf(String fieldName) {
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).name.equals(fieldName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    static final class Field<T> {
+        
+        final String name;
+        final FieldType type;
+        final Function<T, Object> getter;
+        final BiConsumer<T, Object> setter;
+        
+        private Field(String name, FieldType type, Function<T, Object> getter, BiConsumer<T, Object> setter) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+    
+    static final class Builder<T> {
+        
+        private final int id;
+        private final Class<T> type;
+        private final Supplier<T> factory;
+        private final List<Field<T>> fields = new ArrayList<>();
+        
+        private Builder(int id, Class<T> type, Supplier<T> factory) {
+            this.id = id;
+            this.type = type;
+            this.factory = factory;
+        }
+        
+        @SuppressWarnings("unchecked")
+        <V> Builder<T> field(String name, FieldType fieldType, Function<T, V> getter, BiConsumer<T, V> setter) {
+            fields.add(new Field<>(name, fieldType, (Function<T, Object>) getter, (BiConsumer<T, Object>) setter));
+            return this;
+        }
+        
+        EventSchema<T> build() {
+            if (fields.size() > 64) {
+                throw new IllegalStateException("Event schema supports at most 64 fields: " + type.getName());
+            }
+            return new EventSchema<>(id, type, factory, fields);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.poc.shared.codec;
+
+import com.poc.shared.events.AnalyticsEvent;
+import com.poc.shared.events.InventoryUpdateEvent;
+import com.poc.shared.events.NotificationEvent;
+import com.poc.shared.events.OrderCreatedEvent;
+
+import java.util.List;
+
+/**
+ * Wire schemas of the shared events. Schema ids are part of the format and
+ * must never be reused.
+ */
+final class EventSchemas {
+    
+    private EventSchemas() {
+    }
+    
+    static List<EventSchema<?>> all() {
+        return List.of(orderCreated(), inventoryUpdate(), notification(), analytics());
+    }
+    
+    static EventSchema<OrderCreatedEvent> orderCreated() {
+        return EventSchema.builder(1, OrderCreatedEvent.class, OrderCreatedEvent::new)
+                .field("orderId", FieldType.STRING, OrderCreatedEvent::getOrderId, OrderCreatedEvent::setOrderId)
+                .field("customerId", FieldType.STRING, OrderCreatedEvent::getCustomerId, OrderCreatedEvent::setCustomerId)
+                .field("productId", FieldType.STRING, OrderCreatedEvent::getProductId, OrderCreatedEvent::setProductId)
+                .field("quantity", FieldType.INT, OrderCreatedEvent::getQuantity, OrderCreatedEvent::setQuantity)
+                .field("price", FieldType.DECIMAL, OrderCreatedEvent::getPrice, OrderCreatedEvent::setPrice)
+                .field("orderTimestamp", FieldType.TIMESTAMP, OrderCreatedEvent::getOrderTimestamp, OrderCreatedEvent::setOrderTimestamp)
+                .field("status", FieldType.STRING, OrderCreatedEvent::getStatus, OrderCreatedEvent::setStatus)
+                .build();
+    }
+    
+    static EventSchema<InventoryUpdateEvent> inventoryUpdate() {
+        return EventSchema.builder(2, InventoryUpdateEvent.class, InventoryUpdateEvent::new)
+                .field("orderId", FieldType.STRING, InventoryUpdateEvent::getOrderId, InventoryUpdateEvent::setOrderId)
+                .field("productId", FieldType.STRING, InventoryUpdateEvent::getProductId, InventoryUpdateEvent::setProductId)
+                .field("requestedQuantity", FieldType.INT, InventoryUpdateEvent::getRequestedQuantity, InventoryUpdateEvent::setRequestedQuantity)
+                .field("availableQuantity", FieldType.INT, InventoryUpdateEvent::getAvailableQuantity, InventoryUpdateEvent::setAvailableQuantity)
+                .field("inventoryReserved", FieldType.BOOLEAN, InventoryUpdateEvent::getInventoryReserved, InventoryUpdateEvent::setInventoryReserved)
+                .field("processedTimestamp", FieldType.TIMESTAMP, InventoryUpdateEvent::getProcessedTimestamp, InventoryUpdateEvent::setProcessedTimestamp)
+                .field("failureReason", FieldType.STRING, InventoryUpdateEvent::getFailureReason, InventoryUpdateEvent::setFailureReason)
+                .build();
+    }
+    
+    static EventSchema<NotificationEvent> notification() {
+        return EventSchema.builder(3, NotificationEvent.class, NotificationEvent::new)
+                .field("orderId", FieldType.STRING, NotificationEvent::getOrderId, NotificationEvent::setOrderId)
+                .field("customerId", FieldType.STRING, NotificationEvent::getCustomerId, NotificationEvent::setCustomerId)
+                .field("notificationType", FieldType.STRING, NotificationEvent::getNotificationType, NotificationEvent::setNotificationType)
+                .field("message", FieldType.STRING, NotificationEvent::getMessage, NotificationEvent::setMessage)
+                .field("recipient", FieldType.STRING, NotificationEvent::getRecipient, NotificationEvent::setRecipient)
+                .field("createdTimestamp", FieldType.TIMESTAMP, NotificationEvent::getCreatedTimestamp, NotificationEvent::setCreatedTimestamp)
+                .field("templateId", FieldType.STRING, NotificationEvent::getTemplateId, NotificationEvent::setTemplateId)
+                .build();
+    }
+    
+    static EventSchema<AnalyticsEvent> analytics() {
+        return EventSchema.builder(4, AnalyticsEvent.class, AnalyticsEvent::new)
+                .field("eventId", FieldType.STRING, AnalyticsEvent::getEventId, AnalyticsEvent::setEventId)
+                .field("eventType", FieldType.STRING, AnalyticsEvent::getEventType, AnalyticsEvent::setEventType)
+                .field("orderId", FieldType.STRING, AnalyticsEvent::getOrderId, AnalyticsEvent::setOrderId)
+                .field("customerId", FieldType.STRING, AnalyticsEvent::getCustomerId, AnalyticsEvent::setCustomerId)
+                .field("productId", FieldType.STRING, AnalyticsEvent::getProductId, AnalyticsEvent::setProductId)
+                .field("orderValue", FieldType.DECIMAL, AnalyticsEvent::getOrderValue, AnalyticsEvent::setOrderValue)
+                .field("eventTimestamp", FieldType.TIMESTAMP, AnalyticsEvent::getEventTimestamp, AnalyticsEvent::setEventTimestamp)
+                .field("additionalData", FieldType.MAP, AnalyticsEvent::getAdditionalData, AnalyticsEvent::setAdditionalData)
+                .build();
+    }
+}
@@ -0,0 +1,244 @@
+package com.poc.shared.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire encodings for the field types used by the event classes. Every type can
+ * be skipped without materializing its value.
+ */
+enum FieldType {
+    
+    STRING {
+        @Override
+        void write(BinaryWriter writer, Object value) {
+            writer.writeString((String) value);
+        }
+        
+        @Override
+        Object read(BinaryReader reader) {
+            return reader.readString();
+        }
+        
+        @Override
+        void skip(BinaryReader reader) {
+            reader.skipBytes();
+        }
+    },
+    
+    INT {
+        @Override
+        void write(BinaryWriter writer, Object value) {
+            writer.writeZigZag((Integer) value);
+        }
+        
+        @Override
+        Object read(BinaryReader reader) {
+            return (int) reader.readZigZag();
+        }
+        
+        @Override
+        void skip(BinaryReader reader) {
+            reader.readVarLong();
+        }
+    },
+    
+    BOOLEAN {
+        @Override
+        void write(BinaryWriter writer, Object value) {
+            writer.writeByte((Boolean) value ? 1 : 0);
+        }
+        
+        @Override
+        Object read(BinaryReader reader) {
+            return reader.readByte() != 0;
+        }
+        
+        @Override
+        void skip(BinaryReader reader) {
+            reader.skip(1);
+        }
+    },
+    
+    // scale, then the unscaled value as a zigzag long when it fits, two's complement bytes otherwise
+    DECIMAL {
+        @Override
+        void write(BinaryWriter writer, Object value) {
+            BigDecimal decimal = (BigDecimal) value;
+            writer.writeZigZag(decimal.scale());
+            BigInteger unscaled = decimal.unscaledValue();
+            if (unscaled.bitLength() < 64) {
+                writer.writeByte(0);
+                writer.writeZigZag(unscaled.longValue());
+            } else {
+                writer.writeByte(1);
+                writer.writeBytes(unscaled.toByteArray());
+            }
+        }
+        
+        @Override
+        Object read(BinaryReader reader) {
+            int scale = (int) reader.readZigZag();
+            if (reader.readByte() == 0) {
+                return BigDecimal.valueOf(reader.readZigZag(), scale);
+            }
+            return new BigDecimal(new BigInteger(reader.readBytes()), scale);
+        }
+        
+        @Override
+        void skip(BinaryReader reader) {
+            reader.readVarLong();
+            if (reader.readByte() == 0) {
+                reader.readVarLong();
+            } else {
+                reader.skipBytes();
+            }
+        }
+    },
+    
+    // epoch second of the local date-time taken at UTC, then nanos
+    TIMESTAMP {
+        @Override
+        void write(BinaryWriter writer, Object value) {
+            LocalDateTime timestamp = (LocalDateTime) value;
+            writer.writeZigZag(timestamp.toEpochSecond(ZoneOffset.UTC));
+            writer.writeVarLong(timestamp.getNano());
+        }
+        
+        @Override
+        Object read(BinaryReader reader) {
+            long epochSecond = reader.readZigZag();
+            int nanos = (int) reader.readVarLong();
+            return LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC);
+        }
+        
+        @Override
+        void skip(BinaryReader reader) {
+            reader.readVarLong();
+            reader.readVarLong();
+        }
+    },
+    
+    // tagged values, covering what Jackson produces for a Map<String, Object>
+    MAP {
+        private static final int TAG_NULL = 0;
+        private static final int TAG_STRING = 1;
+        private static final int TAG_BOOLEAN = 2;
+        private static final int TAG_INT = 3;
+        private static final int TAG_LONG = 4;
+        private static final int TAG_DOUBLE = 5;
+        private static final int TAG_DECIMAL = 6;
+        private static final int TAG_LIST = 7;
+        private static final int TAG_MAP = 8;
+        
+        @Override
+        void write(BinaryWriter writer, Object value) {
+            writeMap(writer, (Map<?, ?>) value);
+        }
+        
+        @Override
+        Object read(BinaryReader reader) {
+            return readMap(reader);
+        }
+        
+        @Override
+        void skip(BinaryReader reader) {
+            readMap(reader);
+        }
+        
+        private void writeMap(BinaryWriter writer, Map<?, ?> map) {
+            writer.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writer.writeString(String.valueOf(entry.getKey()));
+                writeValue(writer, entry.getValue());
+            }
+        }
+        
+        private Map<String, Object> readMap(BinaryReader reader) {
+            int size = (int) reader.readVarLong();
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                map.put(reader.readString(), readValue(reader));
+            }
+            return map;
+        }
+        
+        private void writeValue(BinaryWriter writer, Object value) {
+            if (value == null) {
+                writer.writeByte(TAG_NULL);
+            } else if (value instanceof String s) {
+                writer.writeByte(TAG_STRING);
+                writer.writeString(s);
+            } else if (value instanceof Boolean b) {
+                writer.writeByte(TAG_BOOLEAN);
+                writer.writeByte(b ? 1 : 0);
+            } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                writer.writeByte(TAG_INT);
+                writer.writeZigZag(((Number) value).intValue());
+            } else if (value instanceof Long l) {
+                writer.writeByte(TAG_LONG);
+                writer.writeZigZag(l);
+            } else if (value instanceof Double || value instanceof Float) {
+                writer.writeByte(TAG_DOUBLE);
+                writer.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof BigDecimal) {
+                writer.writeByte(TAG_DECIMAL);
+                DECIMAL.write(writer, value);
+            } else if (value instanceof List<?> list) {
+                writer.writeByte(TAG_LIST);
+                writer.writeVarLong(list.size());
+                for (Object element : list) {
+                    writeValue(writer, element);
+                }
+            } else if (value instanceof Map<?, ?> map) {
+                writer.writeByte(TAG_MAP);
+                writeMap(writer, map);
+            } else {
+                throw new IllegalArgumentException("Unsupported value type in event map: " + value.getClass().getName());
+            }
+        }
+        
+        private Object readValue(BinaryReader reader) {
+            int tag = reader.readByte();
+            switch (tag) {
+                case TAG_NULL:
+                    return null;
+                case TAG_STRING:
+                    return reader.readString();
+                case TAG_BOOLEAN:
+                    return reader.readByte() != 0;
+                case TAG_INT:
+                    return (int) reader.readZigZag();
+                case TAG_LONG:
+                    return reader.readZigZag();
+                case TAG_DOUBLE:
+                    return reader.readDouble();
+                case TAG_DECIMAL:
+                    return DECIMAL.read(reader);
+                case TAG_LIST:
+                    int size = (int) reader.readVarLong();
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue(reader));
+                    }
+                    return list;
+                case TAG_MAP:
+                    return readMap(reader);
+                default:
+                    throw new IllegalArgumentException("Unknown value tag in event map: " + tag);
+            }
+        }
+    };
+    
+    abstract void write(BinaryWriter writer, Object value);
+    
+    abstract Object read(BinaryReader reader);
+    
+    abstract void skip(BinaryReader reader);
+}
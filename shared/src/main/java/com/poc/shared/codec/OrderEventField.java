@@ -0,0 +1,48 @@
+package com.poc.shared.codec;
+
+/**
+ * Fields of {@link com.poc.shared.events.OrderCreatedEvent} a consumer can ask
+ * {@link OrderEventReader} for. Names match both the JSON property and the
+ * binary schema field.
+ */
+public enum OrderEventField {
+    
+    ORDER_ID("orderId"),
+    CUSTOMER_ID("customerId"),
+    PRODUCT_ID("productId"),
+    QUANTITY("quantity"),
+    PRICE("price"),
+    ORDER_TIMESTAMP("orderTimestamp"),
+    STATUS("status");
+    
+    private final String fieldName;
+    
+    OrderEventField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+    
+    public String fieldName() {
+        return fieldName;
+    }
+    
+    static OrderEventField byFieldName(String name) {
+        switch (name) {
+            case "orderId":
+                return ORDER_ID;
+            case "customerId":
+                return CUSTOMER_ID;
+            case "productId":
+                return PRODUCT_ID;
+            case "quantity":
+                return QUANTITY;
+            case "price":
+                return PRICE;
+            case "orderTimestamp":
+                return ORDER_TIMESTAMP;
+            case "status":
+                return STATUS;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.poc.shared.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.shared.events.OrderCreatedEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Reads {@link OrderCreatedEvent}s straight from message bytes without building
+ * an intermediate String or JSON tree. Only the selected fields are decoded,
+ * everything else is skipped and left null.
+ * <p>
+ * {@link #readPooled} fills an instance owned by the calling thread, which is
+ * overwritten by the next call on that thread; it must not be retained after
+ * the message has been handled. Use {@link #read} when the event outlives the
+ * consumer callback.
+ */
+@Component
+public class OrderEventReader {
+    
+    private final JsonFactory jsonFactory;
+    private final ObjectMapper eventObjectMapper;
+    private final BinaryEventCodec binaryEventCodec;
+    private final EventSchema<OrderCreatedEvent> schema;
+    
+    private final ThreadLocal<OrderCreatedEvent> pooledEvents = ThreadLocal.withInitial(OrderCreatedEvent::new);
+    
+    public OrderEventReader(ObjectMapper eventObjectMapper, BinaryEventCodec binaryEventCodec) {
+        this.eventObjectMapper = eventObjectMapper;
+        this.jsonFactory = eventObjectMapper.getFactory();
+        this.binaryEventCodec = binaryEventCodec;
+        this.schema = binaryEventCodec.schemaFor(OrderCreatedEvent.class);
+    }
+    
+    public Selection select(OrderEventField first, OrderEventField... rest) {
+        EnumSet<OrderEventField> fields = EnumSet.of(first, rest);
+        long binaryMask = 0;
+        for (OrderEventField field : fields) {
+            binaryMask |= 1L << schema.indexOf(field.fieldName());
+        }
+        return new Selection(fields, binaryMask);
+    }
+    
+    public OrderCreatedEvent readPooled(byte[] payload, String contentType, Selection selection) {
+        OrderCreatedEvent event = pooledEvents.get();
+        clear(event);
+        readInto(payload, 0, payload.length, contentType, selection, event);
+        return event;
+    }
+    
+    public OrderCreatedEvent readPooled(ByteBuffer payload, String contentType, Selection selection) {
+        if (payload.hasArray()) {
+            OrderCreatedEvent event = pooledEvents.get();
+            clear(event);
+            readInto(payload.array(), payload.arrayOffset() + payload.position(), payload.remaining(), 
+                    contentType, selection, event);
+            return event;
+        }
+        byte[] copy = new byte[payload.remaining()];
+        payload.duplicate().get(copy);
+        return readPooled(copy, contentType, selection);
+    }
+    
+    public OrderCreatedEvent read(byte[] payload, String contentType, Selection selection) {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        readInto(payload, 0, payload.length, contentType, selection, event);
+        return event;
+    }
+    
+    private void readInto(byte[] payload, int offset, int length, String contentType, 
+                          Selection selection, OrderCreatedEvent event) {
+        try {
+            if (EventContentTypes.isBinary(contentType) 
+                    || (length > 0 && payload[offset] == BinaryEventCodec.MAGIC)) {
+                binaryEventCodec.decodeInto(payload, offset, length, schema, event, selection.binaryMask);
+            } else {
+                readJson(payload, offset, length, selection, event);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw new RuntimeException("Event deserialization failed", e);
+        }
+    }
+    
+    private void readJson(byte[] payload, int offset, int length, Selection selection, 
+                          OrderCreatedEvent event) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(payload, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Order event payload is not a JSON object");
+            }
+            
+            int remaining = selection.fields.size();
+            while (remaining > 0 && parser.nextToken() == JsonToken.FIELD_NAME) {
+                OrderEventField field = OrderEventField.byFieldName(parser.currentName());
+                JsonToken token = parser.nextToken();
+                if (field == null || !selection.fields.contains(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                remaining--;
+                if (token == JsonToken.VALUE_NULL) {
+                    continue;
+                }
+                
+                switch (field) {
+                    case ORDER_ID -> event.setOrderId(parser.getText());
+                    case CUSTOMER_ID -> event.setCustomerId(parser.getText());
+                    case PRODUCT_ID -> event.setProductId(parser.getText());
+                    case QUANTITY -> event.setQuantity(parser.getValueAsInt());
+                    case PRICE -> event.setPrice(token == JsonToken.VALUE_STRING 
+                            ? new BigDecimal(parser.getText()) 
+                            : parser.getDecimalValue());
+                    case ORDER_TIMESTAMP -> event.setOrderTimestamp(token == JsonToken.VALUE_STRING 
+                            ? LocalDateTime.parse(parser.getText()) 
+                            : eventObjectMapper.readValue(parser, LocalDateTime.class));
+                    case STATUS -> event.setStatus(parser.getText());
+                }
+            }
+        }
+    }
+    
+    private static void clear(OrderCreatedEvent event) {
+        event.setOrderId(null);
+        event.setCustomerId(null);
+        event.setProductId(null);
+        event.setQuantity(null);
+        event.setPrice(null);
+        event.setOrderTimestamp(null);
+        event.setStatus(null);
+    }
+    
+    /**
+     * Precomputed field selection; build once per consumer with {@link #select}.
+     */
+    public static final class Selection {
+        
+        private final Set<OrderEventField> fields;
+        private final long binaryMask;
+        
+        private Selection(Set<OrderEventField> fields, long binaryMask) {
+            this.fields = fields;
+            this.binaryMask = binaryMask;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.poc.shared.config;
+
+import com.poc.shared.id.IdGenerator;
+import com.poc.shared.id.UuidV7Generator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdGeneratorConfig {
+    
+    // Services can declare their own IdGenerator bean to replace it
+    @Bean
+    @ConditionalOnMissingBean
+    public IdGenerator idGenerator() {
+        return new UuidV7Generator();
+    }
+}
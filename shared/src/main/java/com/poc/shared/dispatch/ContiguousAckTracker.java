@@ -0,0 +1,69 @@
+package com.poc.shared.dispatch;
+
+import java.util.ArrayDeque;
+
+/**
+ * Turns out-of-order completions into in-order commit points. Sequences are
+ * registered in increasing order as records are handed out; completions can
+ * arrive in any order. {@link #complete} returns the highest sequence that
+ * may now be committed, i.e. every sequence up to it has completed, or -1 if
+ * the commit point did not move.
+ * <p>
+ * A completion can be marked not committable (a record that was rejected
+ * individually); it still closes the gap but is never returned itself, so a
+ * cumulative ack never lands on an already settled record.
+ * <p>
+ * The in-flight window is bounded by the caller (consumer prefetch), so
+ * lookups scan it linearly.
+ */
+public final class ContiguousAckTracker {
+    
+    private final ArrayDeque<Entry> inFlight = new ArrayDeque<>();
+    private long lastCommitted = -1;
+    
+    public synchronized void register(long sequence) {
+        inFlight.addLast(new Entry(sequence));
+    }
+    
+    public synchronized long complete(long sequence, boolean committable) {
+        Entry entry = find(sequence);
+        entry.done = true;
+        entry.committable = committable;
+        
+        long commitTo = -1;
+        while (!inFlight.isEmpty() && inFlight.peekFirst().done) {
+            Entry head = inFlight.pollFirst();
+            if (head.committable) {
+                commitTo = head.sequence;
+            }
+        }
+        if (commitTo > lastCommitted) {
+            lastCommitted = commitTo;
+            return commitTo;
+        }
+        return -1;
+    }
+    
+    public synchronized int pending() {
+        return inFlight.size();
+    }
+    
+    private Entry find(long sequence) {
+        for (Entry entry : inFlight) {
+            if (entry.sequence == sequence) {
+                return entry;
+            }
+        }
+        throw new IllegalArgumentException("Sequence " + sequence + " is not in flight");
+    }
+    
+    private static final class Entry {
+        private final long sequence;
+        private boolean done;
+        private boolean committable;
+        
+        private Entry(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.poc.shared.dispatch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans tasks out to a fixed set of single-threaded workers by key hash. All
+ * tasks for one key run on the same worker in submission order, tasks for
+ * different keys run in parallel. Each worker has a bounded queue and
+ * {@link #submit} blocks while it is full, which throttles the caller
+ * (normally a consumer thread) instead of buffering without limit.
+ * <p>
+ * Tasks handle their own failures; an exception escaping a task is logged
+ * and the worker moves on.
+ */
+@Slf4j
+public final class KeyedDispatcher implements AutoCloseable {
+    
+    private final Worker[] workers;
+    
+    public KeyedDispatcher(String name, int workerCount, int queueCapacity) {
+        int count = workerCount > 0 ? workerCount : Runtime.getRuntime().availableProcessors();
+        this.workers = new Worker[count];
+        for (int i = 0; i < count; i++) {
+            workers[i] = new Worker(name + "-" + i, queueCapacity);
+            workers[i].thread.start();
+        }
+    }
+    
+    public void submit(String key, Runnable task) throws InterruptedException {
+        Worker worker = workers[Math.floorMod(key == null ? 0 : key.hashCode(), workers.length)];
+        if (!worker.running) {
+            throw new IllegalStateException("Dispatcher is closed");
+        }
+        worker.queue.put(task);
+    }
+    
+    public int workerCount() {
+        return workers.length;
+    }
+    
+    /**
+     * Stops accepting tasks and lets workers finish what is queued.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        for (Worker worker : workers) {
+            worker.running = false;
+        }
+        for (Worker worker : workers) {
+            worker.thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+    
+    private static final class Worker implements Runnable {
+        
+        private final BlockingQueue<Runnable> queue;
+        private final Thread thread;
+        private volatile boolean running = true;
+        
+        private Worker(String name, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, name);
+            this.thread.setDaemon(true);
+        }
+        
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Runnable task;
+                try {
+                    task = queue.poll(100, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (task == null) {
+                    continue;
+                }
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("Keyed task failed on {}", thread.getName(), e);
+                }
+            }
+        }
+    }
+}
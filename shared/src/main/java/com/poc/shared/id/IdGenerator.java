@@ -0,0 +1,20 @@
+package com.poc.shared.id;
+
+import java.util.UUID;
+
+/**
+ * Source of primary keys. Ids are 128-bit so they store as {@code BINARY(16)}
+ * and keep their canonical text form in APIs and events.
+ */
+public interface IdGenerator {
+    
+    UUID nextId();
+    
+    /**
+     * Short form for display: the last 8 hex digits. For time-ordered ids the
+     * leading digits are the timestamp and repeat across nearby orders.
+     */
+    static String shortForm(String id) {
+        return id.length() <= 8 ? id : id.substring(id.length() - 8);
+    }
+}
@@ -0,0 +1,103 @@
+package com.poc.shared.idempotency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Drops redelivered events before any database or network work, keyed by
+ * consumer group and orderId.
+ * <p>
+ * Hot tier: an LRU of recently confirmed ids and a time-windowed Bloom filter,
+ * both of fixed size. A Bloom miss proves the id was not handled within the
+ * window, so most new events never leave memory. Only a Bloom hit that the LRU
+ * cannot confirm goes to the service's {@link ProcessedEventStore}; services
+ * without one treat such an event as new, accepting a duplicate over a lost
+ * message. Lazy, so services without a consumer never allocate it.
+ * <p>
+ * The filter starts empty, so until it has run for one window a miss proves
+ * nothing: events handled before a restart, or by another instance before a
+ * rebalance or shared-subscription redelivery, would look new. During that
+ * warm-up every event the LRU cannot confirm is checked against the store.
+ */
+@Slf4j
+@Lazy
+@Component
+public class IdempotencyFilter {
+    
+    private final String consumerGroup;
+    private final WindowedBloomFilter bloomFilter;
+    private final Map<String, Boolean> confirmed;
+    private final ProcessedEventStore store;
+    private final Counter duplicates;
+    private final long warmAtNanos;
+    
+    public IdempotencyFilter(
+            @Value("${poc.idempotency.consumer-group:${spring.cloud.stream.bindings.processOrderEvents-in-0.group:default}}") String consumerGroup,
+            @Value("${poc.idempotency.window:1h}") Duration window,
+            @Value("${poc.idempotency.bloom-bits:8388608}") int bloomBits,
+            @Value("${poc.idempotency.bloom-hashes:5}") int bloomHashes,
+            @Value("${poc.idempotency.lru-size:100000}") int lruSize,
+            ObjectProvider<ProcessedEventStore> store,
+            MeterRegistry meterRegistry) {
+        this.consumerGroup = consumerGroup;
+        this.bloomFilter = new WindowedBloomFilter(bloomBits, bloomHashes, window.toNanos());
+        this.confirmed = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > lruSize;
+            }
+        };
+        this.store = store.getIfAvailable();
+        this.warmAtNanos = System.nanoTime() + window.toNanos();
+        this.duplicates = Counter.builder("poc.idempotency.duplicates")
+                .tag("group", consumerGroup)
+                .register(meterRegistry);
+        log.info("Idempotency filter for {}: window {}, {} KB of Bloom bits, {} confirmed ids, durable store: {}", 
+                consumerGroup, window, bloomFilter.memoryBytes() / 1024, lruSize, 
+                this.store != null ? this.store.getClass().getSimpleName() : "none");
+    }
+    
+    public boolean isDuplicate(String eventId) {
+        String key = consumerGroup + ':' + eventId;
+        boolean duplicate;
+        synchronized (confirmed) {
+            // get, not containsKey: a hit must refresh the access order
+            duplicate = confirmed.get(key) != null;
+        }
+        if (!duplicate && store != null && (bloomFilter.mightContain(key) || !warm())) {
+            duplicate = store.contains(consumerGroup, eventId);
+        }
+        if (duplicate) {
+            duplicates.increment();
+        }
+        return duplicate;
+    }
+    
+    public String consumerGroup() {
+        return consumerGroup;
+    }
+    
+    public void markProcessed(String eventId) {
+        String key = consumerGroup + ':' + eventId;
+        if (store != null) {
+            store.record(consumerGroup, eventId);
+        }
+        bloomFilter.put(key);
+        synchronized (confirmed) {
+            confirmed.put(key, Boolean.TRUE);
+        }
+    }
+    
+    private boolean warm() {
+        return System.nanoTime() - warmAtNanos >= 0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.poc.shared.idempotency;
+
+/**
+ * Durable record of handled events, consulted by {@link IdempotencyFilter}
+ * only when its in-memory tier cannot rule a duplicate out.
+ */
+public interface ProcessedEventStore {
+    
+    boolean contains(String consumerGroup, String eventId);
+    
+    void record(String consumerGroup, String eventId);
+}
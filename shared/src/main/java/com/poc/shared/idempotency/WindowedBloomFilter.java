@@ -0,0 +1,118 @@
+package com.poc.shared.idempotency;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Bloom filter over a sliding time window, built from two generations of
+ * fixed size: inserts go to the current generation and lookups check both.
+ * When the current generation is older than the window it becomes the
+ * previous one and the oldest is dropped, so a key is remembered for at least
+ * one window and at most two. Memory is fixed at two bit arrays.
+ */
+final class WindowedBloomFilter {
+    
+    private final int bitCount;
+    private final int hashCount;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    
+    private volatile Generation current;
+    private volatile Generation previous;
+    
+    WindowedBloomFilter(int bitCount, int hashCount, long windowNanos) {
+        this(bitCount, hashCount, windowNanos, System::nanoTime);
+    }
+    
+    WindowedBloomFilter(int bitCount, int hashCount, long windowNanos, LongSupplier nanoClock) {
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.windowNanos = windowNanos;
+        this.nanoClock = nanoClock;
+        this.current = new Generation(bitCount, nanoClock.getAsLong());
+        this.previous = new Generation(bitCount, nanoClock.getAsLong());
+    }
+    
+    boolean mightContain(String key) {
+        rotateIfDue();
+        long hash = hash(key);
+        return current.contains(hash) || previous.contains(hash);
+    }
+    
+    void put(String key) {
+        rotateIfDue();
+        current.put(hash(key));
+    }
+    
+    long memoryBytes() {
+        return 2L * ((bitCount + 63) / 64) * Long.BYTES;
+    }
+    
+    private void rotateIfDue() {
+        long now = nanoClock.getAsLong();
+        if (now - current.startedAt < windowNanos) {
+            return;
+        }
+        synchronized (this) {
+            if (now - current.startedAt >= windowNanos) {
+                previous = current;
+                current = new Generation(bitCount, now);
+            }
+        }
+    }
+    
+    // FNV-1a over the chars, finished with the murmur3 64-bit mixer
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+    
+    private final class Generation {
+        
+        private final AtomicLongArray bits;
+        private final long startedAt;
+        
+        private Generation(int bitCount, long startedAt) {
+            this.bits = new AtomicLongArray((bitCount + 63) / 64);
+            this.startedAt = startedAt;
+        }
+        
+        private boolean contains(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long value;
+                do {
+                    value = bits.get(word);
+                    if ((value & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, value, value | mask));
+            }
+        }
+    }
+}
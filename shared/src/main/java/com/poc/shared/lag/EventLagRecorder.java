@@ -0,0 +1,77 @@
+package com.poc.shared.lag;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long order events take between pipeline stages, per consumer
+ * binding, as the {@code poc.event.lag} timer tagged with {@code binding} and
+ * {@code stage} ({@code outbox-to-publish}, {@code publish-to-receive},
+ * {@code receive-to-done}).
+ * <p>
+ * Timers publish percentile histograms: recording is a bucket increment, and
+ * the OTLP registry exports them as exponential histograms, so a backlog on
+ * one broker shows up as that binding's publish-to-receive tail moving.
+ */
+@Component
+public class EventLagRecorder {
+    
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(100_000);
+    private static final Duration MAX_EXPECTED = Duration.ofHours(1);
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    
+    public EventLagRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /** A received event whose processing has not finished yet. */
+    public record Receipt(String binding, long receivedNanos) {
+    }
+    
+    /**
+     * Records the gaps between the stages stamped upstream and up to now,
+     * and starts the receive-to-done clock.
+     */
+    public Receipt received(String binding, Map<String, Object> headers) {
+        long receivedNanos = System.nanoTime();
+        List<EventTrace.Stamp> stamps = EventTrace.stamps(
+                headers.get(EventTrace.TRACE_HEADER), headers.get(EventTrace.PUBLISHED_AT_HEADER));
+        if (!stamps.isEmpty()) {
+            stamps.add(new EventTrace.Stamp(EventTrace.RECEIVE, EventTrace.nowMicros()));
+            for (int i = 1; i < stamps.size(); i++) {
+                EventTrace.Stamp from = stamps.get(i - 1);
+                EventTrace.Stamp to = stamps.get(i);
+                // Clock skew between hosts can make a gap negative
+                long micros = Math.max(0, to.epochMicros() - from.epochMicros());
+                timer(binding, from.stage(), to.stage()).record(micros, TimeUnit.MICROSECONDS);
+            }
+        }
+        return new Receipt(binding, receivedNanos);
+    }
+    
+    public void done(Receipt receipt) {
+        timer(receipt.binding(), EventTrace.RECEIVE, EventTrace.DONE)
+                .record(System.nanoTime() - receipt.receivedNanos(), TimeUnit.NANOSECONDS);
+    }
+    
+    private Timer timer(String binding, String from, String to) {
+        String stage = from + "-to-" + to;
+        return timers.computeIfAbsent(binding + '|' + stage, ignored -> Timer.builder("poc.event.lag")
+                .description("Time an order event spent between two pipeline stages")
+                .tag("binding", binding)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(meterRegistry));
+    }
+}
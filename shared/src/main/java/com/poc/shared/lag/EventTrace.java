@@ -0,0 +1,94 @@
+package com.poc.shared.lag;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message headers that carry an order event's trip through the pipeline.
+ * <p>
+ * {@link #PUBLISHED_AT_HEADER} is the publish time in epoch microseconds.
+ * {@link #TRACE_HEADER} lists every stage the event passed so far as
+ * {@code stage@epochMicros} entries, oldest first, for example
+ * {@code outbox@1760688000000000,publish@1760688000012345}. Values are sent as
+ * strings so every binder's header mapper round-trips them unchanged.
+ * <p>
+ * Times come from the wall clock of each host, so cross-service gaps are only
+ * as accurate as the hosts' clock synchronisation.
+ */
+public final class EventTrace {
+    
+    public static final String PUBLISHED_AT_HEADER = "poc-published-at";
+    public static final String TRACE_HEADER = "poc-trace";
+    
+    public static final String OUTBOX = "outbox";
+    public static final String PUBLISH = "publish";
+    public static final String RECEIVE = "receive";
+    public static final String DONE = "done";
+    
+    public record Stamp(String stage, long epochMicros) {
+    }
+    
+    private EventTrace() {
+    }
+    
+    public static long nowMicros() {
+        return toMicros(Instant.now());
+    }
+    
+    public static long toMicros(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+    
+    public static long toMicros(LocalDateTime localDateTime) {
+        return toMicros(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+    
+    public static String append(String trace, String stage, long epochMicros) {
+        String stamp = stage + '@' + epochMicros;
+        return trace == null || trace.isEmpty() ? stamp : trace + ',' + stamp;
+    }
+    
+    /**
+     * Stamps from the trace header, falling back to the bare publish time for
+     * publishers that only set that. Malformed entries are skipped.
+     */
+    public static List<Stamp> stamps(Object traceHeader, Object publishedAtHeader) {
+        List<Stamp> stamps = new ArrayList<>(4);
+        String trace = headerString(traceHeader);
+        if (trace != null) {
+            for (String entry : trace.split(",")) {
+                int at = entry.lastIndexOf('@');
+                if (at > 0) {
+                    try {
+                        stamps.add(new Stamp(entry.substring(0, at), Long.parseLong(entry.substring(at + 1))));
+                    } catch (NumberFormatException ignored) {
+                        // Not ours to fail the message over
+                    }
+                }
+            }
+        }
+        if (stamps.isEmpty()) {
+            String publishedAt = headerString(publishedAtHeader);
+            if (publishedAt != null) {
+                try {
+                    stamps.add(new Stamp(PUBLISH, Long.parseLong(publishedAt)));
+                } catch (NumberFormatException ignored) {
+                    // Same as a missing header
+                }
+            }
+        }
+        return stamps;
+    }
+    
+    private static String headerString(Object header) {
+        if (header == null) {
+            return null;
+        }
+        // Raw Kafka headers arrive as bytes
+        return header instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : header.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.poc.shared.paging;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a page, ordered by (timestamp, id)
+ * descending. Clients get it as an opaque URL-safe token and send it back
+ * unchanged; the next page starts strictly after it, so pages stay stable
+ * while new rows are inserted.
+ */
+public record KeysetCursor(LocalDateTime timestamp, String id) {
+    
+    public String encode() {
+        String raw = timestamp.toEpochSecond(ZoneOffset.UTC) + ":" + timestamp.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decodes a token from {@link #encode()}, or returns null for a missing
+     * one (first page). A malformed token is an {@link IllegalArgumentException},
+     * which the controllers answer with 400.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf(':');
+            int second = raw.indexOf(':', first + 1);
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(
+                    Long.parseLong(raw.substring(0, first)), 
+                    Integer.parseInt(raw.substring(first + 1, second)), 
+                    ZoneOffset.UTC);
+            return new KeysetCursor(timestamp, raw.substring(second + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
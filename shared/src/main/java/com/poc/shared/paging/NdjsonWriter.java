@@ -0,0 +1,49 @@
+package com.poc.shared.paging;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of rows as newline-delimited JSON, one row at a time, so
+ * memory does not grow with the result size. {@code afterWrite} lets the
+ * caller release each row (e.g. detach it from the persistence context).
+ */
+public final class NdjsonWriter {
+    
+    public static final String MEDIA_TYPE = "application/x-ndjson";
+    
+    private static final int FLUSH_EVERY = 256;
+    
+    private NdjsonWriter() {
+    }
+    
+    public static <T> long write(Stream<T> rows, OutputStream out, ObjectMapper objectMapper, 
+                                 Consumer<T> afterWrite) throws IOException {
+        // Flush in chunks rather than after every row
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                writer.writeValue(generator, row);
+                generator.writeRaw('\n');
+                afterWrite.accept(row);
+                if (++count % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -2,16 +2,22 @@ package com.poc.shared.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.shared.codec.BinaryEventCodec;
+import com.poc.shared.codec.EventContentTypes;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class EventUtils {
     
     private final ObjectMapper eventObjectMapper;
+    private final BinaryEventCodec binaryEventCodec;
     
     public <T> String serialize(T event) {
         try {
@@ -30,4 +36,44 @@ public class EventUtils {
             throw new RuntimeException("Event deserialization failed", e);
         }
     }
-}
\ No newline at end of file
+    
+    public <T> byte[] serialize(T event, String contentType) {
+        if (EventContentTypes.isBinary(contentType)) {
+            try {
+                return binaryEventCodec.encode(event);
+            } catch (RuntimeException e) {
+                log.error("Failed to serialize event: {}", event, e);
+                throw new RuntimeException("Event serialization failed", e);
+            }
+        }
+        try {
+            return eventObjectMapper.writeValueAsBytes(event);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize event: {}", event, e);
+            throw new RuntimeException("Event serialization failed", e);
+        }
+    }
+    
+    /**
+     * Decodes a payload according to its content type. The binary magic byte can
+     * never start a JSON document, so a payload whose header was lost or
+     * defaulted by the binding is still recognized.
+     */
+    public <T> T deserialize(byte[] payload, String contentType, Class<T> clazz) {
+        if (EventContentTypes.isBinary(contentType) || BinaryEventCodec.isBinary(payload)) {
+            try {
+                return binaryEventCodec.decode(payload, clazz);
+            } catch (RuntimeException e) {
+                log.error("Failed to deserialize {} from binary payload of {} bytes", 
+                        clazz.getSimpleName(), payload.length, e);
+                throw new RuntimeException("Event deserialization failed", e);
+            }
+        }
+        try {
+            return eventObjectMapper.readValue(payload, clazz);
+        } catch (IOException e) {
+            log.error("Failed to deserialize event from JSON: {}", new String(payload, StandardCharsets.UTF_8), e);
+            throw new RuntimeException("Event deserialization failed", e);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.poc.shared.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.poc.shared.config.EventSerializationConfig;
+import com.poc.shared.events.AnalyticsEvent;
+import com.poc.shared.events.InventoryUpdateEvent;
+import com.poc.shared.events.NotificationEvent;
+import com.poc.shared.events.OrderCreatedEvent;
+import com.poc.shared.utils.EventUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryEventCodecTest {
+    
+    private static final LocalDateTime NANOS = LocalDateTime.of(2025, 3, 9, 14, 7, 31, 123_456_789);
+    private static final LocalDateTime BEFORE_EPOCH = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1);
+    
+    private final ObjectMapper objectMapper = new EventSerializationConfig().eventObjectMapper();
+    private final BinaryEventCodec codec = new BinaryEventCodec();
+    private final EventUtils eventUtils = new EventUtils(objectMapper, codec);
+    
+    static Stream<Object> events() {
+        Map<String, Object> additionalData = new LinkedHashMap<>();
+        additionalData.put("channel", "web");
+        additionalData.put("items", 3);
+        additionalData.put("large", Long.MAX_VALUE);
+        additionalData.put("ratio", 0.25);
+        additionalData.put("discount", new BigDecimal("-12.3400"));
+        additionalData.put("flags", List.of(true, "x", 7));
+        additionalData.put("nested", Map.of("key", "value"));
+        additionalData.put("missing", null);
+        
+        return Stream.of(
+                new OrderCreatedEvent("order-1", "customer-1", "product-1", 2, new BigDecimal("19.99"), NANOS, "CREATED"),
+                new OrderCreatedEvent("order-2", "klant-ü-€-😀", "product-2", Integer.MAX_VALUE,
+                        new BigDecimal("1234567890123.000001"), BEFORE_EPOCH, "CANCELLED"),
+                new InventoryUpdateEvent("order-1", "product-1", 2, -5, false, NANOS, "Insufficient stock"),
+                new NotificationEvent("order-1", "customer-1", "EMAIL", "Your order is confirmed",
+                        "customer@example.com", NANOS, "order-confirmation"),
+                new AnalyticsEvent("event-1", "ORDER_CREATED", "order-1", "customer-1", "product-1",
+                        new BigDecimal("39.98"), NANOS, additionalData));
+    }
+    
+    static Stream<Object> emptyEvents() {
+        return Stream.of(new OrderCreatedEvent(), new InventoryUpdateEvent(), new NotificationEvent(), new AnalyticsEvent());
+    }
+    
+    @ParameterizedTest
+    @MethodSource("events")
+    void binaryRoundTripPreservesEveryField(Object event) {
+        byte[] payload = codec.encode(event);
+        
+        assertThat(BinaryEventCodec.isBinary(payload)).isTrue();
+        assertThat(codec.decode(payload, event.getClass())).isEqualTo(event);
+    }
+    
+    @ParameterizedTest
+    @MethodSource("emptyEvents")
+    void nullFieldsStayNull(Object event) {
+        byte[] payload = codec.encode(event);
+        
+        assertThat(codec.decode(payload, event.getClass())).isEqualTo(event);
+        // Magic, schema id, version, field count, empty presence bitmap
+        assertThat(payload).hasSize(5);
+    }
+    
+    @Test
+    void timestampsKeepNanosecondsAndPreEpochValues() {
+        OrderCreatedEvent event = new OrderCreatedEvent("order-1", "customer-1", "product-1", 1, BigDecimal.ONE, NANOS, "CREATED");
+        
+        assertThat(codec.decode(codec.encode(event), OrderCreatedEvent.class).getOrderTimestamp()).isEqualTo(NANOS);
+        event.setOrderTimestamp(BEFORE_EPOCH);
+        assertThat(codec.decode(codec.encode(event), OrderCreatedEvent.class).getOrderTimestamp()).isEqualTo(BEFORE_EPOCH);
+    }
+    
+    @ParameterizedTest
+    @MethodSource("events")
+    void jsonAndBinaryDecodeToTheSameEvent(Object event) {
+        Object fromJson = eventUtils.deserialize(
+                eventUtils.serialize(event, EventContentTypes.JSON), EventContentTypes.JSON, event.getClass());
+        Object viaBinary = eventUtils.deserialize(
+                eventUtils.serialize(fromJson, EventContentTypes.BINARY), EventContentTypes.BINARY, event.getClass());
+        
+        assertThat(viaBinary).isEqualTo(fromJson);
+    }
+    
+    @Test
+    void jsonTimestampsAreSecondPrecisionWhileBinaryKeepsNanos() {
+        OrderCreatedEvent event = new OrderCreatedEvent("order-1", "customer-1", "product-1", 1, BigDecimal.ONE, NANOS, "CREATED");
+        
+        OrderCreatedEvent fromJson = eventUtils.deserialize(
+                eventUtils.serialize(event, EventContentTypes.JSON), EventContentTypes.JSON, OrderCreatedEvent.class);
+        OrderCreatedEvent fromBinary = eventUtils.deserialize(
+                eventUtils.serialize(event, EventContentTypes.BINARY), null, OrderCreatedEvent.class);
+        
+        assertThat(fromJson.getOrderTimestamp()).isEqualTo(NANOS.truncatedTo(ChronoUnit.SECONDS));
+        assertThat(fromBinary.getOrderTimestamp()).isEqualTo(NANOS);
+    }
+    
+    @Test
+    void orderEventReaderReadsJsonAndBinaryAlike() {
+        OrderEventReader reader = new OrderEventReader(objectMapper, codec);
+        OrderEventReader.Selection all = reader.select(OrderEventField.ORDER_ID, OrderEventField.values());
+        OrderCreatedEvent event = new OrderCreatedEvent("order-1", "customer-1", "product-1", 3,
+                new BigDecimal("4.50"), NANOS.truncatedTo(ChronoUnit.SECONDS), "CREATED");
+        
+        byte[] json = eventUtils.serialize(event, EventContentTypes.JSON);
+        byte[] binary = eventUtils.serialize(event, EventContentTypes.BINARY);
+        
+        assertThat(reader.read(json, EventContentTypes.JSON, all)).isEqualTo(event);
+        assertThat(reader.read(binary, null, all)).isEqualTo(event);
+        
+        OrderEventReader.Selection some = reader.select(OrderEventField.CUSTOMER_ID, OrderEventField.PRICE);
+        OrderCreatedEvent partial = new OrderCreatedEvent();
+        partial.setCustomerId("customer-1");
+        partial.setPrice(new BigDecimal("4.50"));
+        assertThat(reader.read(json, null, some)).isEqualTo(partial);
+        assertThat(reader.read(binary, null, some)).isEqualTo(partial);
+    }
+    
+    @Test
+    void fieldsAppendedByANewerWriterAreSkipped() {
+        EventSchema<OrderCreatedEvent> schema = codec.schemaFor(OrderCreatedEvent.class);
+        OrderCreatedEvent event = new OrderCreatedEvent("order-1", "customer-1", "product-1", 1, BigDecimal.TEN, NANOS, "CREATED");
+        int fields = schema.fields.size();
+        
+        BinaryWriter writer = new BinaryWriter(64);
+        writer.writeByte(BinaryEventCodec.MAGIC);
+        writer.writeByte(schema.id);
+        writer.writeByte(1);
+        writer.writeVarLong(fields + 1);
+        writer.writeVarLong((1L << (fields + 1)) - 1);
+        for (EventSchema.Field<OrderCreatedEvent> field : schema.fields) {
+            field.type.write(writer, field.getter.apply(event));
+        }
+        FieldType.STRING.write(writer, "a field this reader does not know");
+        
+        assertThat(codec.decode(writer.toByteArray(), OrderCreatedEvent.class)).isEqualTo(event);
+    }
+    
+    @Test
+    void newerFormatVersionIsRejected() {
+        byte[] payload = codec.encode(new OrderCreatedEvent());
+        payload[2] = 2;
+        
+        assertThatThrownBy(() -> codec.decode(payload, OrderCreatedEvent.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("version");
+    }
+    
+    @Test
+    void payloadOfAnotherSchemaIsRejected() {
+        byte[] payload = codec.encode(new NotificationEvent());
+        
+        assertThatThrownBy(() -> codec.decode(payload, OrderCreatedEvent.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("schema");
+    }
+}
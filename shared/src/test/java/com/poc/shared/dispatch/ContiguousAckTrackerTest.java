@@ -0,0 +1,103 @@
+package com.poc.shared.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ContiguousAckTrackerTest {
+    
+    private final ContiguousAckTracker tracker = new ContiguousAckTracker();
+    
+    @Test
+    void outOfOrderCompletionAdvancesOnlyTheContiguousWatermark() {
+        register(10, 11, 12, 13, 14);
+        
+        assertThat(tracker.complete(12, true)).isEqualTo(-1);
+        assertThat(tracker.complete(14, true)).isEqualTo(-1);
+        assertThat(tracker.complete(10, true)).isEqualTo(10);
+        assertThat(tracker.pending()).isEqualTo(4);
+        // Closes the gap up to the next unfinished sequence
+        assertThat(tracker.complete(11, true)).isEqualTo(12);
+        assertThat(tracker.complete(13, true)).isEqualTo(14);
+        assertThat(tracker.pending()).isZero();
+    }
+    
+    @Test
+    void unfinishedSequenceBlocksTheWatermark() {
+        register(0, 1, 2, 3);
+        
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            assertThat(tracker.complete(sequence, true)).isEqualTo(-1);
+        }
+        assertThat(tracker.pending()).isEqualTo(4);
+        
+        assertThat(tracker.complete(0, true)).isEqualTo(3);
+    }
+    
+    @Test
+    void failedSequenceIsNeverTheCommitPoint() {
+        register(0, 1, 2);
+        
+        assertThat(tracker.complete(0, true)).isEqualTo(0);
+        // Settled, but a cumulative ack must not land on it
+        assertThat(tracker.complete(1, false)).isEqualTo(-1);
+        assertThat(tracker.pending()).isEqualTo(1);
+        assertThat(tracker.complete(2, true)).isEqualTo(2);
+    }
+    
+    @Test
+    void failedTailLeavesTheWatermarkWhereItWas() {
+        register(5, 6, 7);
+        
+        assertThat(tracker.complete(7, false)).isEqualTo(-1);
+        assertThat(tracker.complete(6, false)).isEqualTo(-1);
+        assertThat(tracker.complete(5, true)).isEqualTo(5);
+        assertThat(tracker.pending()).isZero();
+        
+        register(8);
+        assertThat(tracker.complete(8, true)).isEqualTo(8);
+    }
+    
+    @Test
+    void watermarkNeverMovesBackwards() {
+        long[] sequences = LongStream.range(0, 1_000).toArray();
+        register(sequences);
+        List<Long> order = new ArrayList<>();
+        for (long sequence : sequences) {
+            order.add(sequence);
+        }
+        Collections.shuffle(order, new Random(42));
+        
+        long watermark = -1;
+        for (long sequence : order) {
+            long commitTo = tracker.complete(sequence, true);
+            if (commitTo >= 0) {
+                assertThat(commitTo).isGreaterThan(watermark);
+                watermark = commitTo;
+            }
+        }
+        assertThat(watermark).isEqualTo(999);
+    }
+    
+    @Test
+    void rejectsSequencesThatAreNotInFlight() {
+        register(1);
+        assertThatThrownBy(() -> tracker.complete(2, true)).isInstanceOf(IllegalArgumentException.class);
+        
+        tracker.complete(1, true);
+        assertThatThrownBy(() -> tracker.complete(1, true)).isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    private void register(long... sequences) {
+        for (long sequence : sequences) {
+            tracker.register(sequence);
+        }
+    }
+}
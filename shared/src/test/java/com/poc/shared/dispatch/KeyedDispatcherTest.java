@@ -0,0 +1,132 @@
+package com.poc.shared.dispatch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyedDispatcherTest {
+    
+    @Test
+    void tasksForOneKeyRunInSubmissionOrder() throws Exception {
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        try (KeyedDispatcher dispatcher = new KeyedDispatcher("order-test", 4, 16)) {
+            for (int i = 0; i < 2_000; i++) {
+                String key = "customer-" + (i % 37);
+                int position = i;
+                dispatcher.submit(key, () -> seen.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(position));
+            }
+        }
+        
+        assertThat(seen).hasSize(37);
+        seen.values().forEach(positions -> assertThat(positions).isSorted().hasSizeBetween(54, 55));
+    }
+    
+    @Test
+    void differentKeysRunInParallel() throws Exception {
+        try (KeyedDispatcher dispatcher = new KeyedDispatcher("parallel-test", 4, 16)) {
+            List<String> keys = keysOnDistinctWorkers(dispatcher.workerCount());
+            CountDownLatch allRunning = new CountDownLatch(keys.size());
+            CountDownLatch release = new CountDownLatch(1);
+            for (String key : keys) {
+                dispatcher.submit(key, () -> {
+                    allRunning.countDown();
+                    await(release);
+                });
+            }
+            
+            // Each task blocks until every other one has started
+            assertThat(allRunning.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+        }
+    }
+    
+    @Test
+    void blockedKeyDoesNotHoldBackOtherWorkers() throws Exception {
+        try (KeyedDispatcher dispatcher = new KeyedDispatcher("blocked-test", 2, 16)) {
+            List<String> keys = keysOnDistinctWorkers(2);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch otherDone = new CountDownLatch(3);
+            dispatcher.submit(keys.get(0), () -> await(release));
+            for (int i = 0; i < 3; i++) {
+                dispatcher.submit(keys.get(1), otherDone::countDown);
+            }
+            
+            assertThat(otherDone.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+        }
+    }
+    
+    @Test
+    void closeDrainsQueuedWork() throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        KeyedDispatcher dispatcher = new KeyedDispatcher("drain-test", 2, 256);
+        dispatcher.submit("slow", () -> await(release));
+        for (int i = 0; i < 200; i++) {
+            dispatcher.submit("key-" + i, completed::incrementAndGet);
+        }
+        // Still blocked when close() starts, so the queues are full of work
+        Thread releaser = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.start();
+        
+        dispatcher.close();
+        
+        assertThat(completed).hasValue(200);
+        assertThatThrownBy(() -> dispatcher.submit("late", completed::incrementAndGet))
+                .isInstanceOf(IllegalStateException.class);
+    }
+    
+    @Test
+    void failingTaskDoesNotStopTheWorker() throws Exception {
+        AtomicInteger completed = new AtomicInteger();
+        try (KeyedDispatcher dispatcher = new KeyedDispatcher("failure-test", 1, 16)) {
+            dispatcher.submit("key", () -> {
+                throw new IllegalStateException("boom");
+            });
+            dispatcher.submit("key", completed::incrementAndGet);
+        }
+        
+        assertThat(completed).hasValue(1);
+    }
+    
+    // Keys hashing to worker 0, 1, ... under the dispatcher's floorMod spread
+    private static List<String> keysOnDistinctWorkers(int workerCount) {
+        String[] keys = new String[workerCount];
+        int found = 0;
+        for (int i = 0; found < workerCount; i++) {
+            String key = "key-" + i;
+            int worker = Math.floorMod(key.hashCode(), workerCount);
+            if (keys[worker] == null) {
+                keys[worker] = key;
+                found++;
+            }
+        }
+        return List.of(keys);
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.poc.shared.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+    
+    private static final long MILLIS = 1_760_000_000_123L;
+    
+    private final AtomicLong clock = new AtomicLong(MILLIS);
+    private final UuidV7Generator generator = new UuidV7Generator(clock::get);
+    
+    @Test
+    void versionAndVariantBits() {
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = new UuidV7Generator().nextId();
+            assertThat(id.version()).isEqualTo(7);
+            assertThat(id.variant()).isEqualTo(2);
+        }
+    }
+    
+    @Test
+    void timestampFieldIsTheClockMillisecond() {
+        UUID id = generator.nextId();
+        
+        assertThat(timestamp(id)).isEqualTo(MILLIS);
+        assertThat(counter(id)).isZero();
+        // Canonical text starts with the 48-bit timestamp in hex
+        assertThat(id.toString().replace("-", "")).startsWith(String.format("%012x", MILLIS));
+        
+        long before = System.currentTimeMillis();
+        long stamped = timestamp(new UuidV7Generator().nextId());
+        assertThat(stamped).isBetween(before, System.currentTimeMillis());
+    }
+    
+    @Test
+    void counterOverflowBorrowsTheNextMillisecond() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 4096 + 10; i++) {
+            ids.add(generator.nextId());
+        }
+        
+        for (int i = 0; i < 4096; i++) {
+            assertThat(timestamp(ids.get(i))).isEqualTo(MILLIS);
+            assertThat(counter(ids.get(i))).isEqualTo(i);
+        }
+        assertThat(timestamp(ids.get(4096))).isEqualTo(MILLIS + 1);
+        assertThat(counter(ids.get(4096))).isZero();
+        assertStrictlyIncreasing(ids);
+        
+        // The clock catching up continues after the borrowed ids, not over them
+        clock.set(MILLIS + 1);
+        UUID next = generator.nextId();
+        assertThat(timestamp(next)).isEqualTo(MILLIS + 1);
+        assertThat(counter(next)).isEqualTo(10);
+    }
+    
+    @Test
+    void clockStepBackStaysMonotonic() {
+        UUID first = generator.nextId();
+        clock.set(MILLIS - 5_000);
+        UUID second = generator.nextId();
+        
+        assertStrictlyIncreasing(List.of(first, second));
+        assertThat(timestamp(second)).isEqualTo(MILLIS);
+    }
+    
+    @Test
+    void strictlyIncreasingAcrossThreads() throws Exception {
+        int threads = 8;
+        int perThread = 50_000;
+        // A frozen clock pushes every thread through counter overflow
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<List<UUID>>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(() -> {
+                    List<UUID> ids = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) {
+                        ids.add(generator.nextId());
+                    }
+                    return ids;
+                });
+            }
+            
+            Set<Long> ticks = new HashSet<>();
+            for (Future<List<UUID>> result : executor.invokeAll(tasks)) {
+                List<UUID> ids = result.get();
+                assertStrictlyIncreasing(ids);
+                ids.forEach(id -> ticks.add(id.getMostSignificantBits()));
+            }
+            // Timestamp and counter are never handed out twice
+            assertThat(ticks).hasSize(threads * perThread);
+            assertThat(timestamp(generator.nextId())).isEqualTo(MILLIS + (long) threads * perThread / 4096);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void shortFormIsTheLastEightHexDigits() {
+        UUID id = generator.nextId();
+        String text = id.toString();
+        
+        assertThat(IdGenerator.shortForm(text)).isEqualTo(text.substring(28)).hasSize(8);
+        assertThat(IdGenerator.shortForm(text))
+                .isEqualTo(String.format("%08x", id.getLeastSignificantBits() & 0xFFFFFFFFL));
+        // Ids from one millisecond differ there even though their prefixes match
+        assertThat(IdGenerator.shortForm(generator.nextId().toString())).isNotEqualTo(IdGenerator.shortForm(text));
+        assertThat(IdGenerator.shortForm("abc123")).isEqualTo("abc123");
+    }
+    
+    private static long timestamp(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+    
+    private static long counter(UUID id) {
+        return id.getMostSignificantBits() & 0xFFFL;
+    }
+    
+    // Byte order, as BINARY(16) sorts; the timestamp and counter decide it
+    private static void assertStrictlyIncreasing(List<UUID> ids) {
+        for (int i = 1; i < ids.size(); i++) {
+            assertThat(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(), ids.get(i).getMostSignificantBits()))
+                    .as("id %d after %s", i, ids.get(i - 1))
+                    .isNegative();
+        }
+    }
+}
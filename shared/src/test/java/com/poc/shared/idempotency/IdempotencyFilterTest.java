@@ -0,0 +1,131 @@
+package com.poc.shared.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+    
+    private static final Duration SHORT_WINDOW = Duration.ofMillis(100);
+    
+    private final RecordingStore store = new RecordingStore();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    
+    @Test
+    void warmUpChecksUnconfirmedIdsAgainstTheStore() {
+        // Handled before a restart, or by another instance
+        store.processed.add("inventory-service:order-1");
+        IdempotencyFilter filter = filter(Duration.ofHours(1), 1 << 16, 100);
+        
+        assertThat(filter.isDuplicate("order-1")).isTrue();
+        assertThat(filter.isDuplicate("order-2")).isFalse();
+        assertThat(store.lookups).containsExactly("order-1", "order-2");
+        assertThat(meterRegistry.get("poc.idempotency.duplicates").counter().count()).isEqualTo(1);
+    }
+    
+    @Test
+    void confirmedIdsNeverReachTheStore() {
+        IdempotencyFilter filter = filter(Duration.ofHours(1), 1 << 16, 100);
+        filter.markProcessed("order-1");
+        
+        assertThat(filter.isDuplicate("order-1")).isTrue();
+        assertThat(store.lookups).isEmpty();
+        assertThat(store.processed).containsExactly("inventory-service:order-1");
+    }
+    
+    @Test
+    void onceWarmABloomMissIsNewWithoutAStoreLookup() throws InterruptedException {
+        store.processed.add("inventory-service:order-1");
+        IdempotencyFilter filter = filter(SHORT_WINDOW, 1 << 16, 100);
+        waitOut(SHORT_WINDOW);
+        
+        // Older than the window: accepted as new rather than looked up
+        assertThat(filter.isDuplicate("order-1")).isFalse();
+        assertThat(filter.isDuplicate("order-2")).isFalse();
+        assertThat(store.lookups).isEmpty();
+    }
+    
+    @Test
+    void bloomFalsePositiveFallsThroughToTheStore() throws InterruptedException {
+        // 64 bits and one hash: a few hundred ids set every bit
+        IdempotencyFilter filter = filter(SHORT_WINDOW, 64, 1, 1_000);
+        waitOut(SHORT_WINDOW);
+        for (int i = 0; i < 500; i++) {
+            filter.markProcessed("order-" + i);
+        }
+        
+        assertThat(filter.isDuplicate("never-seen")).isFalse();
+        assertThat(store.lookups).containsExactly("never-seen");
+    }
+    
+    @Test
+    void idEvictedFromTheLruIsConfirmedByTheStore() throws InterruptedException {
+        IdempotencyFilter filter = filter(SHORT_WINDOW, 1 << 16, 2);
+        waitOut(SHORT_WINDOW);
+        filter.markProcessed("order-1");
+        filter.markProcessed("order-2");
+        // Touch order-1 so order-2 is the eldest when order-3 arrives
+        assertThat(filter.isDuplicate("order-1")).isTrue();
+        filter.markProcessed("order-3");
+        assertThat(store.lookups).isEmpty();
+        
+        assertThat(filter.isDuplicate("order-1")).isTrue();
+        assertThat(filter.isDuplicate("order-3")).isTrue();
+        assertThat(store.lookups).isEmpty();
+        assertThat(filter.isDuplicate("order-2")).isTrue();
+        assertThat(store.lookups).containsExactly("order-2");
+    }
+    
+    @Test
+    void withoutAStoreAnUnconfirmedBloomHitIsNew() throws InterruptedException {
+        IdempotencyFilter filter = new IdempotencyFilter("inventory-service", SHORT_WINDOW, 1 << 16, 5, 1,
+                new StaticListableBeanFactory().getBeanProvider(ProcessedEventStore.class), meterRegistry);
+        waitOut(SHORT_WINDOW);
+        filter.markProcessed("order-1");
+        filter.markProcessed("order-2");
+        
+        assertThat(filter.isDuplicate("order-2")).isTrue();
+        assertThat(filter.isDuplicate("order-1")).isFalse();
+    }
+    
+    private IdempotencyFilter filter(Duration window, int bloomBits, int lruSize) {
+        return filter(window, bloomBits, 5, lruSize);
+    }
+    
+    private IdempotencyFilter filter(Duration window, int bloomBits, int bloomHashes, int lruSize) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("processedEventStore", store);
+        return new IdempotencyFilter("inventory-service", window, bloomBits, bloomHashes, lruSize,
+                beanFactory.getBeanProvider(ProcessedEventStore.class), meterRegistry);
+    }
+    
+    private static void waitOut(Duration window) throws InterruptedException {
+        TimeUnit.MILLISECONDS.sleep(window.toMillis() + 20);
+    }
+    
+    private static final class RecordingStore implements ProcessedEventStore {
+        
+        private final Set<String> processed = ConcurrentHashMap.newKeySet();
+        private final List<String> lookups = new ArrayList<>();
+        
+        @Override
+        public boolean contains(String consumerGroup, String eventId) {
+            lookups.add(eventId);
+            return processed.contains(consumerGroup + ':' + eventId);
+        }
+        
+        @Override
+        public void record(String consumerGroup, String eventId) {
+            processed.add(consumerGroup + ':' + eventId);
+        }
+    }
+}
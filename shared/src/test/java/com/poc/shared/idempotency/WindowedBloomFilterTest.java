@@ -0,0 +1,65 @@
+package com.poc.shared.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WindowedBloomFilterTest {
+    
+    private static final long WINDOW = TimeUnit.MINUTES.toNanos(10);
+    
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private final WindowedBloomFilter filter = new WindowedBloomFilter(1 << 16, 5, WINDOW, clock::get);
+    
+    @Test
+    void keyIsKeptThroughTheGenerationRotation() {
+        filter.put("order-1");
+        
+        clock.addAndGet(WINDOW - 1);
+        assertThat(filter.mightContain("order-1")).isTrue();
+        // Rotates: order-1 is now in the previous generation
+        clock.addAndGet(1);
+        assertThat(filter.mightContain("order-1")).isTrue();
+        clock.addAndGet(WINDOW - 1);
+        assertThat(filter.mightContain("order-1")).isTrue();
+        // Second rotation drops the generation holding it
+        clock.addAndGet(1);
+        assertThat(filter.mightContain("order-1")).isFalse();
+    }
+    
+    @Test
+    void keyPutLateInAGenerationIsKeptForOneFullWindow() {
+        clock.addAndGet(WINDOW - 1);
+        filter.put("order-1");
+        
+        clock.addAndGet(WINDOW - 1);
+        assertThat(filter.mightContain("order-1")).isTrue();
+    }
+    
+    @Test
+    void noFalseNegativesAndFewFalsePositives() {
+        for (int i = 0; i < 5_000; i++) {
+            filter.put("order-" + i);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(filter.mightContain("order-" + i)).isTrue();
+        }
+        
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        // About 0.3% for 5 hashes at 13 bits per key
+        assertThat(falsePositives).isLessThan(1_000);
+    }
+    
+    @Test
+    void memoryIsTwoBitArrays() {
+        assertThat(filter.memoryBytes()).isEqualTo(2 * (1 << 16) / 8);
+    }
+}